@@ -0,0 +1,69 @@
+package benchmark;
+
+import model.CompactCatalog;
+import model.SpotifyJsonParser;
+import model.Track;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Measures retained heap per million tracks held as parsed Track objects and as a CompactCatalog.
+ * Tracks come from the streaming parser, as they would from Spotify: every track has its own
+ * copies of artist and album names.
+ *
+ * Run: java -Xmx4g -cp <classes>:<deps> benchmark.CatalogFootprintBenchmark [trackCount]
+ */
+public class CatalogFootprintBenchmark {
+    private static final int TRACKS_PER_RESPONSE = 1_000;
+
+    public static void main(String[] args) throws IOException {
+        int trackCount = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        if (trackCount < TRACKS_PER_RESPONSE) {
+            throw new IllegalArgumentException("trackCount must be at least " + TRACKS_PER_RESPONSE
+                    + " (tracks are parsed " + TRACKS_PER_RESPONSE + " per response), got " + trackCount);
+        }
+        byte[] body = Fixtures.searchResponse(TRACKS_PER_RESPONSE);
+        int responses = trackCount / TRACKS_PER_RESPONSE;
+
+        long baseline = usedHeap();
+        List<Track> tracks = new ArrayList<>(trackCount);
+        for (int i = 0; i < responses; i++) {
+            tracks.addAll(SpotifyJsonParser.parseSearchTracks(body));
+        }
+        long trackBytes = usedHeap() - baseline;
+        int held = tracks.size();
+        tracks = null;
+
+        baseline = usedHeap();
+        CompactCatalog catalog = new CompactCatalog();
+        for (int i = 0; i < responses; i++) {
+            for (Track track : SpotifyJsonParser.parseSearchTracks(body)) {
+                catalog.add(track);
+            }
+        }
+        long compactBytes = usedHeap() - baseline;
+
+        System.out.printf("Tracks: %,d (%,d distinct artist/album names)%n", held, catalog.getNames().size());
+        System.out.printf("List<Track>:    %,14d bytes  %6.1f MB per million  %4d bytes/track%n",
+                trackBytes, perMillion(trackBytes, held), trackBytes / held);
+        System.out.printf("CompactCatalog: %,14d bytes  %6.1f MB per million  %4d bytes/track%n",
+                compactBytes, perMillion(compactBytes, catalog.size()), compactBytes / catalog.size());
+        System.out.printf("Reduction:      %13.1f%%%n", 100.0 * (trackBytes - compactBytes) / trackBytes);
+    }
+
+    private static double perMillion(long bytes, int count) {
+        return bytes * (1_000_000.0 / count) / (1024 * 1024);
+    }
+
+    private static long usedHeap() {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+}
@@ -0,0 +1,146 @@
+package benchmark;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+/**
+ * Synthetic Spotify Web API responses shaped like the real ones, including the
+ * large fields we never read (available_markets, images, external URLs).
+ * Generated from a fixed seed so every run sees identical bytes.
+ */
+public final class Fixtures {
+    private static final String[] MARKETS = {
+            "AD", "AE", "AG", "AL", "AM", "AO", "AR", "AT", "AU", "AZ", "BA", "BB", "BD", "BE", "BF", "BG",
+            "BH", "BI", "BJ", "BN", "BO", "BR", "BS", "BT", "BW", "BY", "BZ", "CA", "CD", "CG", "CH", "CI",
+            "CL", "CM", "CO", "CR", "CV", "CW", "CY", "CZ", "DE", "DJ", "DK", "DM", "DO", "DZ", "EC", "EE",
+            "EG", "ES", "ET", "FI", "FJ", "FM", "FR", "GA", "GB", "GD", "GE", "GH", "GM", "GN", "GQ", "GR",
+            "GT", "GW", "GY", "HK", "HN", "HR", "HT", "HU", "ID", "IE", "IL", "IN", "IQ", "IS", "IT", "JM",
+            "JO", "JP", "KE", "KG", "KH", "KI", "KM", "KN", "KR", "KW", "KZ", "LA", "LB", "LC", "LI", "LK",
+            "LR", "LS", "LT", "LU", "LV", "LY", "MA", "MC", "MD", "ME", "MG", "MH", "MK", "ML", "MN", "MO",
+            "MR", "MT", "MU", "MV", "MW", "MX", "MY", "MZ", "NA", "NE", "NG", "NI", "NL", "NO", "NP", "NR",
+            "NZ", "OM", "PA", "PE", "PG", "PH", "PK", "PL", "PS", "PT", "PW", "PY", "QA", "RO", "RS", "RW",
+            "SA", "SB", "SC", "SE", "SG", "SI", "SK", "SL", "SM", "SN", "SR", "ST", "SV", "SZ", "TD", "TG",
+            "TH", "TJ", "TL", "TN", "TO", "TR", "TT", "TV", "TW", "TZ", "UA", "UG", "US", "UY", "UZ", "VC",
+            "VE", "VN", "VU", "WS", "XK", "ZA", "ZM", "ZW"
+    };
+
+    private static final String ID_CHARS = "0123456789abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ";
+
+    private Fixtures() {
+    }
+
+    /**
+     * Body of GET /search?type=track&limit={count}
+     */
+    public static byte[] searchResponse(int count) {
+        Random random = new Random(42);
+        StringBuilder json = new StringBuilder();
+        json.append("{\"tracks\":{\"href\":\"https://api.spotify.com/v1/search?query=ado&type=track&offset=0&limit=")
+                .append(count).append("\",\"items\":[");
+        appendTracks(json, count, random);
+        json.append("],\"limit\":").append(count)
+                .append(",\"next\":\"https://api.spotify.com/v1/search?query=ado&type=track&offset=")
+                .append(count).append("\",\"offset\":0,\"previous\":null,\"total\":900}}");
+        return json.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Body of GET /artists/{id}/top-tracks
+     */
+    public static byte[] topTracksResponse(int count) {
+        Random random = new Random(7);
+        StringBuilder json = new StringBuilder("{\"tracks\":[");
+        appendTracks(json, count, random);
+        json.append("]}");
+        return json.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * A single track object as it appears inside either response
+     */
+    public static byte[] track() {
+        StringBuilder json = new StringBuilder();
+        appendTrack(json, 1, new Random(3));
+        return json.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static void appendTracks(StringBuilder json, int count, Random random) {
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            appendTrack(json, i, random);
+        }
+    }
+
+    private static void appendTrack(StringBuilder json, int index, Random random) {
+        String artistId = id(random);
+        String artistName = "Artist " + (index % 7);
+        String albumId = id(random);
+        String trackId = id(random);
+
+        json.append("{\"album\":{\"album_type\":\"album\",\"artists\":[");
+        appendArtist(json, artistId, artistName);
+        json.append("],\"available_markets\":");
+        appendMarkets(json);
+        json.append(",\"external_urls\":{\"spotify\":\"https://open.spotify.com/album/").append(albumId)
+                .append("\"},\"href\":\"https://api.spotify.com/v1/albums/").append(albumId)
+                .append("\",\"id\":\"").append(albumId).append("\",\"images\":[");
+        int[] sizes = {640, 300, 64};
+        for (int i = 0; i < sizes.length; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("{\"height\":").append(sizes[i]).append(",\"url\":\"https://i.scdn.co/image/ab67616d0000b273")
+                    .append(id(random)).append("\",\"width\":").append(sizes[i]).append('}');
+        }
+        json.append("],\"name\":\"Album ").append(index % 11)
+                .append("\",\"release_date\":\"2022-01-26\",\"release_date_precision\":\"day\",\"total_tracks\":14,")
+                .append("\"type\":\"album\",\"uri\":\"spotify:album:").append(albumId).append("\"},");
+
+        json.append("\"artists\":[");
+        appendArtist(json, artistId, artistName);
+        if (index % 3 == 0) {
+            json.append(',');
+            appendArtist(json, id(random), "Featured " + (index % 5));
+        }
+        json.append("],\"available_markets\":");
+        appendMarkets(json);
+        json.append(",\"disc_number\":1,\"duration_ms\":").append(150_000 + random.nextInt(120_000))
+                .append(",\"explicit\":false,\"external_ids\":{\"isrc\":\"JPU90210").append(1000 + index)
+                .append("\"},\"external_urls\":{\"spotify\":\"https://open.spotify.com/track/").append(trackId)
+                .append("\"},\"href\":\"https://api.spotify.com/v1/tracks/").append(trackId)
+                .append("\",\"id\":\"").append(trackId)
+                .append("\",\"is_local\":false,\"name\":\"Track ").append(index)
+                .append("\",\"popularity\":").append(random.nextInt(101))
+                .append(",\"preview_url\":").append(index % 2 == 0 ? "null" : "\"https://p.scdn.co/mp3-preview/" + id(random) + "\"")
+                .append(",\"track_number\":").append(1 + index % 14)
+                .append(",\"type\":\"track\",\"uri\":\"spotify:track:").append(trackId).append("\"}");
+    }
+
+    private static void appendArtist(StringBuilder json, String id, String name) {
+        json.append("{\"external_urls\":{\"spotify\":\"https://open.spotify.com/artist/").append(id)
+                .append("\"},\"href\":\"https://api.spotify.com/v1/artists/").append(id)
+                .append("\",\"id\":\"").append(id).append("\",\"name\":\"").append(name)
+                .append("\",\"type\":\"artist\",\"uri\":\"spotify:artist:").append(id).append("\"}");
+    }
+
+    private static void appendMarkets(StringBuilder json) {
+        json.append('[');
+        for (int i = 0; i < MARKETS.length; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append('"').append(MARKETS[i]).append('"');
+        }
+        json.append(']');
+    }
+
+    private static String id(Random random) {
+        char[] chars = new char[22];
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = ID_CHARS.charAt(random.nextInt(ID_CHARS.length()));
+        }
+        return new String(chars);
+    }
+}
@@ -0,0 +1,59 @@
+package benchmark;
+
+import model.SpotifyJsonParser;
+import model.Track;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+
+/**
+ * Measures bytes allocated per parsed /search response for the tree-based baseline
+ * and the streaming SpotifyJsonParser.
+ *
+ * Run: java -cp <classes>:<deps> benchmark.ParseAllocationBenchmark [trackCount]
+ */
+public class ParseAllocationBenchmark {
+    private static final int WARMUP_ITERATIONS = 5_000;
+    private static final int MEASURED_ITERATIONS = 5_000;
+
+    @FunctionalInterface
+    private interface Parser {
+        List<Track> parse(byte[] body) throws IOException;
+    }
+
+    public static void main(String[] args) throws IOException {
+        int trackCount = args.length > 0 ? Integer.parseInt(args[0]) : 50;
+        byte[] body = Fixtures.searchResponse(trackCount);
+
+        System.out.printf("Response: %d tracks, %,d bytes%n", trackCount, body.length);
+
+        long tree = bytesPerCall(TreeParser::parseSearchTracks, body);
+        long streaming = bytesPerCall(SpotifyJsonParser::parseSearchTracks, body);
+
+        System.out.printf("String + JsonParser tree: %,12d bytes/request%n", tree);
+        System.out.printf("Streaming JsonReader:     %,12d bytes/request%n", streaming);
+        System.out.printf("Reduction:                %11.1fx%n", (double) tree / streaming);
+    }
+
+    private static long bytesPerCall(Parser parser, byte[] body) throws IOException {
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+        int sink = 0;
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            sink += parser.parse(body).size();
+        }
+
+        long before = threads.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+            sink += parser.parse(body).size();
+        }
+        long after = threads.getCurrentThreadAllocatedBytes();
+
+        if (sink == 42) {
+            System.out.println();
+        }
+        return (after - before) / MEASURED_ITERATIONS;
+    }
+}
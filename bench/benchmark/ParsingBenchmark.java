@@ -0,0 +1,73 @@
+package benchmark;
+
+import com.google.gson.stream.JsonReader;
+import model.SpotifyJsonParser;
+import model.Track;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Response parsing: a single track object, a full /search page and a /top-tracks page,
+ * with the old String + JsonParser tree path as a baseline.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ParsingBenchmark {
+
+    @Param({"10", "50"})
+    int trackCount;
+
+    byte[] track;
+    byte[] searchResponse;
+    byte[] topTracksResponse;
+
+    @Setup
+    public void setUp() {
+        track = Fixtures.track();
+        searchResponse = Fixtures.searchResponse(trackCount);
+        topTracksResponse = Fixtures.topTracksResponse(trackCount);
+    }
+
+    @Benchmark
+    public Track parseTrack() throws IOException {
+        try (JsonReader in = new JsonReader(new InputStreamReader(
+                new ByteArrayInputStream(track), StandardCharsets.UTF_8))) {
+            return SpotifyJsonParser.readTrack(in);
+        }
+    }
+
+    @Benchmark
+    public List<Track> parseSearchResponse() throws IOException {
+        return SpotifyJsonParser.parseSearchTracks(searchResponse);
+    }
+
+    @Benchmark
+    public List<Track> parseSearchResponseTree() {
+        return TreeParser.parseSearchTracks(searchResponse);
+    }
+
+    @Benchmark
+    public List<Track> parseTopTracksResponse() throws IOException {
+        return SpotifyJsonParser.parseTopTracks(topTracksResponse);
+    }
+}
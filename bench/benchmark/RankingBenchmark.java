@@ -0,0 +1,65 @@
+package benchmark;
+
+import model.ArtistSimilarityStrategy;
+import model.ParallelArtistStrategy;
+import model.PopularityBasedStrategy;
+import model.RecommendationStrategy;
+import model.Track;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The filter / sort / limit pipeline of each strategy over a stubbed candidate pool.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RankingBenchmark {
+
+    @Param({"artist", "popularity", "parallel"})
+    String strategyName;
+
+    @Param({"50", "500"})
+    int poolSize;
+
+    RecommendationStrategy strategy;
+    StubSpotifyAPI api;
+    Track seed;
+
+    @Setup
+    public void setUp() throws IOException {
+        api = new StubSpotifyAPI(poolSize, poolSize);
+        seed = api.getSearchResults().get(0);
+        switch (strategyName) {
+            case "popularity":
+                strategy = new PopularityBasedStrategy();
+                break;
+            case "parallel":
+                strategy = new ParallelArtistStrategy();
+                break;
+            default:
+                strategy = new ArtistSimilarityStrategy();
+        }
+    }
+
+    @Benchmark
+    public List<Track> recommend() throws IOException {
+        return strategy.recommend(seed, api, 10);
+    }
+}
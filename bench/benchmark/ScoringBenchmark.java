@@ -0,0 +1,70 @@
+package benchmark;
+
+import model.CandidatePool;
+import model.ScoringPipeline;
+import model.Track;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Top 10 of a candidate pool through the ScoringPipeline: popularity and duration alone (the
+ * primitive-array loops) and with every built-in stage. The pool is built once in setup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ScoringBenchmark {
+
+    @Param({"50", "500", "5000", "100000"})
+    int poolSize;
+
+    CandidatePool pool;
+    ScoringPipeline numeric;
+    ScoringPipeline all;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        List<Track> candidates = new ArrayList<>(poolSize);
+        for (int i = 0; i < poolSize; i++) {
+            Track track = new Track("track" + i, "Song " + i, List.of("Artist " + (i % 7)), "Album");
+            track.setPopularity(random.nextInt(101));
+            track.setDurationMs(120_000 + random.nextInt(240_000));
+            candidates.add(track);
+        }
+        Track seed = new Track("seed", "Seed", List.of("Artist 3", "Artist 5"), "Album");
+        seed.setDurationMs(210_000);
+
+        pool = CandidatePool.of(candidates, seed);
+        numeric = ScoringPipeline.fromWeights("popularity=1,duration=0.3");
+        // No repeat stage: its memory would change the answer from one call to the next
+        all = ScoringPipeline.fromWeights("popularity=1,overlap=0.5,duration=0.3");
+    }
+
+    @Benchmark
+    public List<Track> numericStages() {
+        return numeric.rank(pool, 10);
+    }
+
+    @Benchmark
+    public List<Track> allStages() {
+        return all.rank(pool, 10);
+    }
+}
@@ -0,0 +1,118 @@
+package benchmark;
+
+import com.google.gson.JsonObject;
+import model.Track;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import server.ClientHandler;
+import server.RequestHandler;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The server request path against a stubbed Spotify API: the JSON handling of one request
+ * in-process, and a full round trip through ClientHandler over a loopback socket.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ServerBenchmark {
+
+    RequestHandler handler;
+    String searchRequest;
+    String recommendRequest;
+
+    ServerSocket serverSocket;
+    Socket socket;
+    PrintWriter out;
+    BufferedReader in;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        StubSpotifyAPI api = new StubSpotifyAPI(20, 10);
+        handler = new RequestHandler(api);
+
+        JsonObject search = new JsonObject();
+        search.addProperty("action", "SEARCH");
+        search.addProperty("query", "ado");
+        search.addProperty("limit", 20);
+        searchRequest = search.toString();
+
+        Track seed = api.getSearchResults().get(0);
+        JsonObject recommend = new JsonObject();
+        recommend.addProperty("action", "RECOMMEND");
+        recommend.addProperty("trackId", seed.getId());
+        recommend.addProperty("trackName", seed.getName());
+        recommend.addProperty("trackArtist", seed.getArtists().get(0));
+        recommend.addProperty("trackAlbum", seed.getAlbumName());
+        recommend.addProperty("count", 10);
+        recommendRequest = recommend.toString();
+
+        serverSocket = new ServerSocket(0, 1, InetAddress.getLoopbackAddress());
+        Thread acceptor = new Thread(() -> {
+            try {
+                new ClientHandler(serverSocket.accept(), api).run();
+            } catch (IOException ignored) {
+            }
+        });
+        acceptor.setDaemon(true);
+        acceptor.start();
+
+        socket = new Socket(InetAddress.getLoopbackAddress(), serverSocket.getLocalPort());
+        socket.setTcpNoDelay(true);
+        out = new PrintWriter(socket.getOutputStream(), true, StandardCharsets.UTF_8);
+        in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        socket.close();
+        serverSocket.close();
+    }
+
+    /**
+     * Request parsing plus Gson serialization of a 20-track search result
+     */
+    @Benchmark
+    public String handleSearch() {
+        return handler.handleRequest(searchRequest);
+    }
+
+    @Benchmark
+    public String handleRecommend() {
+        return handler.handleRequest(recommendRequest);
+    }
+
+    @Benchmark
+    public String roundTripSearch() throws IOException {
+        out.println(searchRequest);
+        return in.readLine();
+    }
+
+    @Benchmark
+    public String roundTripRecommend() throws IOException {
+        out.println(recommendRequest);
+        return in.readLine();
+    }
+}
@@ -0,0 +1,41 @@
+package benchmark;
+
+import model.SpotifyAPI;
+import model.SpotifyJsonParser;
+import model.Track;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * SpotifyAPI answering every call from the recorded fixtures, with no network or parsing cost,
+ * so benchmarks measure only the code above the API.
+ */
+public class StubSpotifyAPI implements SpotifyAPI {
+    private final List<Track> searchResults;
+    private final List<Track> topTracks;
+
+    public StubSpotifyAPI(int searchCount, int topTrackCount) throws IOException {
+        this.searchResults = SpotifyJsonParser.parseSearchTracks(Fixtures.searchResponse(searchCount));
+        this.topTracks = SpotifyJsonParser.parseTopTracks(Fixtures.topTracksResponse(topTrackCount));
+    }
+
+    @Override
+    public List<Track> searchTracks(String query, int limit) {
+        return searchResults.subList(0, Math.min(limit, searchResults.size()));
+    }
+
+    @Override
+    public String getArtistID(String artist) {
+        return "stub-artist";
+    }
+
+    @Override
+    public List<Track> getArtistsTopTracks(String artistID) {
+        return topTracks;
+    }
+
+    public List<Track> getSearchResults() {
+        return searchResults;
+    }
+}
@@ -0,0 +1,76 @@
+package benchmark;
+
+import model.TopKRanker;
+import model.Track;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Top 10 of a candidate pool: TopKRanker against the stream pipeline the strategies used
+ * (dedupe through a LinkedHashSet, filter out the seed, sort by popularity, limit).
+ * One candidate in twenty repeats an earlier one, as when artists share tracks.
+ *
+ * Run with -prof gc to compare allocation per call as well as time.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TopKBenchmark {
+    private static final int COUNT = 10;
+
+    @Param({"50", "500", "5000", "100000"})
+    int poolSize;
+
+    List<Track> candidates;
+    String seedId;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        candidates = new ArrayList<>(poolSize);
+        for (int i = 0; i < poolSize; i++) {
+            if (i > 0 && random.nextInt(20) == 0) {
+                candidates.add(candidates.get(random.nextInt(i)));
+                continue;
+            }
+            Track track = new Track("track" + i, "Song " + i, List.of("Artist " + (i % 7)), "Album " + (i % 50));
+            track.setPopularity(random.nextInt(101));
+            candidates.add(track);
+        }
+        seedId = candidates.get(poolSize / 2).getId();
+    }
+
+    @Benchmark
+    public List<Track> stream() {
+        return new LinkedHashSet<>(candidates).stream()
+                .filter(track -> !track.getId().equals(seedId))
+                .sorted(Comparator.comparingInt(Track::getPopularity).reversed())
+                .limit(COUNT)
+                .collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public List<Track> ranker() {
+        return TopKRanker.top(candidates, seedId, COUNT);
+    }
+}
@@ -0,0 +1,62 @@
+package benchmark;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import model.Track;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The previous response path, kept as a baseline: decode the whole body into a String,
+ * build a JsonObject tree, then pick the fields out of it.
+ */
+public final class TreeParser {
+
+    private TreeParser() {
+    }
+
+    public static List<Track> parseSearchTracks(byte[] body) {
+        String jsonResponse = new String(body, StandardCharsets.UTF_8);
+        List<Track> tracks = new ArrayList<>();
+        JsonObject root = JsonParser.parseString(jsonResponse).getAsJsonObject();
+
+        if (!root.has("tracks")) {
+            return tracks;
+        }
+
+        JsonArray items = root.getAsJsonObject("tracks").getAsJsonArray("items");
+
+        for (JsonElement element : items) {
+            tracks.add(parseTrackFromJson(element.getAsJsonObject()));
+        }
+
+        return tracks;
+    }
+
+    public static Track parseTrackFromJson(JsonObject json) {
+        String id = json.get("id").getAsString();
+        String name = json.get("name").getAsString();
+
+        List<String> artists = new ArrayList<>();
+        JsonArray artistsArray = json.getAsJsonArray("artists");
+        for (JsonElement artistElement : artistsArray) {
+            artists.add(artistElement.getAsJsonObject().get("name").getAsString());
+        }
+
+        String albumName = json.getAsJsonObject("album").get("name").getAsString();
+
+        Track track = new Track(id, name, artists, albumName);
+        track.setDurationMs(json.get("duration_ms").getAsInt());
+        track.setPopularity(json.get("popularity").getAsInt());
+
+        if (json.has("preview_url") && !json.get("preview_url").isJsonNull()) {
+            track.setPreviewUrl(json.get("preview_url").getAsString());
+        }
+
+        return track;
+    }
+}
@@ -0,0 +1,117 @@
+package benchmark;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonPrimitive;
+import model.SpotifyJsonParser;
+import model.Track;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import server.BinaryProtocol;
+import server.Response;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encoding and decoding a 50-track response as a JSON line versus a BinaryProtocol frame.
+ * "Cold" frames come from a fresh connection; "warm" frames follow one that already sent the
+ * same artist and album names, as on a long-lived connection.
+ *
+ * main() prints the payload sizes: java -cp ... benchmark.WireFormatBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WireFormatBenchmark {
+    private static final int TRACKS = 50;
+
+    final Gson gson = new Gson();
+    Response response;
+    String jsonLine;
+    byte[] coldFrame;
+    byte[] warmFrame;
+    BinaryProtocol warmEncoder;
+    BinaryProtocol warmDecoder;
+
+    @Setup
+    public void setUp() throws IOException {
+        List<Track> tracks = SpotifyJsonParser.parseSearchTracks(Fixtures.searchResponse(TRACKS));
+        response = Response.success("SEARCH", tracks);
+        response.setId(new JsonPrimitive(42));
+
+        jsonLine = gson.toJson(response.toJson(gson));
+
+        warmEncoder = new BinaryProtocol();
+        coldFrame = encode(warmEncoder);
+        warmFrame = encode(warmEncoder);
+
+        warmDecoder = new BinaryProtocol();
+        warmDecoder.readResponse(new ByteArrayInputStream(coldFrame));
+    }
+
+    private byte[] encode(BinaryProtocol protocol) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        protocol.writeResponse(out, response);
+        return out.toByteArray();
+    }
+
+    @Benchmark
+    public byte[] jsonEncode() {
+        return gson.toJson(response.toJson(gson)).getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public Track[] jsonDecode() {
+        JsonObject json = gson.fromJson(jsonLine, JsonObject.class);
+        return gson.fromJson(json.get("data"), Track[].class);
+    }
+
+    @Benchmark
+    public byte[] binaryEncodeCold() throws IOException {
+        return encode(new BinaryProtocol());
+    }
+
+    @Benchmark
+    public byte[] binaryEncodeWarm() throws IOException {
+        return encode(warmEncoder);
+    }
+
+    @Benchmark
+    public Response binaryDecodeCold() throws IOException {
+        return new BinaryProtocol().readResponse(new ByteArrayInputStream(coldFrame));
+    }
+
+    @Benchmark
+    public Response binaryDecodeWarm() throws IOException {
+        return warmDecoder.readResponse(new ByteArrayInputStream(warmFrame));
+    }
+
+    public static void main(String[] args) throws IOException {
+        WireFormatBenchmark benchmark = new WireFormatBenchmark();
+        benchmark.setUp();
+
+        int json = benchmark.jsonLine.getBytes(StandardCharsets.UTF_8).length + 1;
+        System.out.printf("%d-track response%n", TRACKS);
+        System.out.printf("JSON line:           %,7d bytes%n", json);
+        System.out.printf("Binary, cold table:  %,7d bytes (%.1fx smaller)%n",
+                benchmark.coldFrame.length, (double) json / benchmark.coldFrame.length);
+        System.out.printf("Binary, warm table:  %,7d bytes (%.1fx smaller)%n",
+                benchmark.warmFrame.length, (double) json / benchmark.warmFrame.length);
+    }
+}
@@ -1,9 +1,9 @@
 import javafx.application.Application;
 import javafx.stage.Stage;
 import model.SpotifyAPIClient;
+import model.RecommendationCache;
 import model.RecommendationEngine;
-import model.RecommendationStrategy;
-import model.PopularityBasedStrategy;
+import model.StrategyRegistry;
 import service.APIService;
 import view.MainFrame;
 import view.RecommendationPanel;
@@ -15,9 +15,9 @@ public class Main extends Application {
         try {
             SpotifyAPIClient spotifyClient = new SpotifyAPIClient();
 
-            RecommendationStrategy defaultStrategy = new PopularityBasedStrategy();
-
-            RecommendationEngine recommendationEngine = new RecommendationEngine(defaultStrategy, spotifyClient);
+            // Repeated clicks on the same seed are answered from the result cache
+            RecommendationEngine recommendationEngine = new RecommendationEngine(StrategyRegistry.standard(null),
+                    StrategyRegistry.POPULARITY, spotifyClient, new RecommendationCache());
 
             APIService apiService = new APIService(spotifyClient, recommendationEngine);
 
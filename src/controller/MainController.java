@@ -4,6 +4,7 @@ import model.*;
 import config.Config;
 
 import java.io.IOException;
+import java.nio.file.Paths;
 import java.util.List;
 import java.util.Scanner;
 
@@ -22,10 +23,13 @@ public class MainController {
             // Authenticate once at startup
             apiClient.authenticate();
 
-            // Default strategy
-            RecommendationStrategy strategy = new ArtistSimilarityStrategy();
+            // Optional offline index built by ArtistIndexBuilder
+            String indexPath = System.getProperty("recommender.artistIndex");
+            ArtistIndex artistIndex = indexPath == null ? null : ArtistIndex.open(Paths.get(indexPath));
 
-            RecommendationEngine engine = new RecommendationEngine(strategy, apiClient);
+            // Strategies are built once and reused for every search
+            StrategyRegistry strategies = StrategyRegistry.standard(artistIndex);
+            RecommendationEngine engine = new RecommendationEngine(strategies, StrategyRegistry.ARTIST, apiClient);
 
             Scanner scanner = new Scanner(System.in);
 
@@ -70,17 +74,28 @@ public class MainController {
                 System.out.println("\nChoose Recommendation Strategy:");
                 System.out.println("1) Artist's Top Tracks");
                 System.out.println("2) Popularity-Based");
+                System.out.println("3) All Artists (Parallel)");
+                if (artistIndex != null) {
+                    System.out.println("4) Similar Artists (Offline Index)");
+                }
+                System.out.println("5) Multi-Signal Scoring");
                 System.out.print("Enter choice: ");
 
                 String strat = scanner.nextLine();
 
                 if (strat.equals("1")) {
-                    engine.setStrategy(new ArtistSimilarityStrategy());
+                    engine.setStrategy(StrategyRegistry.ARTIST);
                 } else if (strat.equals("2")) {
-                    engine.setStrategy(new PopularityBasedStrategy());
+                    engine.setStrategy(StrategyRegistry.POPULARITY);
+                } else if (strat.equals("3")) {
+                    engine.setStrategy(StrategyRegistry.PARALLEL);
+                } else if (strat.equals("4") && artistIndex != null) {
+                    engine.setStrategy(StrategyRegistry.INDEXED);
+                } else if (strat.equals("5")) {
+                    engine.setStrategy(StrategyRegistry.SCORED);
                 } else {
                     System.out.println("Invalid. Using default Artist's Top Tracks.");
-                    engine.setStrategy(new ArtistSimilarityStrategy());
+                    engine.setStrategy(StrategyRegistry.ARTIST);
                 }
 
                 // Get recommendations
@@ -0,0 +1,171 @@
+package metrics;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Named metrics, each optionally split by one label (e.g. action="SEARCH"), written out in
+ * the Prometheus text format.
+ *
+ * Looking up a metric that already exists is two ConcurrentHashMap reads, without allocating or
+ * locking, so hot paths may look up by label value each time (endpoint, strategy name).
+ * Gauges and function counters read their value from a supplier at scrape time, which suits
+ * state other classes already track (queue sizes, cache hit counts).
+ */
+public class MetricsRegistry {
+    private static final MetricsRegistry DEFAULT = new MetricsRegistry();
+
+    // Cumulative "le" buckets exported for every histogram, in seconds and in microseconds
+    private static final String[] BUCKET_LABELS = {
+            "0.0005", "0.001", "0.0025", "0.005", "0.01", "0.025", "0.05",
+            "0.1", "0.25", "0.5", "1", "2.5", "5", "10"};
+    private static final long[] BUCKET_MICROS = {
+            500, 1_000, 2_500, 5_000, 10_000, 25_000, 50_000,
+            100_000, 250_000, 500_000, 1_000_000, 2_500_000, 5_000_000, 10_000_000};
+
+    private enum Type {
+        COUNTER("counter"),
+        GAUGE("gauge"),
+        HISTOGRAM("histogram");
+
+        final String exposition;
+
+        Type(String exposition) {
+            this.exposition = exposition;
+        }
+    }
+
+    private static final class Family {
+        final String name;
+        final String help;
+        final Type type;
+        final String labelName;
+        // Keyed by label value ("" when unlabeled)
+        final ConcurrentHashMap<String, Object> children = new ConcurrentHashMap<>();
+
+        Family(String name, String help, Type type, String labelName) {
+            this.name = name;
+            this.help = help;
+            this.type = type;
+            this.labelName = labelName;
+        }
+    }
+
+    private final ConcurrentHashMap<String, Family> families = new ConcurrentHashMap<>();
+
+    /**
+     * The registry the server exposes and the model classes record into
+     */
+    public static MetricsRegistry getDefault() {
+        return DEFAULT;
+    }
+
+    public LatencyHistogram histogram(String name, String help) {
+        return histogram(name, help, null, "");
+    }
+
+    public LatencyHistogram histogram(String name, String help, String labelName, String labelValue) {
+        return (LatencyHistogram) child(name, help, Type.HISTOGRAM, labelName, labelValue, LatencyHistogram::new);
+    }
+
+    public Counter counter(String name, String help) {
+        return counter(name, help, null, "");
+    }
+
+    public Counter counter(String name, String help, String labelName, String labelValue) {
+        return (Counter) child(name, help, Type.COUNTER, labelName, labelValue, Counter::new);
+    }
+
+    /**
+     * A counter whose value another object already keeps; registering again replaces the supplier
+     */
+    public void counter(String name, String help, String labelName, String labelValue, LongSupplier value) {
+        replace(name, help, Type.COUNTER, labelName, labelValue, value);
+    }
+
+    /**
+     * A value read at scrape time; registering again replaces the supplier
+     */
+    public void gauge(String name, String help, LongSupplier value) {
+        replace(name, help, Type.GAUGE, null, "", value);
+    }
+
+    public void gauge(String name, String help, String labelName, String labelValue, LongSupplier value) {
+        replace(name, help, Type.GAUGE, labelName, labelValue, value);
+    }
+
+    private Object child(String name, String help, Type type, String labelName, String labelValue,
+                         Supplier<Object> factory) {
+        Family family = family(name, help, type, labelName);
+        Object existing = family.children.get(labelValue);
+        if (existing != null) {
+            return existing;
+        }
+        return family.children.computeIfAbsent(labelValue, value -> factory.get());
+    }
+
+    private void replace(String name, String help, Type type, String labelName, String labelValue,
+                         LongSupplier value) {
+        Family family = family(name, help, type, labelName);
+        family.children.put(labelValue, value);
+    }
+
+    private Family family(String name, String help, Type type, String labelName) {
+        Family family = families.get(name);
+        if (family == null) {
+            family = families.computeIfAbsent(name, key -> new Family(name, help, type, labelName));
+        }
+        if (family.type != type) {
+            throw new IllegalArgumentException(name + " is already registered as a " + family.type.exposition);
+        }
+        return family;
+    }
+
+    /**
+     * Write every metric in the Prometheus text exposition format (version 0.0.4)
+     */
+    public void writePrometheus(Writer out) throws IOException {
+        // Sorted so consecutive scrapes list series in the same order
+        for (Family family : new TreeMap<>(families).values()) {
+            out.write("# HELP " + family.name + " " + family.help + "\n");
+            out.write("# TYPE " + family.name + " " + family.type.exposition + "\n");
+            for (Map.Entry<String, Object> child : new TreeMap<>(family.children).entrySet()) {
+                String labels = family.labelName == null ? ""
+                        : family.labelName + "=\"" + escape(child.getKey()) + "\"";
+                writeChild(out, family.name, labels, child.getValue());
+            }
+        }
+    }
+
+    private static void writeChild(Writer out, String name, String labels, Object metric) throws IOException {
+        if (metric instanceof LatencyHistogram) {
+            LatencyHistogram histogram = (LatencyHistogram) metric;
+            String prefix = labels.isEmpty() ? "" : labels + ",";
+            for (int i = 0; i < BUCKET_MICROS.length; i++) {
+                out.write(name + "_bucket{" + prefix + "le=\"" + BUCKET_LABELS[i] + "\"} "
+                        + histogram.getCountBelow(BUCKET_MICROS[i]) + "\n");
+            }
+            long count = histogram.getCount();
+            out.write(name + "_bucket{" + prefix + "le=\"+Inf\"} " + count + "\n");
+            out.write(name + "_sum" + braces(labels) + " " + histogram.getSumNanos() / 1e9 + "\n");
+            out.write(name + "_count" + braces(labels) + " " + count + "\n");
+        } else if (metric instanceof Counter) {
+            out.write(name + braces(labels) + " " + ((Counter) metric).get() + "\n");
+        } else {
+            out.write(name + braces(labels) + " " + ((LongSupplier) metric).getAsLong() + "\n");
+        }
+    }
+
+    private static String braces(String labels) {
+        return labels.isEmpty() ? "" : "{" + labels + "}";
+    }
+
+    private static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+}
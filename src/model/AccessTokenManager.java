@@ -0,0 +1,241 @@
+package model;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Holds the client-credentials access token shared by every worker thread.
+ *
+ * Readers only do a volatile read of an immutable token. The token is refreshed on a
+ * background scheduler shortly before it expires, and at most one refresh is ever in
+ * flight: threads that find the token expired all wait on that same refresh.
+ */
+public class AccessTokenManager {
+    private static final Logger log = LoggerFactory.getLogger(AccessTokenManager.class);
+    private static final long REFRESH_MARGIN_MS = TimeUnit.SECONDS.toMillis(60);
+    private static final long RETRY_DELAY_MS = TimeUnit.SECONDS.toMillis(5);
+
+    /**
+     * Fetches a new token from the token endpoint
+     */
+    @FunctionalInterface
+    public interface TokenFetcher {
+        AccessToken fetch() throws IOException;
+    }
+
+    /**
+     * Immutable token value and the wall-clock time it expires at
+     */
+    public static final class AccessToken {
+        private final String value;
+        private final long expiresAt;
+
+        public AccessToken(String value, long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+
+        public String getValue() {
+            return value;
+        }
+
+        public long getExpiresAt() {
+            return expiresAt;
+        }
+
+        boolean isValidAt(long now) {
+            return value != null && now < expiresAt;
+        }
+    }
+
+    private final TokenFetcher fetcher;
+    private final ScheduledExecutorService scheduler;
+    private final AtomicReference<AccessToken> current = new AtomicReference<>(new AccessToken(null, 0));
+    private final AtomicReference<CompletableFuture<AccessToken>> inFlight = new AtomicReference<>();
+    private volatile ScheduledFuture<?> scheduledRefresh;
+
+    private final LongAdder refreshes = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder totalRefreshNanos = new LongAdder();
+    private volatile long lastRefreshLatencyMs;
+
+    public AccessTokenManager(TokenFetcher fetcher) {
+        this.fetcher = fetcher;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "token-refresh");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Return a valid token, waiting for a refresh only if the current one has already expired
+     */
+    public String getToken() throws IOException {
+        AccessToken token = current.get();
+        if (token.isValidAt(System.currentTimeMillis())) {
+            return token.getValue();
+        }
+        return await(refresh(true)).getValue();
+    }
+
+    /**
+     * Return a valid token without blocking: at once while the current one is valid, otherwise
+     * once a refresh finishes. The refresh runs on the refresh thread, never the caller's.
+     */
+    public CompletableFuture<String> getTokenAsync() {
+        AccessToken token = current.get();
+        if (token.isValidAt(System.currentTimeMillis())) {
+            return CompletableFuture.completedFuture(token.getValue());
+        }
+        return refresh(false).thenApply(AccessToken::getValue);
+    }
+
+    /**
+     * Fetch a new token now and wait for it (used at startup)
+     */
+    public void refreshNow() throws IOException {
+        await(refresh(true));
+    }
+
+    /**
+     * Replace the token with one obtained elsewhere
+     */
+    public void setToken(String value, long expiresAt) {
+        AccessToken token = new AccessToken(value, expiresAt);
+        current.set(token);
+        scheduleRefresh(token);
+    }
+
+    public AccessToken getCurrent() {
+        return current.get();
+    }
+
+    /**
+     * Start a refresh, or join the one already running
+     *
+     * @param inline Fetch on the calling thread rather than the refresh thread
+     */
+    private CompletableFuture<AccessToken> refresh(boolean inline) {
+        while (true) {
+            CompletableFuture<AccessToken> pending = inFlight.get();
+            if (pending != null) {
+                return pending;
+            }
+
+            CompletableFuture<AccessToken> mine = new CompletableFuture<>();
+            if (inFlight.compareAndSet(null, mine)) {
+                if (inline) {
+                    runRefresh(mine);
+                } else {
+                    startRefresh(mine);
+                }
+                return mine;
+            }
+        }
+    }
+
+    private void startRefresh(CompletableFuture<AccessToken> result) {
+        try {
+            scheduler.execute(() -> runRefresh(result));
+        } catch (RejectedExecutionException e) {
+            inFlight.set(null);
+            result.completeExceptionally(new IOException("Access token manager is closed", e));
+        }
+    }
+
+    private void runRefresh(CompletableFuture<AccessToken> result) {
+        long start = System.nanoTime();
+        try {
+            AccessToken token = fetcher.fetch();
+            current.set(token);
+            recordLatency(start);
+            refreshes.increment();
+            scheduleRefresh(token);
+            inFlight.set(null);
+            result.complete(token);
+        } catch (IOException | RuntimeException e) {
+            recordLatency(start);
+            failures.increment();
+            inFlight.set(null);
+            result.completeExceptionally(e);
+        }
+    }
+
+    private void recordLatency(long startNanos) {
+        long elapsed = System.nanoTime() - startNanos;
+        totalRefreshNanos.add(elapsed);
+        lastRefreshLatencyMs = TimeUnit.NANOSECONDS.toMillis(elapsed);
+    }
+
+    private void scheduleRefresh(AccessToken token) {
+        long delay = Math.max(0, token.getExpiresAt() - REFRESH_MARGIN_MS - System.currentTimeMillis());
+        schedule(delay);
+    }
+
+    private void schedule(long delayMs) {
+        ScheduledFuture<?> previous = scheduledRefresh;
+        if (previous != null) {
+            previous.cancel(false);
+        }
+        if (!scheduler.isShutdown()) {
+            scheduledRefresh = scheduler.schedule(this::backgroundRefresh, delayMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void backgroundRefresh() {
+        refresh(true).whenComplete((token, error) -> {
+            if (error != null) {
+                log.warn("Background token refresh failed, retrying: {}", error.getMessage());
+                schedule(RETRY_DELAY_MS);
+            }
+        });
+    }
+
+    private static AccessToken await(CompletableFuture<AccessToken> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while refreshing access token", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            throw new IOException("Failed to refresh access token: " + cause.getMessage(), cause);
+        }
+    }
+
+    public long getRefreshCount() {
+        return refreshes.sum();
+    }
+
+    public long getRefreshFailures() {
+        return failures.sum();
+    }
+
+    public long getLastRefreshLatencyMs() {
+        return lastRefreshLatencyMs;
+    }
+
+    public double getAverageRefreshLatencyMs() {
+        long attempts = refreshes.sum() + failures.sum();
+        return attempts == 0 ? 0 : totalRefreshNanos.sum() / 1_000_000.0 / attempts;
+    }
+
+    public void close() {
+        scheduler.shutdownNow();
+    }
+}
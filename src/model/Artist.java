@@ -0,0 +1,79 @@
+package model;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Represents an artist as returned by Spotify's /artists endpoints
+ */
+public class Artist {
+    private String id;
+    private String name;
+    private List<String> genres;
+    private int popularity;
+    private int followers;
+
+    public Artist(String id, String name, List<String> genres) {
+        this.id = id;
+        this.name = name;
+        this.genres = genres;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public List<String> getGenres() {
+        return genres;
+    }
+
+    public void setGenres(List<String> genres) {
+        this.genres = genres;
+    }
+
+    public int getPopularity() {
+        return popularity;
+    }
+
+    public void setPopularity(int popularity) {
+        this.popularity = popularity;
+    }
+
+    public int getFollowers() {
+        return followers;
+    }
+
+    public void setFollowers(int followers) {
+        this.followers = followers;
+    }
+
+    @Override
+    public String toString() {
+        return name + (genres.isEmpty() ? "" : " (" + String.join(", ", genres) + ")");
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        Artist artist = (Artist) o;
+        return Objects.equals(id, artist.id);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id);
+    }
+}
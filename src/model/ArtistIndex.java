@@ -0,0 +1,176 @@
+package model;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Read-only, memory-mapped artist similarity index written by ArtistIndexBuilder.
+ *
+ * File layout (big-endian ints):
+ * <pre>
+ * header         MAGIC, VERSION, artistCount, trackCount, and the offsets of the sections below
+ * artists        artistCount x [nameHash, nameRef, neighborsStart, neighborsCount, tracksStart, tracksCount]
+ *                sorted by nameHash so lookups are a binary search
+ * neighbors      artist indexes, strongest neighbor first
+ * artistTracks   track indexes, most popular first
+ * tracks         trackCount x [idRef, nameRef, albumRef, previewRef, artistsStart, artistsCount, popularity, durationMs]
+ * trackArtists   artist indexes
+ * strings        [length, UTF-8 bytes]; a *Ref is an offset into this section, -1 for null
+ * </pre>
+ * Nothing is deserialized at startup; entries are decoded on demand straight from the mapping.
+ */
+public class ArtistIndex {
+    static final int MAGIC = 0x41494458; // "AIDX"
+    static final int VERSION = 1;
+    static final int HEADER_INTS = 10;
+    static final int ARTIST_INTS = 6;
+    static final int TRACK_INTS = 8;
+
+    private final ByteBuffer buffer;
+    private final int artistCount;
+    private final int trackCount;
+    private final int artistsOffset;
+    private final int neighborsOffset;
+    private final int artistTracksOffset;
+    private final int tracksOffset;
+    private final int trackArtistsOffset;
+    private final int stringsOffset;
+
+    private ArtistIndex(ByteBuffer buffer) throws IOException {
+        this.buffer = buffer;
+        if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+            throw new IOException("Not an artist index file (or unsupported version)");
+        }
+        this.artistCount = buffer.getInt(8);
+        this.trackCount = buffer.getInt(12);
+        this.artistsOffset = buffer.getInt(16);
+        this.neighborsOffset = buffer.getInt(20);
+        this.artistTracksOffset = buffer.getInt(24);
+        this.tracksOffset = buffer.getInt(28);
+        this.trackArtistsOffset = buffer.getInt(32);
+        this.stringsOffset = buffer.getInt(36);
+    }
+
+    /**
+     * Map an index file into memory
+     */
+    public static ArtistIndex open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return new ArtistIndex(mapped);
+        }
+    }
+
+    public int getArtistCount() {
+        return artistCount;
+    }
+
+    public int getTrackCount() {
+        return trackCount;
+    }
+
+    /**
+     * Index of an artist by name (case-insensitive), or -1 if the artist is not indexed
+     */
+    public int findArtist(String name) {
+        String key = normalize(name);
+        int hash = key.hashCode();
+
+        int low = 0;
+        int high = artistCount - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int midHash = artistInt(mid, 0);
+            if (midHash < hash) {
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+
+        // low is the first entry with this hash; walk the (rare) collisions
+        for (int i = low; i < artistCount && artistInt(i, 0) == hash; i++) {
+            if (normalize(string(artistInt(i, 1))).equals(key)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    public String getArtistName(int artist) {
+        return string(artistInt(artist, 1));
+    }
+
+    /**
+     * Similar artists, strongest first
+     */
+    public int[] getNeighbors(int artist) {
+        return ints(neighborsOffset, artistInt(artist, 2), artistInt(artist, 3));
+    }
+
+    /**
+     * The artist's most popular tracks
+     */
+    public List<Track> getTopTracks(int artist, int limit) {
+        int start = artistInt(artist, 4);
+        int count = Math.min(limit, artistInt(artist, 5));
+
+        List<Track> tracks = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            tracks.add(getTrack(buffer.getInt(artistTracksOffset + (start + i) * Integer.BYTES)));
+        }
+        return tracks;
+    }
+
+    public Track getTrack(int track) {
+        int base = tracksOffset + track * TRACK_INTS * Integer.BYTES;
+
+        int[] artistIndexes = ints(trackArtistsOffset, buffer.getInt(base + 16), buffer.getInt(base + 20));
+        List<String> artists = new ArrayList<>(artistIndexes.length);
+        for (int artist : artistIndexes) {
+            artists.add(getArtistName(artist));
+        }
+
+        Track result = new Track(string(buffer.getInt(base)), string(buffer.getInt(base + 4)),
+                artists, string(buffer.getInt(base + 8)));
+        result.setPreviewUrl(string(buffer.getInt(base + 12)));
+        result.setPopularity(buffer.getInt(base + 24));
+        result.setDurationMs(buffer.getInt(base + 28));
+        return result;
+    }
+
+    private int artistInt(int artist, int field) {
+        return buffer.getInt(artistsOffset + (artist * ARTIST_INTS + field) * Integer.BYTES);
+    }
+
+    private int[] ints(int sectionOffset, int start, int count) {
+        int[] values = new int[count];
+        for (int i = 0; i < count; i++) {
+            values[i] = buffer.getInt(sectionOffset + (start + i) * Integer.BYTES);
+        }
+        return values;
+    }
+
+    private String string(int ref) {
+        if (ref < 0) {
+            return null;
+        }
+        int position = stringsOffset + ref;
+        int length = buffer.getInt(position);
+        byte[] bytes = new byte[length];
+        buffer.get(position + Integer.BYTES, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    static String normalize(String name) {
+        return name.trim().toLowerCase(Locale.ROOT);
+    }
+}
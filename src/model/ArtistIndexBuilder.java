@@ -0,0 +1,338 @@
+package model;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+
+/**
+ * Batch job that turns crawled Tracks into an ArtistIndex file.
+ *
+ * Artists are neighbors when they appear together: sharing a track counts strongly,
+ * showing up in the same search or top-tracks page counts weakly.
+ *
+ * Usage: ArtistIndexBuilder <output file> [--catalog <tracks.json>] [--max-artists N] <seed artist>...
+ * With --catalog the crawl runs against an InMemorySpotifyAPI stub instead of the live API.
+ */
+public class ArtistIndexBuilder {
+    private static final Logger log = LoggerFactory.getLogger(ArtistIndexBuilder.class);
+    private static final int SHARED_TRACK_WEIGHT = 3;
+    private static final int SAME_PAGE_WEIGHT = 1;
+    private static final int MAX_NEIGHBORS = 20;
+    private static final int MAX_TRACKS_PER_ARTIST = 20;
+
+    private final Map<String, Track> tracksById = new LinkedHashMap<>();
+    private final Map<String, String> displayNames = new HashMap<>();
+    private final Map<String, Map<String, Integer>> cooccurrence = new HashMap<>();
+
+    /**
+     * Add one group of tracks that were returned together (e.g. one search page)
+     */
+    public void addGroup(Collection<Track> group) {
+        Set<String> pageArtists = new HashSet<>();
+
+        for (Track track : group) {
+            if (track.getId() == null || track.getArtists() == null) {
+                continue;
+            }
+            tracksById.putIfAbsent(track.getId(), track);
+
+            List<String> trackArtists = new ArrayList<>();
+            for (String artist : track.getArtists()) {
+                String key = ArtistIndex.normalize(artist);
+                displayNames.putIfAbsent(key, artist);
+                trackArtists.add(key);
+                pageArtists.add(key);
+            }
+            link(trackArtists, SHARED_TRACK_WEIGHT);
+        }
+
+        link(new ArrayList<>(pageArtists), SAME_PAGE_WEIGHT);
+    }
+
+    private void link(List<String> artists, int weight) {
+        for (String a : artists) {
+            for (String b : artists) {
+                if (!a.equals(b)) {
+                    cooccurrence.computeIfAbsent(a, key -> new HashMap<>()).merge(b, weight, Integer::sum);
+                }
+            }
+        }
+    }
+
+    public int getTrackCount() {
+        return tracksById.size();
+    }
+
+    public int getArtistCount() {
+        return displayNames.size();
+    }
+
+    /**
+     * Crawl outward from the seed artists: each artist's search results and top tracks are added
+     * as groups, and newly seen artists are queued until maxArtists have been visited
+     */
+    public void crawl(SpotifyAPI api, List<String> seedArtists, int maxArtists) throws IOException {
+        Queue<String> queue = new ArrayDeque<>(seedArtists);
+        Set<String> visited = new HashSet<>();
+
+        while (!queue.isEmpty() && visited.size() < maxArtists) {
+            String artist = queue.poll();
+            if (!visited.add(ArtistIndex.normalize(artist))) {
+                continue;
+            }
+
+            log.debug("Crawling {} ({}/{})", artist, visited.size(), maxArtists);
+
+            List<Track> found = new ArrayList<>(api.searchTracks(artist, 50));
+            addGroup(found);
+
+            String artistID = api.getArtistID(artist);
+            if (artistID != null && !artistID.equals("No Artist Found")) {
+                List<Track> topTracks = api.getArtistsTopTracks(artistID);
+                addGroup(topTracks);
+                found.addAll(topTracks);
+            }
+
+            for (Track track : found) {
+                for (String next : track.getArtists()) {
+                    if (!visited.contains(ArtistIndex.normalize(next))) {
+                        queue.add(next);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Write the index; the file is replaced atomically so a running server never maps a partial file
+     */
+    public void write(Path output) throws IOException {
+        // Artist order defines their indexes: sorted by name hash for binary search
+        List<String> artists = new ArrayList<>(displayNames.keySet());
+        artists.sort(Comparator.comparingInt(String::hashCode).thenComparing(Comparator.naturalOrder()));
+        Map<String, Integer> artistIndex = new HashMap<>();
+        for (int i = 0; i < artists.size(); i++) {
+            artistIndex.put(artists.get(i), i);
+        }
+
+        List<Track> tracks = new ArrayList<>(tracksById.values());
+        Map<String, Integer> trackIndex = new HashMap<>();
+        for (int i = 0; i < tracks.size(); i++) {
+            trackIndex.put(tracks.get(i).getId(), i);
+        }
+
+        Map<String, List<Track>> tracksByArtist = new HashMap<>();
+        for (Track track : tracks) {
+            for (String artist : track.getArtists()) {
+                tracksByArtist.computeIfAbsent(ArtistIndex.normalize(artist), key -> new ArrayList<>()).add(track);
+            }
+        }
+
+        StringTable strings = new StringTable();
+        IntSection neighbors = new IntSection();
+        IntSection artistTracks = new IntSection();
+        IntSection trackArtists = new IntSection();
+        int[] artistTable = new int[artists.size() * ArtistIndex.ARTIST_INTS];
+        int[] trackTable = new int[tracks.size() * ArtistIndex.TRACK_INTS];
+
+        for (int i = 0; i < artists.size(); i++) {
+            String key = artists.get(i);
+
+            List<Map.Entry<String, Integer>> ranked = new ArrayList<>(
+                    cooccurrence.getOrDefault(key, Map.of()).entrySet());
+            ranked.sort(Map.Entry.<String, Integer>comparingByValue().reversed());
+            int neighborsStart = neighbors.size();
+            for (Map.Entry<String, Integer> neighbor : ranked.subList(0, Math.min(MAX_NEIGHBORS, ranked.size()))) {
+                neighbors.add(artistIndex.get(neighbor.getKey()));
+            }
+
+            List<Track> byPopularity = new ArrayList<>(tracksByArtist.getOrDefault(key, List.of()));
+            byPopularity.sort(Comparator.comparingInt(Track::getPopularity).reversed());
+            int tracksStart = artistTracks.size();
+            for (Track track : byPopularity.subList(0, Math.min(MAX_TRACKS_PER_ARTIST, byPopularity.size()))) {
+                artistTracks.add(trackIndex.get(track.getId()));
+            }
+
+            int base = i * ArtistIndex.ARTIST_INTS;
+            artistTable[base] = key.hashCode();
+            artistTable[base + 1] = strings.ref(displayNames.get(key));
+            artistTable[base + 2] = neighborsStart;
+            artistTable[base + 3] = neighbors.size() - neighborsStart;
+            artistTable[base + 4] = tracksStart;
+            artistTable[base + 5] = artistTracks.size() - tracksStart;
+        }
+
+        for (int i = 0; i < tracks.size(); i++) {
+            Track track = tracks.get(i);
+            int artistsStart = trackArtists.size();
+            for (String artist : track.getArtists()) {
+                trackArtists.add(artistIndex.get(ArtistIndex.normalize(artist)));
+            }
+
+            int base = i * ArtistIndex.TRACK_INTS;
+            trackTable[base] = strings.ref(track.getId());
+            trackTable[base + 1] = strings.ref(track.getName());
+            trackTable[base + 2] = strings.ref(track.getAlbumName());
+            trackTable[base + 3] = strings.ref(track.getPreviewUrl());
+            trackTable[base + 4] = artistsStart;
+            trackTable[base + 5] = trackArtists.size() - artistsStart;
+            trackTable[base + 6] = track.getPopularity();
+            trackTable[base + 7] = track.getDurationMs();
+        }
+
+        int offset = ArtistIndex.HEADER_INTS * Integer.BYTES;
+        int artistsOffset = offset;
+        offset += artistTable.length * Integer.BYTES;
+        int neighborsOffset = offset;
+        offset += neighbors.size() * Integer.BYTES;
+        int artistTracksOffset = offset;
+        offset += artistTracks.size() * Integer.BYTES;
+        int tracksOffset = offset;
+        offset += trackTable.length * Integer.BYTES;
+        int trackArtistsOffset = offset;
+        offset += trackArtists.size() * Integer.BYTES;
+        int stringsOffset = offset;
+
+        Path temp = Files.createTempFile(output.toAbsolutePath().getParent(), "artist-index", ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+            out.writeInt(ArtistIndex.MAGIC);
+            out.writeInt(ArtistIndex.VERSION);
+            out.writeInt(artists.size());
+            out.writeInt(tracks.size());
+            out.writeInt(artistsOffset);
+            out.writeInt(neighborsOffset);
+            out.writeInt(artistTracksOffset);
+            out.writeInt(tracksOffset);
+            out.writeInt(trackArtistsOffset);
+            out.writeInt(stringsOffset);
+
+            writeInts(out, artistTable, artistTable.length);
+            writeInts(out, neighbors.values, neighbors.size());
+            writeInts(out, artistTracks.values, artistTracks.size());
+            writeInts(out, trackTable, trackTable.length);
+            writeInts(out, trackArtists.values, trackArtists.size());
+            strings.writeTo(out);
+        }
+        Files.move(temp, output, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static void writeInts(DataOutputStream out, int[] values, int count) throws IOException {
+        for (int i = 0; i < count; i++) {
+            out.writeInt(values[i]);
+        }
+    }
+
+    /**
+     * Growable int array
+     */
+    private static final class IntSection {
+        int[] values = new int[256];
+        int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        int size() {
+            return size;
+        }
+    }
+
+    /**
+     * Deduplicated, length-prefixed UTF-8 strings
+     */
+    private static final class StringTable {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final DataOutputStream data = new DataOutputStream(bytes);
+        final Map<String, Integer> refs = new HashMap<>();
+
+        int ref(String value) throws IOException {
+            if (value == null) {
+                return -1;
+            }
+            Integer existing = refs.get(value);
+            if (existing != null) {
+                return existing;
+            }
+
+            int ref = bytes.size();
+            byte[] encoded = value.getBytes(StandardCharsets.UTF_8);
+            data.writeInt(encoded.length);
+            data.write(encoded);
+            refs.put(value, ref);
+            return ref;
+        }
+
+        void writeTo(OutputStream out) throws IOException {
+            bytes.writeTo(out);
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: ArtistIndexBuilder <output file> [--catalog <tracks.json>] "
+                    + "[--max-artists N] <seed artist>...");
+            return;
+        }
+
+        Path output = Paths.get(args[0]);
+        Path catalog = null;
+        int maxArtists = 200;
+        List<String> seeds = new ArrayList<>();
+
+        for (int i = 1; i < args.length; i++) {
+            switch (args[i]) {
+                case "--catalog":
+                    catalog = Paths.get(args[++i]);
+                    break;
+                case "--max-artists":
+                    maxArtists = Integer.parseInt(args[++i]);
+                    break;
+                default:
+                    seeds.add(args[i]);
+            }
+        }
+
+        ArtistIndexBuilder builder = new ArtistIndexBuilder();
+        if (catalog != null) {
+            builder.crawl(InMemorySpotifyAPI.fromJson(catalog), seeds, maxArtists);
+        } else {
+            SpotifyAPIClient apiClient = new SpotifyAPIClient();
+            try {
+                apiClient.authenticate();
+                builder.crawl(apiClient, seeds, maxArtists);
+            } finally {
+                apiClient.close();
+            }
+        }
+
+        builder.write(output);
+        System.out.println(String.format("Wrote %d artists and %d tracks to %s",
+                builder.getArtistCount(), builder.getTrackCount(), output));
+    }
+}
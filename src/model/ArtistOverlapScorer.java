@@ -0,0 +1,44 @@
+package model;
+
+import java.util.List;
+
+/**
+ * Share of the seed's artists that also appear on the candidate, scaled to 0..weight
+ */
+public class ArtistOverlapScorer implements ScoringStage {
+    public static final String NAME = "overlap";
+
+    private final float weight;
+
+    public ArtistOverlapScorer(float weight) {
+        this.weight = weight;
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public void score(CandidatePool pool, float[] scores) {
+        List<String> seedArtists = pool.getSeed().getArtists();
+        if (seedArtists == null || seedArtists.isEmpty()) {
+            return;
+        }
+
+        float perArtist = weight / seedArtists.size();
+        for (int i = 0; i < pool.size(); i++) {
+            List<String> artists = pool.getTrack(i).getArtists();
+            if (artists == null) {
+                continue;
+            }
+            int shared = 0;
+            for (String artist : artists) {
+                if (seedArtists.contains(artist)) {
+                    shared++;
+                }
+            }
+            scores[i] += Math.min(shared, seedArtists.size()) * perArtist;
+        }
+    }
+}
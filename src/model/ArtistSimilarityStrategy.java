@@ -1,31 +1,36 @@
 package model;
 
 import config.Config;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.util.*;
-import java.util.stream.Collectors;
 
 public class ArtistSimilarityStrategy implements RecommendationStrategy{
+    private static final Logger log = LoggerFactory.getLogger(ArtistSimilarityStrategy.class);
+
+    @Override
+    public List<Track> recommend(Track seedTrack, SpotifyAPI apiClient, int count)
+            throws IOException {
+        return recommend(seedTrack, apiClient, count, Deadline.none().inLane(RequestScheduler.Lane.RECOMMEND));
+    }
+
     @Override
-    public List<Track> recommend(Track seedTrack, SpotifyAPIClient apiClient, int count)
+    public List<Track> recommend(Track seedTrack, SpotifyAPI apiClient, int count, Deadline deadline)
             throws IOException {
 
-        System.out.println("Finding similar tracks to: " + seedTrack.getName());
+        log.debug("Finding similar tracks to: {}", seedTrack.getName());
 
         //Obtaining Artist's ID
         String artistQuery = seedTrack.getArtists().get(0);
-        String artistID = apiClient.getArtistID(artistQuery);
+        String artistID = apiClient.getArtistID(artistQuery, deadline);
 
         //Search for tracks from Artist's top tracks
-        List<Track> candidateTracks = apiClient.getArtistsTopTracks(artistID);
-
-        //Sort byt popularity and exclude the seed track
-        return candidateTracks.stream()
-                .filter(track -> !track.getId().equals(seedTrack.getId()))
-                .sorted(Comparator.comparingInt(Track::getPopularity).reversed())
-                .limit(count)
-                .collect(Collectors.toList());
+        List<Track> candidateTracks = apiClient.getArtistsTopTracks(artistID, deadline);
+
+        //Most popular first, excluding the seed track
+        return TopKRanker.top(candidateTracks, seedTrack.getId(), count);
     }
 
     @Override
@@ -0,0 +1,184 @@
+package model;
+
+import com.google.gson.reflect.TypeToken;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Caching decorator around a SpotifyAPI.
+ * Searches, artist ID lookups and top tracks each get their own TieredCache and TTL,
+ * so repeated recommendations for popular artists stop hitting Spotify.
+ * The Deadline overloads bound only the caller's load on a miss; background refreshes of
+ * stale entries are never cut short by a request's deadline.
+ */
+public class CachingSpotifyAPI implements SpotifyAPI {
+    private static final long SEARCH_TTL_MS = TimeUnit.MINUTES.toMillis(10);
+    private static final long ARTIST_ID_TTL_MS = TimeUnit.HOURS.toMillis(24);
+    private static final long TOP_TRACKS_TTL_MS = TimeUnit.HOURS.toMillis(1);
+    private static final long RELATED_ARTISTS_TTL_MS = TimeUnit.HOURS.toMillis(24);
+    private static final long STALE_MS = TimeUnit.MINUTES.toMillis(5);
+
+    // Weights are counted in tracks for list values and 1 per artist ID
+    private static final long MAX_SEARCH_WEIGHT = 50_000;
+    private static final long MAX_ARTIST_ID_WEIGHT = 20_000;
+    private static final long MAX_TOP_TRACKS_WEIGHT = 50_000;
+    private static final long MAX_RELATED_ARTISTS_WEIGHT = 50_000;
+
+    private static final Type TRACK_LIST = new TypeToken<List<Track>>() {}.getType();
+    private static final Type ID_LIST = new TypeToken<List<String>>() {}.getType();
+
+    private final SpotifyAPI delegate;
+    private final ExecutorService refreshExecutor;
+    private final TieredCache<List<Track>> searchCache;
+    private final TieredCache<String> artistIdCache;
+    private final TieredCache<List<Track>> topTracksCache;
+    private final TieredCache<List<String>> relatedArtistsCache;
+
+    /**
+     * In-heap caching only
+     */
+    public CachingSpotifyAPI(SpotifyAPI delegate) {
+        this(delegate, null);
+    }
+
+    /**
+     * @param diskTier On-disk tier, or null to cache in the heap only
+     */
+    public CachingSpotifyAPI(SpotifyAPI delegate, DiskCacheTier diskTier) {
+        this.delegate = delegate;
+        this.refreshExecutor = Executors.newFixedThreadPool(2, runnable -> {
+            Thread thread = new Thread(runnable, "cache-refresh");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        // Every caller, the heap and the disk tier share one list per entry, so lists are stored immutable
+        this.searchCache = new TieredCache<>("search", SEARCH_TTL_MS, STALE_MS, MAX_SEARCH_WEIGHT,
+                List::size, TRACK_LIST, diskTier, refreshExecutor, List::copyOf);
+        this.artistIdCache = new TieredCache<>("artist-id", ARTIST_ID_TTL_MS, STALE_MS, MAX_ARTIST_ID_WEIGHT,
+                id -> 1, String.class, diskTier, refreshExecutor);
+        this.topTracksCache = new TieredCache<>("top-tracks", TOP_TRACKS_TTL_MS, STALE_MS, MAX_TOP_TRACKS_WEIGHT,
+                List::size, TRACK_LIST, diskTier, refreshExecutor, List::copyOf);
+        this.relatedArtistsCache = new TieredCache<>("related-artists", RELATED_ARTISTS_TTL_MS, STALE_MS,
+                MAX_RELATED_ARTISTS_WEIGHT, List::size, ID_LIST, diskTier, refreshExecutor, List::copyOf);
+    }
+
+    /**
+     * Convenience factory that enables the disk tier under the given directory
+     */
+    public static CachingSpotifyAPI withDiskTier(SpotifyAPI delegate, Path diskDirectory) throws IOException {
+        return new CachingSpotifyAPI(delegate, new DiskCacheTier(diskDirectory));
+    }
+
+    @Override
+    public List<Track> searchTracks(String query, int limit) throws IOException {
+        String key = "search:" + normalize(query) + ":" + limit;
+        return searchCache.get(key, () -> delegate.searchTracks(query, limit));
+    }
+
+    @Override
+    public String getArtistID(String artist) throws IOException {
+        String key = "artist-id:" + normalize(artist);
+        return artistIdCache.get(key, () -> delegate.getArtistID(artist));
+    }
+
+    @Override
+    public List<Track> getArtistsTopTracks(String artistID) throws IOException {
+        String key = "top-tracks:" + artistID;
+        return topTracksCache.get(key, () -> delegate.getArtistsTopTracks(artistID));
+    }
+
+    @Override
+    public List<String> getRelatedArtistIDs(String artistID) throws IOException {
+        String key = "related-artists:" + artistID;
+        return relatedArtistsCache.get(key, () -> delegate.getRelatedArtistIDs(artistID));
+    }
+
+    @Override
+    public List<Track> searchTracks(String query, int limit, Deadline deadline) throws IOException {
+        String key = "search:" + normalize(query) + ":" + limit;
+        return searchCache.get(key, () -> delegate.searchTracks(query, limit, deadline),
+                () -> delegate.searchTracks(query, limit));
+    }
+
+    @Override
+    public String getArtistID(String artist, Deadline deadline) throws IOException {
+        String key = "artist-id:" + normalize(artist);
+        return artistIdCache.get(key, () -> delegate.getArtistID(artist, deadline),
+                () -> delegate.getArtistID(artist));
+    }
+
+    @Override
+    public List<Track> getArtistsTopTracks(String artistID, Deadline deadline) throws IOException {
+        String key = "top-tracks:" + artistID;
+        return topTracksCache.get(key, () -> delegate.getArtistsTopTracks(artistID, deadline),
+                () -> delegate.getArtistsTopTracks(artistID));
+    }
+
+    @Override
+    public List<String> getRelatedArtistIDs(String artistID, Deadline deadline) throws IOException {
+        String key = "related-artists:" + artistID;
+        return relatedArtistsCache.get(key, () -> delegate.getRelatedArtistIDs(artistID, deadline),
+                () -> delegate.getRelatedArtistIDs(artistID));
+    }
+
+    // Lookups by ID pass straight through: the client already batches them, and an unknown ID
+    // (null) has no place in the caches
+    @Override
+    public Track getTrack(String trackID) throws IOException {
+        return delegate.getTrack(trackID);
+    }
+
+    @Override
+    public Track getTrack(String trackID, Deadline deadline) throws IOException {
+        return delegate.getTrack(trackID, deadline);
+    }
+
+    @Override
+    public Artist getArtist(String artistID) throws IOException {
+        return delegate.getArtist(artistID);
+    }
+
+    @Override
+    public Artist getArtist(String artistID, Deadline deadline) throws IOException {
+        return delegate.getArtist(artistID, deadline);
+    }
+
+    public TieredCache<List<Track>> getSearchCache() {
+        return searchCache;
+    }
+
+    public TieredCache<String> getArtistIdCache() {
+        return artistIdCache;
+    }
+
+    public TieredCache<List<Track>> getTopTracksCache() {
+        return topTracksCache;
+    }
+
+    public TieredCache<List<String>> getRelatedArtistsCache() {
+        return relatedArtistsCache;
+    }
+
+    public SpotifyAPI getDelegate() {
+        return delegate;
+    }
+
+    public void close() {
+        refreshExecutor.shutdownNow();
+    }
+
+    /**
+     * Queries differing only in case or spacing hit the same entry
+     */
+    static String normalize(String query) {
+        return query.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+}
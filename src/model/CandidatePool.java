@@ -0,0 +1,65 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Candidates for one recommendation, laid out for ScoringStages: the tracks plus their numbers
+ * in primitive arrays, so stages score the whole pool in tight loops. The seed and repeated IDs
+ * are left out when the pool is built.
+ *
+ * The arrays are shared, not copied: stages read them and must not modify them.
+ */
+public final class CandidatePool {
+    private final Track seed;
+    private final Track[] tracks;
+    private final int[] popularity;
+    private final int[] durationMs;
+
+    private CandidatePool(Track seed, Track[] tracks) {
+        this.seed = seed;
+        this.tracks = tracks;
+        this.popularity = new int[tracks.length];
+        this.durationMs = new int[tracks.length];
+        for (int i = 0; i < tracks.length; i++) {
+            popularity[i] = tracks[i].getPopularity();
+            durationMs[i] = tracks[i].getDurationMs();
+        }
+    }
+
+    public static CandidatePool of(Iterable<? extends Track> candidates, Track seed) {
+        Set<String> seen = new HashSet<>();
+        if (seed.getId() != null) {
+            seen.add(seed.getId());
+        }
+        List<Track> distinct = new ArrayList<>();
+        for (Track track : candidates) {
+            if (track.getId() == null || seen.add(track.getId())) {
+                distinct.add(track);
+            }
+        }
+        return new CandidatePool(seed, distinct.toArray(new Track[0]));
+    }
+
+    public Track getSeed() {
+        return seed;
+    }
+
+    public int size() {
+        return tracks.length;
+    }
+
+    public Track getTrack(int index) {
+        return tracks[index];
+    }
+
+    public int[] getPopularity() {
+        return popularity;
+    }
+
+    public int[] getDurationMs() {
+        return durationMs;
+    }
+}
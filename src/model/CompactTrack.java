@@ -0,0 +1,120 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Immutable, compact form of a Track for large in-memory catalogs.
+ *
+ * Artist and album names are IDs into the catalog's NamePool instead of a String (and an
+ * ArrayList) per track, and the numbers are primitives. Names are resolved against the pool
+ * the track was built with; toTrack turns it back into a regular Track at the API boundary.
+ */
+public final class CompactTrack {
+    private static final int[] NO_ARTISTS = new int[0];
+
+    private final String id;
+    private final String name;
+    private final int[] artistIds;
+    private final int albumId;
+    private final int durationMs;
+    private final int popularity;
+    private final String previewUrl;
+
+    private CompactTrack(String id, String name, int[] artistIds, int albumId, int durationMs, int popularity,
+                         String previewUrl) {
+        this.id = id;
+        this.name = name;
+        this.artistIds = artistIds;
+        this.albumId = albumId;
+        this.durationMs = durationMs;
+        this.popularity = popularity;
+        this.previewUrl = previewUrl;
+    }
+
+    /**
+     * Compact copy of a track, interning its artist and album names in the pool
+     */
+    public static CompactTrack of(Track track, NamePool names) {
+        List<String> artists = track.getArtists();
+        int[] artistIds = artists == null || artists.isEmpty() ? NO_ARTISTS : new int[artists.size()];
+        for (int i = 0; i < artistIds.length; i++) {
+            artistIds[i] = names.intern(artists.get(i));
+        }
+        return new CompactTrack(track.getId(), track.getName(), artistIds, names.intern(track.getAlbumName()),
+                track.getDurationMs(), track.getPopularity(), track.getPreviewUrl());
+    }
+
+    /**
+     * A regular, mutable Track with the names resolved
+     */
+    public Track toTrack(NamePool names) {
+        Track track = new Track(id, name, getArtists(names), names.get(albumId));
+        track.setDurationMs(durationMs);
+        track.setPopularity(popularity);
+        track.setPreviewUrl(previewUrl);
+        return track;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public List<String> getArtists(NamePool names) {
+        List<String> artists = new ArrayList<>(artistIds.length);
+        for (int artistId : artistIds) {
+            artists.add(names.get(artistId));
+        }
+        return artists;
+    }
+
+    public boolean hasArtist(int artistId) {
+        for (int id : artistIds) {
+            if (id == artistId) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public int getArtistCount() {
+        return artistIds.length;
+    }
+
+    public int getArtistId(int index) {
+        return artistIds[index];
+    }
+
+    public int getAlbumId() {
+        return albumId;
+    }
+
+    public int getDurationMs() {
+        return durationMs;
+    }
+
+    public int getPopularity() {
+        return popularity;
+    }
+
+    public String getPreviewUrl() {
+        return previewUrl;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        return Objects.equals(id, ((CompactTrack) o).id);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(id);
+    }
+}
@@ -0,0 +1,85 @@
+package model;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time budget of one request, handed from the server down through the strategy to each Spotify call.
+ * A strategy that runs out of time but still returns what it has gathered marks the deadline partial.
+ * The caller may also name the scheduler lane (traffic class) the request's Spotify calls queue in.
+ */
+public final class Deadline {
+    private final long expiresAtNanos;
+    private final boolean bounded;
+    private final RequestScheduler.Lane lane;
+    private volatile boolean partial;
+
+    private Deadline(long expiresAtNanos, boolean bounded, RequestScheduler.Lane lane) {
+        this.expiresAtNanos = expiresAtNanos;
+        this.bounded = bounded;
+        this.lane = lane;
+    }
+
+    public static Deadline after(long millis) {
+        return new Deadline(System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(millis), true, null);
+    }
+
+    /**
+     * No time limit; a fresh instance each time since partial() is per request
+     */
+    public static Deadline none() {
+        return new Deadline(0, false, null);
+    }
+
+    /**
+     * The same time budget, with the request's Spotify calls queued in the given lane.
+     * Call before handing the deadline down: partial() is not carried over.
+     */
+    public Deadline inLane(RequestScheduler.Lane lane) {
+        return new Deadline(expiresAtNanos, bounded, lane);
+    }
+
+    /**
+     * Lane chosen by the caller, or the given default for the endpoint when none was
+     */
+    public RequestScheduler.Lane laneOr(RequestScheduler.Lane endpointDefault) {
+        return lane != null ? lane : endpointDefault;
+    }
+
+    public boolean isBounded() {
+        return bounded;
+    }
+
+    /**
+     * Milliseconds left (0 once expired), or Long.MAX_VALUE without a limit
+     */
+    public long remainingMillis() {
+        if (!bounded) {
+            return Long.MAX_VALUE;
+        }
+        return Math.max(0, TimeUnit.NANOSECONDS.toMillis(expiresAtNanos - System.nanoTime()));
+    }
+
+    public boolean isExpired() {
+        return bounded && expiresAtNanos - System.nanoTime() <= 0;
+    }
+
+    /**
+     * Throw if the deadline has passed, before starting more work for the named step
+     */
+    public void check(String step) throws DeadlineExceededException {
+        if (isExpired()) {
+            throw new DeadlineExceededException("Deadline exceeded before " + step);
+        }
+    }
+
+    /**
+     * Record that the result is missing work cut off by this deadline
+     */
+    public void markPartial() {
+        partial = true;
+    }
+
+    public boolean isPartial() {
+        return partial;
+    }
+}
@@ -0,0 +1,14 @@
+package model;
+
+import java.io.IOException;
+
+/**
+ * A request's Deadline passed before a Spotify call (or the step needing it) could finish
+ */
+public class DeadlineExceededException extends IOException {
+    private static final long serialVersionUID = 1L;
+
+    public DeadlineExceededException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,169 @@
+package model;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Optional second cache tier that keeps entries as small JSON files so they survive restarts.
+ * One file per key; the file name is a hash of the key and the key itself is stored
+ * in the file to guard against collisions. Opening the tier keeps at most maxEntries files
+ * from earlier runs (the most recently written) and deletes leftover temp files.
+ */
+public class DiskCacheTier {
+    private static final Logger log = LoggerFactory.getLogger(DiskCacheTier.class);
+
+    public static final int DEFAULT_MAX_ENTRIES = 10_000;
+
+    private final Path directory;
+    private final Gson gson;
+
+    /**
+     * A value read back from disk together with the time it was originally fetched
+     */
+    public static final class Stored<T> {
+        private final T value;
+        private final long writtenAt;
+
+        Stored(T value, long writtenAt) {
+            this.value = value;
+            this.writtenAt = writtenAt;
+        }
+
+        public T getValue() {
+            return value;
+        }
+
+        public long getWrittenAt() {
+            return writtenAt;
+        }
+    }
+
+    public DiskCacheTier(Path directory) throws IOException {
+        this(directory, DEFAULT_MAX_ENTRIES);
+    }
+
+    public DiskCacheTier(Path directory, int maxEntries) throws IOException {
+        this.directory = directory;
+        this.gson = new Gson();
+        Files.createDirectories(directory);
+        prune(maxEntries);
+    }
+
+    private void prune(int maxEntries) throws IOException {
+        List<Path> entries = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+            for (Path file : files) {
+                String fileName = file.getFileName().toString();
+                if (fileName.endsWith(".tmp")) {
+                    Files.deleteIfExists(file);
+                } else if (fileName.endsWith(".json")) {
+                    entries.add(file);
+                }
+            }
+        }
+        if (entries.size() <= maxEntries) {
+            return;
+        }
+
+        Map<Path, FileTime> modified = new HashMap<>();
+        for (Path file : entries) {
+            modified.put(file, Files.getLastModifiedTime(file));
+        }
+        entries.sort(Comparator.comparing(modified::get, Comparator.reverseOrder()));
+        for (Path file : entries.subList(maxEntries, entries.size())) {
+            Files.deleteIfExists(file);
+        }
+        log.info("Pruned {} old cache entries from {}", entries.size() - maxEntries, directory);
+    }
+
+    /**
+     * Read an entry, or null if it is missing or unreadable
+     */
+    public <T> Stored<T> read(String key, Type valueType) {
+        Path file = fileFor(key);
+        if (!Files.exists(file)) {
+            return null;
+        }
+
+        try {
+            String json = Files.readString(file, StandardCharsets.UTF_8);
+            JsonObject root = JsonParser.parseString(json).getAsJsonObject();
+
+            if (!key.equals(root.get("key").getAsString())) {
+                return null;
+            }
+
+            T value = gson.fromJson(root.get("value"), valueType);
+            return new Stored<>(value, root.get("writtenAt").getAsLong());
+        } catch (IOException | JsonParseException | IllegalStateException e) {
+            remove(key);
+            return null;
+        }
+    }
+
+    /**
+     * Write an entry atomically so a crash never leaves a half-written file behind
+     */
+    public void write(String key, Object value, long writtenAt) {
+        JsonObject root = new JsonObject();
+        root.addProperty("key", key);
+        root.addProperty("writtenAt", writtenAt);
+        JsonElement valueJson = gson.toJsonTree(value);
+        root.add("value", valueJson);
+
+        Path file = fileFor(key);
+        Path temp = null;
+        try {
+            temp = Files.createTempFile(directory, "entry", ".tmp");
+            Files.writeString(temp, gson.toJson(root), StandardCharsets.UTF_8);
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.warn("Failed to write cache entry to disk: {}", e.getMessage());
+            if (temp != null) {
+                try {
+                    Files.deleteIfExists(temp);
+                } catch (IOException ignored) {
+                }
+            }
+        }
+    }
+
+    public void remove(String key) {
+        try {
+            Files.deleteIfExists(fileFor(key));
+        } catch (IOException ignored) {
+        }
+    }
+
+    private Path fileFor(String key) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] hash = digest.digest(key.getBytes(StandardCharsets.UTF_8));
+            return directory.resolve(HexFormat.of().formatHex(hash, 0, 16) + ".json");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
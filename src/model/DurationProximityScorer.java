@@ -0,0 +1,36 @@
+package model;
+
+/**
+ * Closeness of the candidate's length to the seed's: weight for the same length, falling
+ * linearly to 0 at RANGE_MS apart. Skipped when the seed's length is unknown.
+ */
+public class DurationProximityScorer implements ScoringStage {
+    public static final String NAME = "duration";
+    static final int RANGE_MS = 120_000;
+
+    private final float weight;
+
+    public DurationProximityScorer(float weight) {
+        this.weight = weight;
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public void score(CandidatePool pool, float[] scores) {
+        int seedMs = pool.getSeed().getDurationMs();
+        if (seedMs <= 0) {
+            return;
+        }
+
+        int[] durationMs = pool.getDurationMs();
+        float perMs = weight / RANGE_MS;
+        for (int i = 0; i < pool.size(); i++) {
+            int distance = Math.min(Math.abs(durationMs[i] - seedMs), RANGE_MS);
+            scores[i] += weight - distance * perMs;
+        }
+    }
+}
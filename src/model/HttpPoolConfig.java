@@ -0,0 +1,92 @@
+package model;
+
+/**
+ * Settings for the pooled, keep-alive HTTP connection manager used by SpotifyAPIClient.
+ * All durations are in milliseconds.
+ */
+public class HttpPoolConfig {
+    private int maxTotal = 20;
+    private int maxPerRoute = 10;
+    private long connectTimeoutMs = 5_000;
+    private long responseTimeoutMs = 10_000;
+    private long connectionRequestTimeoutMs = 5_000;
+    private long idleEvictionMs = 30_000;
+    private long validateAfterInactivityMs = 2_000;
+
+    /**
+     * Sizes the pool for a server with the given number of worker threads.
+     * Nearly all traffic goes to api.spotify.com, so that route gets one connection per worker;
+     * the total leaves room for the token endpoint on accounts.spotify.com.
+     */
+    public static HttpPoolConfig forWorkerThreads(int workerThreads) {
+        HttpPoolConfig config = new HttpPoolConfig();
+        config.setMaxPerRoute(workerThreads);
+        config.setMaxTotal(workerThreads + 2);
+        return config;
+    }
+
+    public int getMaxTotal() {
+        return maxTotal;
+    }
+
+    public void setMaxTotal(int maxTotal) {
+        this.maxTotal = maxTotal;
+    }
+
+    public int getMaxPerRoute() {
+        return maxPerRoute;
+    }
+
+    public void setMaxPerRoute(int maxPerRoute) {
+        this.maxPerRoute = maxPerRoute;
+    }
+
+    public long getConnectTimeoutMs() {
+        return connectTimeoutMs;
+    }
+
+    public void setConnectTimeoutMs(long connectTimeoutMs) {
+        this.connectTimeoutMs = connectTimeoutMs;
+    }
+
+    public long getResponseTimeoutMs() {
+        return responseTimeoutMs;
+    }
+
+    public void setResponseTimeoutMs(long responseTimeoutMs) {
+        this.responseTimeoutMs = responseTimeoutMs;
+    }
+
+    /**
+     * How long a caller may wait for a connection to be leased from the pool
+     */
+    public long getConnectionRequestTimeoutMs() {
+        return connectionRequestTimeoutMs;
+    }
+
+    public void setConnectionRequestTimeoutMs(long connectionRequestTimeoutMs) {
+        this.connectionRequestTimeoutMs = connectionRequestTimeoutMs;
+    }
+
+    /**
+     * Connections idle for longer than this are closed by a background evictor
+     */
+    public long getIdleEvictionMs() {
+        return idleEvictionMs;
+    }
+
+    public void setIdleEvictionMs(long idleEvictionMs) {
+        this.idleEvictionMs = idleEvictionMs;
+    }
+
+    /**
+     * Pooled connections idle for longer than this are checked for staleness before reuse
+     */
+    public long getValidateAfterInactivityMs() {
+        return validateAfterInactivityMs;
+    }
+
+    public void setValidateAfterInactivityMs(long validateAfterInactivityMs) {
+        this.validateAfterInactivityMs = validateAfterInactivityMs;
+    }
+}
@@ -0,0 +1,189 @@
+package model;
+
+import com.google.gson.Gson;
+import com.google.gson.stream.JsonReader;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * Local stand-in for the Spotify API that answers from a fixed list of tracks.
+ * Used to build the artist index offline and to benchmark without network access.
+ *
+ * The tracks are kept in a CompactCatalog, so large catalogs fit in the heap; answers are
+ * materialized as regular Tracks. Stub artist IDs are handed out per distinct artist name
+ * (case-insensitive), in catalog order.
+ */
+public class InMemorySpotifyAPI implements SpotifyAPI {
+    private static final int TOP_TRACKS = 10;
+    private static final Comparator<CompactTrack> BY_POPULARITY =
+            Comparator.comparingInt(CompactTrack::getPopularity).reversed();
+
+    private final CompactCatalog catalog;
+    private final Map<String, String> artistIds = new LinkedHashMap<>();
+    // Stub artist ID to the name's ID in the catalog's NamePool
+    private final Map<String, Integer> artistNames = new HashMap<>();
+    private final LongAdder calls = new LongAdder();
+
+    public InMemorySpotifyAPI(Collection<Track> tracks) {
+        this(new CompactCatalog(tracks));
+    }
+
+    public InMemorySpotifyAPI(CompactCatalog catalog) {
+        this.catalog = catalog;
+        NamePool names = catalog.getNames();
+        for (CompactTrack track : catalog.getTracks()) {
+            for (int i = 0; i < track.getArtistCount(); i++) {
+                int nameId = track.getArtistId(i);
+                String key = normalize(names.get(nameId));
+                if (!artistIds.containsKey(key)) {
+                    String id = "stub-artist-" + artistIds.size();
+                    artistIds.put(key, id);
+                    artistNames.put(id, nameId);
+                }
+            }
+        }
+    }
+
+    /**
+     * Load a catalog saved as a JSON array of tracks (the format the server sends to clients),
+     * compacting each track as it is read rather than holding the whole array
+     */
+    public static InMemorySpotifyAPI fromJson(Path file) throws IOException {
+        Gson gson = new Gson();
+        CompactCatalog catalog = new CompactCatalog();
+        try (JsonReader reader = new JsonReader(Files.newBufferedReader(file, StandardCharsets.UTF_8))) {
+            reader.beginArray();
+            while (reader.hasNext()) {
+                catalog.add(gson.fromJson(reader, Track.class));
+            }
+            reader.endArray();
+        }
+        return new InMemorySpotifyAPI(catalog);
+    }
+
+    @Override
+    public List<Track> searchTracks(String query, int limit) {
+        calls.increment();
+        String needle = normalize(query);
+
+        return catalog.getTracks().stream()
+                .filter(track -> matches(track, needle))
+                .sorted(BY_POPULARITY)
+                .limit(limit)
+                .map(catalog::toTrack)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public String getArtistID(String artist) {
+        calls.increment();
+        return artistIds.getOrDefault(normalize(artist), "No Artist Found");
+    }
+
+    @Override
+    public List<Track> getArtistsTopTracks(String artistID) {
+        calls.increment();
+        Integer nameId = artistNames.get(artistID);
+        if (nameId == null) {
+            return new ArrayList<>();
+        }
+
+        return catalog.getTracks().stream()
+                .filter(track -> track.hasArtist(nameId))
+                .sorted(BY_POPULARITY)
+                .limit(TOP_TRACKS)
+                .map(catalog::toTrack)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Artists who share a track with the given one
+     */
+    @Override
+    public List<String> getRelatedArtistIDs(String artistID) {
+        calls.increment();
+        Integer nameId = artistNames.get(artistID);
+        if (nameId == null) {
+            return new ArrayList<>();
+        }
+
+        NamePool names = catalog.getNames();
+        Set<String> related = new LinkedHashSet<>();
+        for (CompactTrack track : catalog.getTracks()) {
+            if (track.hasArtist(nameId)) {
+                for (int i = 0; i < track.getArtistCount(); i++) {
+                    int other = track.getArtistId(i);
+                    if (other != nameId) {
+                        related.add(artistIds.get(normalize(names.get(other))));
+                    }
+                }
+            }
+        }
+        return new ArrayList<>(related);
+    }
+
+    @Override
+    public Track getTrack(String trackID) {
+        calls.increment();
+        CompactTrack track = catalog.find(trackID);
+        return track != null ? catalog.toTrack(track) : null;
+    }
+
+    @Override
+    public Artist getArtist(String artistID) {
+        calls.increment();
+        Integer nameId = artistNames.get(artistID);
+        return nameId == null ? null : new Artist(artistID, catalog.getNames().get(nameId), List.of());
+    }
+
+    /**
+     * Number of API calls answered, for checking how often callers went "upstream"
+     */
+    public long getCalls() {
+        return calls.sum();
+    }
+
+    /**
+     * Every track, materialized; see getCompactCatalog for the stored form
+     */
+    public List<Track> getCatalog() {
+        return catalog.toTracks();
+    }
+
+    public CompactCatalog getCompactCatalog() {
+        return catalog;
+    }
+
+    private boolean matches(CompactTrack track, String needle) {
+        if (track.getName() != null && normalize(track.getName()).contains(needle)) {
+            return true;
+        }
+        NamePool names = catalog.getNames();
+        for (int i = 0; i < track.getArtistCount(); i++) {
+            if (normalize(names.get(track.getArtistId(i))).contains(needle)) {
+                return true;
+            }
+        }
+        String album = names.get(track.getAlbumId());
+        return album != null && normalize(album).contains(needle);
+    }
+
+    private static String normalize(String text) {
+        return text.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,85 @@
+package model;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Recommends from a precomputed ArtistIndex: the seed artists' top tracks plus those of
+ * their nearest neighbors, with no network call. Only artists missing from the index
+ * fall back to live Spotify lookups.
+ */
+public class IndexedSimilarityStrategy implements RecommendationStrategy {
+    private static final Logger log = LoggerFactory.getLogger(IndexedSimilarityStrategy.class);
+    private static final int TRACKS_PER_ARTIST = 10;
+    private static final int NEIGHBORS_PER_ARTIST = 5;
+    private static final int TRACKS_PER_NEIGHBOR = 5;
+
+    private final ArtistIndex index;
+    private final LongAdder indexHits = new LongAdder();
+    private final LongAdder indexMisses = new LongAdder();
+
+    public IndexedSimilarityStrategy(ArtistIndex index) {
+        this.index = index;
+    }
+
+    @Override
+    public List<Track> recommend(Track seedTrack, SpotifyAPI apiClient, int count) throws IOException {
+        return recommend(seedTrack, apiClient, count, Deadline.none().inLane(RequestScheduler.Lane.RECOMMEND));
+    }
+
+    @Override
+    public List<Track> recommend(Track seedTrack, SpotifyAPI apiClient, int count, Deadline deadline)
+            throws IOException {
+        Set<Track> candidates = new LinkedHashSet<>();
+
+        for (String artist : seedTrack.getArtists()) {
+            int artistIndex = index.findArtist(artist);
+            if (artistIndex < 0) {
+                continue;
+            }
+
+            candidates.addAll(index.getTopTracks(artistIndex, TRACKS_PER_ARTIST));
+
+            int[] neighbors = index.getNeighbors(artistIndex);
+            for (int i = 0; i < Math.min(NEIGHBORS_PER_ARTIST, neighbors.length); i++) {
+                candidates.addAll(index.getTopTracks(neighbors[i], TRACKS_PER_NEIGHBOR));
+            }
+        }
+
+        if (candidates.isEmpty()) {
+            indexMisses.increment();
+            log.debug("Artist not indexed, asking Spotify for: {}", seedTrack.getName());
+
+            String artistID = apiClient.getArtistID(seedTrack.getArtists().get(0), deadline);
+            if (!artistID.equals("No Artist Found")) {
+                candidates.addAll(apiClient.getArtistsTopTracks(artistID, deadline));
+            }
+        } else {
+            indexHits.increment();
+        }
+
+        return TopKRanker.top(candidates, seedTrack.getId(), count);
+    }
+
+    @Override
+    public String getStrategyName() {
+        return "Similar Artists (Offline Index)";
+    }
+
+    public long getIndexHits() {
+        return indexHits.sum();
+    }
+
+    /**
+     * Recommendations that needed live API calls because the seed artists were not indexed
+     */
+    public long getIndexMisses() {
+        return indexMisses.sum();
+    }
+}
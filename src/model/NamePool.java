@@ -0,0 +1,82 @@
+package model;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Interns names (artists, albums) that repeat across many tracks: each distinct name is stored
+ * once and referred to by a small int ID, handed out in order from 0.
+ *
+ * Lookups are lock-free; adding a new name takes a lock (not synchronized, so virtual threads
+ * do not pin). Names are never removed, so a pool should belong to a catalog of bounded size.
+ */
+public class NamePool {
+    /**
+     * The ID intern() returns for a null name
+     */
+    public static final int NONE = -1;
+
+    private final ConcurrentHashMap<String, Integer> ids = new ConcurrentHashMap<>();
+    private final ReentrantLock lock = new ReentrantLock();
+    private volatile String[] names = new String[64];
+    private int size;
+
+    /**
+     * ID of the name, adding it if it is new
+     */
+    public int intern(String name) {
+        if (name == null) {
+            return NONE;
+        }
+        Integer id = ids.get(name);
+        if (id != null) {
+            return id;
+        }
+
+        lock.lock();
+        try {
+            id = ids.get(name);
+            if (id != null) {
+                return id;
+            }
+            String[] current = names;
+            if (size == current.length) {
+                current = Arrays.copyOf(current, current.length * 2);
+            }
+            current[size] = name;
+            // Publish the array before the ID so readers given the ID can always resolve it
+            names = current;
+            ids.put(name, size);
+            return size++;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * ID of the name, or NONE if it has never been interned
+     */
+    public int find(String name) {
+        Integer id = name == null ? null : ids.get(name);
+        return id != null ? id : NONE;
+    }
+
+    /**
+     * The name with this ID, or null for NONE
+     */
+    public String get(int id) {
+        return id == NONE ? null : names[id];
+    }
+
+    /**
+     * The pool's copy of the name, so equal names share one String instance
+     */
+    public String canonical(String name) {
+        return get(intern(name));
+    }
+
+    public int size() {
+        return ids.size();
+    }
+}
@@ -0,0 +1,198 @@
+package model;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Recommends from the top tracks of every artist on the seed track (and optionally
+ * their related artists), fetching them all concurrently.
+ *
+ * Lookups run in parallel with at most maxConcurrency in flight per recommendation, so
+ * latency tracks the slowest single call instead of the sum. Whatever has arrived when the
+ * deadline passes (this strategy's own budget, or the request's Deadline if sooner) is ranked
+ * and returned, and the Deadline is marked partial; calls still running are cancelled.
+ */
+public class ParallelArtistStrategy implements RecommendationStrategy {
+    private static final Logger log = LoggerFactory.getLogger(ParallelArtistStrategy.class);
+    private static final int DEFAULT_MAX_CONCURRENCY = 8;
+    private static final long DEFAULT_DEADLINE_MS = 2_000;
+    private static final int RELATED_ARTISTS_PER_SEED = 3;
+
+    // Lookups block on HTTP, so each one gets its own cheap virtual thread
+    private static final ExecutorService LOOKUPS = Executors.newVirtualThreadPerTaskExecutor();
+
+    private final int maxConcurrency;
+    private final long deadlineMs;
+    private final boolean includeRelatedArtists;
+
+    public ParallelArtistStrategy() {
+        this(DEFAULT_MAX_CONCURRENCY, DEFAULT_DEADLINE_MS, false);
+    }
+
+    /**
+     * @param maxConcurrency Most Spotify calls one recommendation may have in flight
+     * @param deadlineMs Time budget for the whole fan-out
+     * @param includeRelatedArtists Also pull top tracks of each seed artist's related artists
+     */
+    public ParallelArtistStrategy(int maxConcurrency, long deadlineMs, boolean includeRelatedArtists) {
+        this.maxConcurrency = maxConcurrency;
+        this.deadlineMs = deadlineMs;
+        this.includeRelatedArtists = includeRelatedArtists;
+    }
+
+    @Override
+    public List<Track> recommend(Track seedTrack, SpotifyAPI apiClient, int count) throws IOException {
+        return recommend(seedTrack, apiClient, count, Deadline.none().inLane(RequestScheduler.Lane.RECOMMEND));
+    }
+
+    @Override
+    public List<Track> recommend(Track seedTrack, SpotifyAPI apiClient, int count, Deadline deadline)
+            throws IOException {
+        log.debug("Fanning out over artists of: {}", seedTrack.getName());
+
+        FanOut fanOut = new FanOut(apiClient, deadline);
+        // Hold a pending slot while submitting, so a fast first lookup cannot finish the fan-out early
+        fanOut.pending.incrementAndGet();
+        for (String artist : new LinkedHashSet<>(seedTrack.getArtists())) {
+            fanOut.submit(() -> fanOut.expandArtist(artist));
+        }
+        fanOut.finishTask();
+
+        long budgetMs = Math.min(deadlineMs, deadline.remainingMillis());
+        boolean complete = fanOut.await(budgetMs);
+        List<Track> arrived = fanOut.close();
+        if (!complete) {
+            deadline.markPartial();
+            log.debug("Deadline of {}ms reached, using {} partial candidates", budgetMs, arrived.size());
+        }
+
+        if (arrived.isEmpty() && fanOut.firstError.get() != null) {
+            throw fanOut.firstError.get();
+        }
+
+        // Artists share tracks: the ranker drops repeats along with the seed
+        return TopKRanker.top(arrived, seedTrack.getId(), count);
+    }
+
+    @Override
+    public String getStrategyName() {
+        return includeRelatedArtists ? "All Artists + Related (Parallel)" : "All Artists (Parallel)";
+    }
+
+    @FunctionalInterface
+    private interface Lookup {
+        void run() throws IOException;
+    }
+
+    /**
+     * State of one recommendation's fan-out. Tasks may submit further tasks
+     * (artist ID -> top tracks / related artists), so completion is tracked with a pending count.
+     * Once closed it takes no more tasks, so a lookup that outlives the deadline cannot start more.
+     */
+    private final class FanOut {
+        final SpotifyAPI api;
+        final Deadline deadline;
+        final Semaphore permits = new Semaphore(maxConcurrency);
+        final Queue<Track> candidates = new ConcurrentLinkedQueue<>();
+        final Queue<Future<?>> tasks = new ConcurrentLinkedQueue<>();
+        final AtomicInteger pending = new AtomicInteger();
+        final CountDownLatch done = new CountDownLatch(1);
+        final AtomicReference<IOException> firstError = new AtomicReference<>();
+        volatile boolean closed;
+
+        FanOut(SpotifyAPI api, Deadline deadline) {
+            this.api = api;
+            this.deadline = deadline;
+        }
+
+        void submit(Lookup lookup) {
+            if (closed) {
+                return;
+            }
+            pending.incrementAndGet();
+            Future<?> task = LOOKUPS.submit(() -> {
+                try {
+                    permits.acquire();
+                    try {
+                        lookup.run();
+                    } finally {
+                        permits.release();
+                    }
+                } catch (IOException e) {
+                    firstError.compareAndSet(null, e);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    finishTask();
+                }
+            });
+            tasks.add(task);
+            // close() may have swept the tasks between the check above and the add
+            if (closed) {
+                task.cancel(true);
+            }
+        }
+
+        void finishTask() {
+            if (pending.decrementAndGet() == 0) {
+                done.countDown();
+            }
+        }
+
+        void expandArtist(String artist) throws IOException {
+            String artistID = api.getArtistID(artist, deadline);
+            if (artistID == null || artistID.equals("No Artist Found")) {
+                return;
+            }
+
+            submit(() -> candidates.addAll(api.getArtistsTopTracks(artistID, deadline)));
+
+            if (includeRelatedArtists) {
+                submit(() -> {
+                    List<String> related = api.getRelatedArtistIDs(artistID, deadline);
+                    for (String relatedID : related.subList(0, Math.min(RELATED_ARTISTS_PER_SEED, related.size()))) {
+                        submit(() -> candidates.addAll(api.getArtistsTopTracks(relatedID, deadline)));
+                    }
+                });
+            }
+        }
+
+        /**
+         * Wait for every lookup or the deadline; returns false if the deadline came first
+         */
+        boolean await(long timeoutMs) throws IOException {
+            try {
+                return done.await(timeoutMs, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                close();
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while fetching recommendations", e);
+            }
+        }
+
+        /**
+         * Refuse further lookups, cancel those still running and return the candidates that
+         * arrived until now; later arrivals are not part of the result
+         */
+        List<Track> close() {
+            closed = true;
+            tasks.forEach(task -> task.cancel(true));
+            return new ArrayList<>(candidates);
+        }
+    }
+}
@@ -1,36 +1,40 @@
 package model;
 
-import model.SpotifyAPIClient;
+import model.SpotifyAPI;
 import config.Config;
 import model.Track;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
-import java.util.Comparator;
 import java.util.List;
-import java.util.stream.Collectors;
 
 /**
  * Recommends popular tracks from the same artist or genre
  * Simpler strategy that doesn't require audio features
  */
 public class PopularityBasedStrategy implements RecommendationStrategy {
+    private static final Logger log = LoggerFactory.getLogger(PopularityBasedStrategy.class);
+
+
+    @Override
+    public List<Track> recommend(Track seedTrack, SpotifyAPI apiClient, int count)
+            throws IOException {
+        return recommend(seedTrack, apiClient, count, Deadline.none().inLane(RequestScheduler.Lane.RECOMMEND));
+    }
 
     @Override
-    public List<Track> recommend(Track seedTrack, SpotifyAPIClient apiClient, int count)
+    public List<Track> recommend(Track seedTrack, SpotifyAPI apiClient, int count, Deadline deadline)
             throws IOException {
 
-        System.out.println("Finding popular tracks similar to: " + seedTrack.getName());
+        log.debug("Finding popular tracks similar to: {}", seedTrack.getName());
 
         // Search for tracks from the same artist
         String artistQuery = seedTrack.getArtists().get(0);
-        List<Track> candidateTracks = apiClient.searchTracks(artistQuery, Config.TRACK_POOL_SIZE);
-
-        // Sort by popularity and exclude the seed track
-        return candidateTracks.stream()
-                .filter(track -> !track.getId().equals(seedTrack.getId()))
-                .sorted(Comparator.comparingInt(Track::getPopularity).reversed())
-                .limit(count)
-                .collect(Collectors.toList());
+        List<Track> candidateTracks = apiClient.searchTracks(artistQuery, Config.TRACK_POOL_SIZE, deadline);
+
+        // Most popular first, excluding the seed track
+        return TopKRanker.top(candidateTracks, seedTrack.getId(), count);
     }
 
     @Override
@@ -0,0 +1,28 @@
+package model;
+
+/**
+ * Spotify popularity, scaled to 0..weight
+ */
+public class PopularityScorer implements ScoringStage {
+    public static final String NAME = "popularity";
+
+    private final float weight;
+
+    public PopularityScorer(float weight) {
+        this.weight = weight;
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public void score(CandidatePool pool, float[] scores) {
+        int[] popularity = pool.getPopularity();
+        float scale = weight / 100f;
+        for (int i = 0; i < pool.size(); i++) {
+            scores[i] += popularity[i] * scale;
+        }
+    }
+}
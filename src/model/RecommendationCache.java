@@ -0,0 +1,185 @@
+package model;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Memoized recommendation results, keyed by seed track ID and strategy name.
+ *
+ * Each entry remembers the count it was computed for. A request for that many tracks or fewer
+ * is answered with a prefix of the cached list (strategies return their best tracks first);
+ * a request for more recomputes and replaces the entry. Results cut short by a deadline are
+ * never cached, so a slow moment does not pin a short list for the whole TTL.
+ *
+ * Concurrent misses for the same seed and strategy share one computation (SingleFlight): the
+ * first caller runs the strategy and the others wait for it, each no longer than its own deadline.
+ * A waiter whose request the shared result does not cover (fewer tracks, or cut short by the
+ * first caller's deadline) computes its own.
+ */
+public class RecommendationCache {
+    private static final long DEFAULT_TTL_MS = TimeUnit.MINUTES.toMillis(5);
+    private static final long DEFAULT_MAX_TRACKS = 20_000;
+
+    private static final class Result {
+        final List<Track> tracks;
+        final int count;
+        final long computeNanos;
+        final boolean partial;
+
+        Result(List<Track> tracks, int count, long computeNanos, boolean partial) {
+            this.tracks = tracks;
+            this.count = count;
+            this.computeNanos = computeNanos;
+            this.partial = partial;
+        }
+
+        boolean covers(int wanted) {
+            return !partial && count >= wanted;
+        }
+    }
+
+    private final TieredCache<Result> results;
+    private final SingleFlight<Result> computing = new SingleFlight<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder savedNanos = new LongAdder();
+
+    public RecommendationCache() {
+        this(DEFAULT_TTL_MS, DEFAULT_MAX_TRACKS);
+    }
+
+    /**
+     * @param ttlMs How long a result is served before it is recomputed
+     * @param maxTracks Upper bound on tracks held across all results
+     */
+    public RecommendationCache(long ttlMs, long maxTracks) {
+        // Heap only and no stale window, so no refresh executor is needed
+        this.results = new TieredCache<>("recommendations", ttlMs, 0, maxTracks,
+                result -> result.tracks.size(), Result.class, null, Runnable::run);
+    }
+
+    /**
+     * The cached result for this seed and strategy if it covers count, else compute it with loader
+     *
+     * @param loader Computes count recommendations for the seed with the named strategy
+     */
+    public List<Track> get(Track seedTrack, String strategyName, int count, Deadline deadline,
+                           TieredCache.Loader<List<Track>> loader) throws IOException {
+        String key = key(seedTrack, strategyName);
+        Result cached = results.getIfFresh(key);
+        if (cached != null && cached.covers(count)) {
+            return hit(cached, count);
+        }
+
+        AtomicBoolean computedHere = new AtomicBoolean();
+        CompletableFuture<Result> flight = computing.execute(key, () -> {
+            computedHere.set(true);
+            try {
+                return CompletableFuture.completedFuture(compute(key, count, deadline, loader));
+            } catch (IOException | RuntimeException e) {
+                return CompletableFuture.failedFuture(e);
+            }
+        });
+        if (computedHere.get()) {
+            return await(flight, deadline).tracks;
+        }
+
+        Result shared;
+        try {
+            shared = await(flight, deadline);
+        } catch (DeadlineExceededException e) {
+            // Only this caller's own deadline ends the wait; the first caller's may have been shorter
+            if (deadline.isExpired()) {
+                throw e;
+            }
+            shared = null;
+        }
+        if (shared != null && shared.covers(count)) {
+            return hit(shared, count);
+        }
+        return compute(key, count, deadline, loader).tracks;
+    }
+
+    private List<Track> hit(Result result, int count) {
+        hits.increment();
+        savedNanos.add(result.computeNanos);
+        return result.tracks.size() <= count ? result.tracks : result.tracks.subList(0, count);
+    }
+
+    private Result compute(String key, int count, Deadline deadline,
+                           TieredCache.Loader<List<Track>> loader) throws IOException {
+        misses.increment();
+        long start = System.nanoTime();
+        List<Track> tracks = loader.load();
+        Result result = new Result(List.copyOf(tracks), count, System.nanoTime() - start, deadline.isPartial());
+        if (!result.partial) {
+            results.put(key, result, System.currentTimeMillis());
+        }
+        return result;
+    }
+
+    /**
+     * Wait for a computation, no longer than the deadline allows
+     */
+    private static Result await(CompletableFuture<Result> flight, Deadline deadline) throws IOException {
+        try {
+            return deadline.isBounded()
+                    ? flight.get(deadline.remainingMillis(), TimeUnit.MILLISECONDS) : flight.get();
+        } catch (TimeoutException e) {
+            flight.cancel(true);
+            throw new DeadlineExceededException("Deadline exceeded waiting for a shared recommendation");
+        } catch (InterruptedException e) {
+            flight.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for a shared recommendation");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IOException("Recommendation failed: " + cause.getMessage(), cause);
+        }
+    }
+
+    private static String key(Track seedTrack, String strategyName) {
+        return seedTrack.getId() + '\u0000' + strategyName;
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * Fraction of lookups answered from the cache, 0 before the first lookup
+     */
+    public double getHitRatio() {
+        long hitCount = getHits();
+        long total = hitCount + getMisses();
+        return total == 0 ? 0 : (double) hitCount / total;
+    }
+
+    /**
+     * Time the hits would have spent recomputing, going by how long each result first took
+     */
+    public long getSavedNanos() {
+        return savedNanos.sum();
+    }
+
+    public int size() {
+        return results.size();
+    }
+}
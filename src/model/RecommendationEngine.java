@@ -1,41 +1,139 @@
 package model;
 
-import model.SpotifyAPIClient;
+import model.SpotifyAPI;
 import model.Track;
 
+import metrics.MetricsRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
 import java.io.IOException;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * Main recommendation engine that uses different strategies
  * Demonstrates Composition and Strategy Pattern
+ *
+ * Thread-safe, so one engine can serve every connection: the default strategy is swapped
+ * atomically and each call reads it once, and a call may name any strategy in the registry instead.
+ * With a RecommendationCache, repeated calls for the same seed and strategy are answered from it.
  */
 public class RecommendationEngine {
-    private RecommendationStrategy strategy;
-    private final SpotifyAPIClient apiClient;
+    private static final Logger log = LoggerFactory.getLogger(RecommendationEngine.class);
+
+    private final AtomicReference<RecommendationStrategy> strategy;
+    private final StrategyRegistry registry;
+    private final SpotifyAPI apiClient;
+    private final RecommendationCache resultCache;
+
+    public RecommendationEngine(RecommendationStrategy strategy, SpotifyAPI apiClient) {
+        this(new StrategyRegistry(), strategy, apiClient, null);
+    }
+
+    /**
+     * @param registry Strategies calls may ask for by name
+     * @param defaultStrategy Name of the registered strategy used when a call names none
+     */
+    public RecommendationEngine(StrategyRegistry registry, String defaultStrategy, SpotifyAPI apiClient) {
+        this(registry, defaultStrategy, apiClient, null);
+    }
+
+    /**
+     * @param resultCache Memoizes results by seed, strategy and count, or null to always recompute
+     */
+    public RecommendationEngine(StrategyRegistry registry, String defaultStrategy, SpotifyAPI apiClient,
+                                RecommendationCache resultCache) {
+        this(registry, registry.require(defaultStrategy), apiClient, resultCache);
+    }
 
-    public RecommendationEngine(RecommendationStrategy strategy, SpotifyAPIClient apiClient) {
-        this.strategy = strategy;
+    private RecommendationEngine(StrategyRegistry registry, RecommendationStrategy strategy, SpotifyAPI apiClient,
+                                 RecommendationCache resultCache) {
+        this.strategy = new AtomicReference<>(strategy);
+        this.registry = registry;
         this.apiClient = apiClient;
+        this.resultCache = resultCache;
     }
 
     /**
-     * Change the recommendation strategy at runtime
+     * Change the recommendation strategy at runtime; calls already running finish with the old one
      */
     public void setStrategy(RecommendationStrategy strategy) {
-        this.strategy = strategy;
-        System.out.println("Switched to: " + strategy.getStrategyName());
+        RecommendationStrategy previous = this.strategy.getAndSet(strategy);
+        if (previous != strategy) {
+            log.info("Switched to: {}", strategy.getStrategyName());
+        }
+    }
+
+    /**
+     * Make the registered strategy with this name the default
+     *
+     * @throws IllegalArgumentException if no strategy has that name
+     */
+    public void setStrategy(String name) {
+        setStrategy(registry.require(name));
     }
 
     /**
      * Get recommendations using the current strategy
      */
     public List<Track> getRecommendations(Track seedTrack, int count) throws IOException {
-        System.out.println("Using strategy: " + strategy.getStrategyName());
-        return strategy.recommend(seedTrack, apiClient, count);
+        return getRecommendations(seedTrack, count, Deadline.none().inLane(RequestScheduler.Lane.RECOMMEND));
+    }
+
+    /**
+     * Get recommendations using the current strategy, giving up on Spotify calls once the deadline passes
+     */
+    public List<Track> getRecommendations(Track seedTrack, int count, Deadline deadline) throws IOException {
+        return recommend(strategy.get(), seedTrack, count, deadline);
+    }
+
+    /**
+     * Get recommendations using the named strategy, or the current one when the name is null
+     *
+     * @throws IllegalArgumentException if no strategy has that name
+     */
+    public List<Track> getRecommendations(Track seedTrack, int count, String strategyName, Deadline deadline)
+            throws IOException {
+        RecommendationStrategy chosen = strategyName == null ? strategy.get() : registry.require(strategyName);
+        return recommend(chosen, seedTrack, count, deadline);
+    }
+
+    private List<Track> recommend(RecommendationStrategy current, Track seedTrack, int count, Deadline deadline)
+            throws IOException {
+        if (resultCache == null) {
+            return compute(current, seedTrack, count, deadline);
+        }
+        return resultCache.get(seedTrack, current.getStrategyName(), count, deadline,
+                () -> compute(current, seedTrack, count, deadline));
+    }
+
+    private List<Track> compute(RecommendationStrategy current, Track seedTrack, int count, Deadline deadline)
+            throws IOException {
+        log.debug("Using strategy: {}", current.getStrategyName());
+
+        long start = System.nanoTime();
+        try {
+            return current.recommend(seedTrack, apiClient, count, deadline);
+        } finally {
+            MetricsRegistry.getDefault().histogram("recommender_strategy_seconds",
+                    "Time a recommendation strategy took, by strategy", "strategy", current.getStrategyName())
+                    .record(System.nanoTime() - start);
+        }
     }
 
     public RecommendationStrategy getCurrentStrategy() {
-        return strategy;
+        return strategy.get();
+    }
+
+    /**
+     * The result cache, or null when results are always recomputed
+     */
+    public RecommendationCache getResultCache() {
+        return resultCache;
+    }
+
+    public StrategyRegistry getRegistry() {
+        return registry;
     }
 }
\ No newline at end of file
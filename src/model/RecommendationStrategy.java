@@ -1,7 +1,7 @@
 package model;
 
 import model.Track;
-import model.SpotifyAPIClient;
+import model.SpotifyAPI;
 import java.util.List;
 import java.io.IOException;
 
@@ -17,7 +17,18 @@ public interface RecommendationStrategy {
      * @param count Number of recommendations to generate
      * @return List of recommended tracks
      */
-    List<Track> recommend(Track seedTrack, SpotifyAPIClient apiClient, int count) throws IOException;
+    List<Track> recommend(Track seedTrack, SpotifyAPI apiClient, int count) throws IOException;
+
+    /**
+     * Generate recommendations within a time budget. Strategies that can stop early return what
+     * they have and call deadline.markPartial(); others throw DeadlineExceededException.
+     * The default only checks the deadline before starting.
+     */
+    default List<Track> recommend(Track seedTrack, SpotifyAPI apiClient, int count, Deadline deadline)
+            throws IOException {
+        deadline.check("recommendation");
+        return recommend(seedTrack, apiClient, count);
+    }
 
     /**
      * Get the name of this recommendation strategy
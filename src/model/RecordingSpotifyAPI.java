@@ -0,0 +1,108 @@
+package model;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Decorator that records every track its delegate returns in a TrackStore, and answers track
+ * lookups by ID from the store before asking the delegate.
+ *
+ * Layered under CachingSpotifyAPI it sees only cache misses, i.e. what actually came from Spotify.
+ * A failed write (disk full) is logged and never fails the call.
+ */
+public class RecordingSpotifyAPI implements SpotifyAPI {
+    private static final Logger log = LoggerFactory.getLogger(RecordingSpotifyAPI.class);
+
+    private final SpotifyAPI delegate;
+    private final TrackStore store;
+
+    public RecordingSpotifyAPI(SpotifyAPI delegate, TrackStore store) {
+        this.delegate = delegate;
+        this.store = store;
+    }
+
+    @Override
+    public List<Track> searchTracks(String query, int limit) throws IOException {
+        return record(delegate.searchTracks(query, limit));
+    }
+
+    @Override
+    public String getArtistID(String artist) throws IOException {
+        return delegate.getArtistID(artist);
+    }
+
+    @Override
+    public List<Track> getArtistsTopTracks(String artistID) throws IOException {
+        return record(delegate.getArtistsTopTracks(artistID));
+    }
+
+    @Override
+    public List<String> getRelatedArtistIDs(String artistID) throws IOException {
+        return delegate.getRelatedArtistIDs(artistID);
+    }
+
+    @Override
+    public Track getTrack(String trackID) throws IOException {
+        Track stored = store.get(trackID);
+        return stored != null ? stored : record(delegate.getTrack(trackID));
+    }
+
+    @Override
+    public Artist getArtist(String artistID) throws IOException {
+        return delegate.getArtist(artistID);
+    }
+
+    @Override
+    public List<Track> searchTracks(String query, int limit, Deadline deadline) throws IOException {
+        return record(delegate.searchTracks(query, limit, deadline));
+    }
+
+    @Override
+    public String getArtistID(String artist, Deadline deadline) throws IOException {
+        return delegate.getArtistID(artist, deadline);
+    }
+
+    @Override
+    public List<Track> getArtistsTopTracks(String artistID, Deadline deadline) throws IOException {
+        return record(delegate.getArtistsTopTracks(artistID, deadline));
+    }
+
+    @Override
+    public List<String> getRelatedArtistIDs(String artistID, Deadline deadline) throws IOException {
+        return delegate.getRelatedArtistIDs(artistID, deadline);
+    }
+
+    @Override
+    public Track getTrack(String trackID, Deadline deadline) throws IOException {
+        Track stored = store.get(trackID);
+        return stored != null ? stored : record(delegate.getTrack(trackID, deadline));
+    }
+
+    @Override
+    public Artist getArtist(String artistID, Deadline deadline) throws IOException {
+        return delegate.getArtist(artistID, deadline);
+    }
+
+    public TrackStore getStore() {
+        return store;
+    }
+
+    private List<Track> record(List<Track> tracks) {
+        try {
+            store.addAll(tracks);
+        } catch (IOException e) {
+            log.warn("Could not record tracks: {}", e.getMessage());
+        }
+        return tracks;
+    }
+
+    private Track record(Track track) {
+        if (track != null) {
+            record(List.of(track));
+        }
+        return track;
+    }
+}
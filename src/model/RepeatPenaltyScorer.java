@@ -0,0 +1,77 @@
+package model;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Subtracts weight from tracks among the last capacity returned, so repeated requests move on
+ * to tracks not yet shown. The memory is shared by every request that uses the stage.
+ */
+public class RepeatPenaltyScorer implements ScoringStage {
+    public static final String NAME = "repeat";
+    static final int DEFAULT_CAPACITY = 1_000;
+
+    private final float weight;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Map<String, Boolean> recent;
+
+    public RepeatPenaltyScorer(float weight) {
+        this(weight, DEFAULT_CAPACITY);
+    }
+
+    public RepeatPenaltyScorer(float weight, int capacity) {
+        this.weight = weight;
+        this.recent = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public void score(CandidatePool pool, float[] scores) {
+        lock.lock();
+        try {
+            if (recent.isEmpty()) {
+                return;
+            }
+            for (int i = 0; i < pool.size(); i++) {
+                // containsKey, not get: scoring should not count as use in the access order
+                if (recent.containsKey(pool.getTrack(i).getId())) {
+                    scores[i] -= weight;
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void returned(List<Track> tracks) {
+        lock.lock();
+        try {
+            for (Track track : tracks) {
+                recent.put(track.getId(), Boolean.TRUE);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int size() {
+        lock.lock();
+        try {
+            return recent.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+}
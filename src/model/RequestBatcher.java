@@ -0,0 +1,145 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Gathers single-ID lookups into multi-ID calls (Spotify's /tracks?ids=, /artists?ids=).
+ *
+ * The first lookup opens a batch; it is sent windowMs later, or as soon as it holds
+ * maxBatchSize distinct IDs, whichever comes first, and the answer is split back to the callers.
+ * Lookups for an ID already in the open batch share its slot. Each caller gets its own copy
+ * of the result, so one caller cancelling (e.g. on its Deadline) does not fail the others.
+ */
+public class RequestBatcher<V> {
+
+    /**
+     * Fetches many IDs in one call
+     */
+    @FunctionalInterface
+    public interface BatchLoader<V> {
+        /**
+         * Values for the IDs in the same order, with null for IDs that do not exist
+         */
+        CompletableFuture<List<V>> load(List<String> ids);
+    }
+
+    private static final class Batch<V> {
+        final Map<String, CompletableFuture<V>> waiting = new LinkedHashMap<>();
+        ScheduledFuture<?> timer;
+    }
+
+    private final int maxBatchSize;
+    private final long windowMs;
+    private final BatchLoader<V> loader;
+    private final ScheduledExecutorService timer;
+
+    // Lock rather than synchronized so virtual threads never pin their carrier here
+    private final ReentrantLock lock = new ReentrantLock();
+    private Batch<V> open;
+
+    private final LongAdder lookups = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+
+    /**
+     * @param maxBatchSize Most IDs the endpoint takes in one call
+     * @param windowMs How long the first lookup of a batch waits for others to join it
+     * @param timer Sends batches once their window has passed
+     */
+    public RequestBatcher(int maxBatchSize, long windowMs, BatchLoader<V> loader, ScheduledExecutorService timer) {
+        this.maxBatchSize = maxBatchSize;
+        this.windowMs = windowMs;
+        this.loader = loader;
+        this.timer = timer;
+    }
+
+    /**
+     * The value for one ID, completed when the batch it joined has been answered
+     */
+    public CompletableFuture<V> get(String id) {
+        lookups.increment();
+        Batch<V> full = null;
+        CompletableFuture<V> slot;
+
+        lock.lock();
+        try {
+            if (open == null) {
+                Batch<V> batch = new Batch<>();
+                batch.timer = timer.schedule(() -> sendIfOpen(batch), windowMs, TimeUnit.MILLISECONDS);
+                open = batch;
+            }
+            slot = open.waiting.computeIfAbsent(id, key -> new CompletableFuture<>());
+            if (open.waiting.size() >= maxBatchSize) {
+                full = open;
+                open = null;
+                full.timer.cancel(false);
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        if (full != null) {
+            send(full);
+        }
+        return slot.copy();
+    }
+
+    private void sendIfOpen(Batch<V> batch) {
+        lock.lock();
+        try {
+            if (open != batch) {
+                // Already sent because it filled up
+                return;
+            }
+            open = null;
+        } finally {
+            lock.unlock();
+        }
+        send(batch);
+    }
+
+    private void send(Batch<V> batch) {
+        batches.increment();
+        List<String> ids = new ArrayList<>(batch.waiting.keySet());
+
+        CompletableFuture<List<V>> values;
+        try {
+            values = loader.load(ids);
+        } catch (RuntimeException e) {
+            values = CompletableFuture.failedFuture(e);
+        }
+
+        values.whenComplete((list, error) -> {
+            for (int i = 0; i < ids.size(); i++) {
+                CompletableFuture<V> slot = batch.waiting.get(ids.get(i));
+                if (error != null) {
+                    slot.completeExceptionally(error);
+                } else {
+                    slot.complete(i < list.size() ? list.get(i) : null);
+                }
+            }
+        });
+    }
+
+    /**
+     * Single-ID lookups made through this batcher
+     */
+    public long getLookups() {
+        return lookups.sum();
+    }
+
+    /**
+     * Multi-ID calls sent; getLookups() / getBatches() is the average batch size
+     */
+    public long getBatches() {
+        return batches.sum();
+    }
+}
@@ -0,0 +1,323 @@
+package model;
+
+import org.apache.hc.client5.http.async.methods.SimpleHttpResponse;
+import org.apache.hc.core5.http.Header;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Client-side scheduler for Spotify requests.
+ *
+ * Requests wait in one queue per lane and are released when both the global and the
+ * endpoint's token bucket allow it. Lanes take turns, so a burst of searches cannot
+ * starve recommendations (or the other way round). The caller picks the lane by the
+ * traffic a request serves, not by its endpoint: a search made while recommending
+ * goes in the RECOMMEND lane.
+ *
+ * A 429 pauses all dispatching for the Retry-After period and then retries the request;
+ * 5xx responses are retried with jittered exponential backoff.
+ * All queue and bucket state is confined to the single dispatcher thread.
+ */
+public class RequestScheduler {
+
+    /**
+     * Traffic classes that share the rate limit fairly
+     */
+    public enum Lane {
+        SEARCH,
+        RECOMMEND
+    }
+
+    private static final int MAX_ATTEMPTS = 4;
+    private static final long DEFAULT_RETRY_AFTER_MS = 1_000;
+    private static final long BASE_BACKOFF_MS = 200;
+    private static final long MAX_BACKOFF_MS = 5_000;
+
+    private static final class Task {
+        final Lane lane;
+        final String endpoint;
+        final Supplier<CompletableFuture<SimpleHttpResponse>> call;
+        final CompletableFuture<SimpleHttpResponse> result = new CompletableFuture<>();
+        volatile CompletableFuture<SimpleHttpResponse> exchange;
+        int attempts;
+
+        Task(Lane lane, String endpoint, Supplier<CompletableFuture<SimpleHttpResponse>> call) {
+            this.lane = lane;
+            this.endpoint = endpoint;
+            this.call = call;
+        }
+    }
+
+    private final ScheduledExecutorService dispatcher;
+    private final Lane[] lanes = Lane.values();
+    private final EnumMap<Lane, ArrayDeque<Task>> queues = new EnumMap<>(Lane.class);
+    private final TokenBucket globalBucket;
+    private final Map<String, TokenBucket> endpointBuckets = new HashMap<>();
+    private final double defaultEndpointRate;
+    private final int defaultEndpointBurst;
+    private int nextLane;
+    private long pausedUntil;
+    private ScheduledFuture<?> wakeUp;
+
+    private final AtomicInteger queued = new AtomicInteger();
+    private final LongAdder throttled = new LongAdder();
+    private final LongAdder retries = new LongAdder();
+
+    /**
+     * @param globalRate Requests per second across all endpoints
+     * @param globalBurst Requests allowed back to back across all endpoints
+     * @param endpointRate Default requests per second for a single endpoint
+     * @param endpointBurst Default burst for a single endpoint
+     */
+    public RequestScheduler(double globalRate, int globalBurst, double endpointRate, int endpointBurst) {
+        this.globalBucket = new TokenBucket(globalRate, globalBurst);
+        this.defaultEndpointRate = endpointRate;
+        this.defaultEndpointBurst = endpointBurst;
+        this.pausedUntil = System.nanoTime();
+        for (Lane lane : lanes) {
+            queues.put(lane, new ArrayDeque<>());
+        }
+        this.dispatcher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "spotify-request-scheduler");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Override the rate limit of a single endpoint
+     */
+    public void setEndpointLimit(String endpoint, double ratePerSecond, int burst) {
+        dispatcher.execute(() -> endpointBuckets.put(endpoint, new TokenBucket(ratePerSecond, burst)));
+    }
+
+    /**
+     * Queue a request. The call is invoked once per attempt and must start a new exchange each time.
+     * Cancelling the returned future removes a queued request or aborts the running exchange.
+     */
+    public CompletableFuture<SimpleHttpResponse> submit(Lane lane, String endpoint,
+                                                        Supplier<CompletableFuture<SimpleHttpResponse>> call) {
+        Task task = new Task(lane, endpoint, call);
+
+        task.result.whenComplete((response, error) -> {
+            CompletableFuture<SimpleHttpResponse> exchange = task.exchange;
+            if (error != null && exchange != null) {
+                exchange.cancel(true);
+            }
+        });
+
+        queued.incrementAndGet();
+        dispatcher.execute(() -> {
+            queues.get(lane).addLast(task);
+            drain();
+        });
+        return task.result;
+    }
+
+    /**
+     * Start every request the buckets allow, then sleep until the next one could go
+     */
+    private void drain() {
+        long now = System.nanoTime();
+        if (pausedUntil - now > 0) {
+            wakeUpIn(pausedUntil - now);
+            return;
+        }
+
+        while (true) {
+            long globalWait = globalBucket.nanosUntilAvailable(now);
+            if (globalWait > 0) {
+                if (queued.get() > 0) {
+                    wakeUpIn(globalWait);
+                }
+                return;
+            }
+
+            long shortestWait = Long.MAX_VALUE;
+            Task ready = null;
+            for (int i = 0; i < lanes.length && ready == null; i++) {
+                int laneIndex = (nextLane + i) % lanes.length;
+                Iterator<Task> tasks = queues.get(lanes[laneIndex]).iterator();
+                while (tasks.hasNext()) {
+                    Task task = tasks.next();
+                    if (task.result.isDone()) {
+                        tasks.remove();
+                        queued.decrementAndGet();
+                        continue;
+                    }
+
+                    // A task whose endpoint is out of tokens does not hold up other endpoints behind it;
+                    // tasks for the same endpoint are still started in queue order
+                    long wait = bucketFor(task.endpoint).nanosUntilAvailable(now);
+                    if (wait > 0) {
+                        shortestWait = Math.min(shortestWait, wait);
+                        continue;
+                    }
+
+                    tasks.remove();
+                    ready = task;
+                    nextLane = (laneIndex + 1) % lanes.length;
+                    break;
+                }
+            }
+
+            if (ready == null) {
+                if (shortestWait != Long.MAX_VALUE) {
+                    wakeUpIn(shortestWait);
+                }
+                return;
+            }
+
+            globalBucket.take();
+            bucketFor(ready.endpoint).take();
+            queued.decrementAndGet();
+            start(ready);
+        }
+    }
+
+    private TokenBucket bucketFor(String endpoint) {
+        return endpointBuckets.computeIfAbsent(endpoint,
+                key -> new TokenBucket(defaultEndpointRate, defaultEndpointBurst));
+    }
+
+    private void wakeUpIn(long nanos) {
+        // Keep an already scheduled wake-up if it fires sooner; a wake-up with no delay left is the one running now
+        if (wakeUp != null && !wakeUp.isDone()) {
+            long pending = wakeUp.getDelay(TimeUnit.NANOSECONDS);
+            if (pending > 0 && pending <= nanos) {
+                return;
+            }
+        }
+        if (wakeUp != null) {
+            wakeUp.cancel(false);
+        }
+        wakeUp = dispatcher.schedule(this::drain, nanos, TimeUnit.NANOSECONDS);
+    }
+
+    private void start(Task task) {
+        task.attempts++;
+
+        CompletableFuture<SimpleHttpResponse> exchange;
+        try {
+            exchange = task.call.get();
+        } catch (RuntimeException e) {
+            task.result.completeExceptionally(e);
+            return;
+        }
+        task.exchange = exchange;
+
+        exchange.whenComplete((response, error) -> {
+            if (task.result.isDone()) {
+                return;
+            }
+            if (error != null) {
+                task.result.completeExceptionally(error);
+                return;
+            }
+
+            int status = response.getCode();
+            if (status == 429) {
+                throttled.increment();
+                retryAfterPause(task, status, retryAfterMs(response));
+            } else if (status >= 500) {
+                retryWithBackoff(task, status);
+            } else if (status >= 400) {
+                task.result.completeExceptionally(
+                        new IOException("Spotify API returned " + status + " for " + task.endpoint));
+            } else {
+                task.result.complete(response);
+            }
+        });
+    }
+
+    private void retryAfterPause(Task task, int status, long delayMs) {
+        if (!canRetry(task, status)) {
+            return;
+        }
+
+        dispatcher.execute(() -> {
+            long resumeAt = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(delayMs);
+            if (resumeAt - pausedUntil > 0) {
+                pausedUntil = resumeAt;
+            }
+            requeue(task);
+        });
+    }
+
+    private void retryWithBackoff(Task task, int status) {
+        if (!canRetry(task, status)) {
+            return;
+        }
+
+        long ceiling = Math.min(MAX_BACKOFF_MS, BASE_BACKOFF_MS << (task.attempts - 1));
+        long delayMs = ThreadLocalRandom.current().nextLong(ceiling / 2, ceiling + 1);
+        dispatcher.schedule(() -> requeue(task), delayMs, TimeUnit.MILLISECONDS);
+    }
+
+    private boolean canRetry(Task task, int status) {
+        if (task.attempts >= MAX_ATTEMPTS) {
+            task.result.completeExceptionally(new IOException(String.format(
+                    "Spotify API returned %d for %s after %d attempts", status, task.endpoint, task.attempts)));
+            return false;
+        }
+        retries.increment();
+        return true;
+    }
+
+    /**
+     * Retried requests go to the front of their lane so they keep their place
+     */
+    private void requeue(Task task) {
+        queued.incrementAndGet();
+        queues.get(task.lane).addFirst(task);
+        drain();
+    }
+
+    private static long retryAfterMs(SimpleHttpResponse response) {
+        Header header = response.getFirstHeader("Retry-After");
+        if (header == null) {
+            return DEFAULT_RETRY_AFTER_MS;
+        }
+        try {
+            return TimeUnit.SECONDS.toMillis(Long.parseLong(header.getValue().trim()));
+        } catch (NumberFormatException e) {
+            return DEFAULT_RETRY_AFTER_MS;
+        }
+    }
+
+    /**
+     * Requests waiting for a rate-limit token
+     */
+    public int getQueued() {
+        return queued.get();
+    }
+
+    /**
+     * 429 responses received from Spotify
+     */
+    public long getThrottledResponses() {
+        return throttled.sum();
+    }
+
+    public long getRetries() {
+        return retries.sum();
+    }
+
+    public void close() {
+        dispatcher.shutdownNow();
+    }
+}
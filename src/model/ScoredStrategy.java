@@ -0,0 +1,58 @@
+package model;
+
+import config.Config;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+/**
+ * Ranks by several signals instead of popularity alone: gathers the top tracks of each of the
+ * seed's artists plus a search for the first one, and lets a ScoringPipeline pick from them.
+ *
+ * With the repeat penalty stage, results depend on what was returned before; the engine's
+ * result cache still answers repeated requests for a seed until its entry expires.
+ */
+public class ScoredStrategy implements RecommendationStrategy {
+    private static final Logger log = LoggerFactory.getLogger(ScoredStrategy.class);
+
+    private final ScoringPipeline pipeline;
+
+    public ScoredStrategy(ScoringPipeline pipeline) {
+        this.pipeline = pipeline;
+    }
+
+    @Override
+    public List<Track> recommend(Track seedTrack, SpotifyAPI apiClient, int count) throws IOException {
+        return recommend(seedTrack, apiClient, count, Deadline.none().inLane(RequestScheduler.Lane.RECOMMEND));
+    }
+
+    @Override
+    public List<Track> recommend(Track seedTrack, SpotifyAPI apiClient, int count, Deadline deadline)
+            throws IOException {
+        log.debug("Scoring candidates for: {}", seedTrack.getName());
+
+        List<Track> candidates = new ArrayList<>();
+        for (String artist : new LinkedHashSet<>(seedTrack.getArtists())) {
+            String artistID = apiClient.getArtistID(artist, deadline);
+            if (artistID != null && !artistID.equals("No Artist Found")) {
+                candidates.addAll(apiClient.getArtistsTopTracks(artistID, deadline));
+            }
+        }
+        candidates.addAll(apiClient.searchTracks(seedTrack.getArtists().get(0), Config.TRACK_POOL_SIZE, deadline));
+
+        return pipeline.rank(CandidatePool.of(candidates, seedTrack), count);
+    }
+
+    public ScoringPipeline getPipeline() {
+        return pipeline;
+    }
+
+    @Override
+    public String getStrategyName() {
+        return "Multi-Signal Scoring";
+    }
+}
@@ -0,0 +1,96 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Ranks a CandidatePool by the sum of its stages' weighted scores.
+ *
+ * Stages write into one float array and the best are picked with TopKRanker.topIndices, so
+ * ranking allocates the score array and the result, nothing per candidate. The loops over the
+ * pool's primitive arrays are simple enough for the JIT to vectorize (benchmark.ScoringBenchmark).
+ */
+public class ScoringPipeline {
+    public static final String DEFAULT_WEIGHTS = "popularity=1,overlap=0.5,duration=0.3,repeat=0.5";
+
+    private final List<ScoringStage> stages;
+
+    public ScoringPipeline(List<ScoringStage> stages) {
+        this.stages = List.copyOf(stages);
+    }
+
+    /**
+     * The built-in stages with DEFAULT_WEIGHTS
+     */
+    public static ScoringPipeline standard() {
+        return fromWeights(DEFAULT_WEIGHTS);
+    }
+
+    /**
+     * Built-in stages from a spec like "popularity=1,duration=0.2": only the stages named are used
+     *
+     * @throws IllegalArgumentException on an unknown stage or a malformed weight
+     */
+    public static ScoringPipeline fromWeights(String spec) {
+        List<ScoringStage> stages = new ArrayList<>();
+        for (String part : spec.split(",")) {
+            if (part.isBlank()) {
+                continue;
+            }
+            String[] pair = part.split("=", 2);
+            if (pair.length != 2) {
+                throw new IllegalArgumentException("Expected name=weight: " + part.trim());
+            }
+            String name = pair[0].trim().toLowerCase(Locale.ROOT);
+            float weight;
+            try {
+                weight = Float.parseFloat(pair[1].trim());
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Bad weight for " + name + ": " + pair[1].trim());
+            }
+            stages.add(stage(name, weight));
+        }
+        return new ScoringPipeline(stages);
+    }
+
+    private static ScoringStage stage(String name, float weight) {
+        switch (name) {
+            case PopularityScorer.NAME:
+                return new PopularityScorer(weight);
+            case ArtistOverlapScorer.NAME:
+                return new ArtistOverlapScorer(weight);
+            case DurationProximityScorer.NAME:
+                return new DurationProximityScorer(weight);
+            case RepeatPenaltyScorer.NAME:
+                return new RepeatPenaltyScorer(weight);
+            default:
+                throw new IllegalArgumentException("Unknown scoring stage: " + name);
+        }
+    }
+
+    /**
+     * The count best candidates, best first
+     */
+    public List<Track> rank(CandidatePool pool, int count) {
+        float[] scores = new float[pool.size()];
+        for (ScoringStage stage : stages) {
+            stage.score(pool, scores);
+        }
+
+        int[] best = TopKRanker.topIndices(scores, pool.size(), count);
+        List<Track> result = new ArrayList<>(best.length);
+        for (int index : best) {
+            result.add(pool.getTrack(index));
+        }
+
+        for (ScoringStage stage : stages) {
+            stage.returned(result);
+        }
+        return result;
+    }
+
+    public List<ScoringStage> getStages() {
+        return stages;
+    }
+}
@@ -0,0 +1,27 @@
+package model;
+
+import java.util.List;
+
+/**
+ * One signal in a ScoringPipeline. Each stage adds its weighted score for every candidate to a
+ * shared array; the pipeline then keeps the highest totals.
+ *
+ * Stages are shared by every connection and so must be thread-safe.
+ */
+public interface ScoringStage {
+    /**
+     * Short name used in weight specs ("popularity", "overlap", ...)
+     */
+    String getName();
+
+    /**
+     * Add this stage's contribution for candidate i to scores[i], for every i below pool.size()
+     */
+    void score(CandidatePool pool, float[] scores);
+
+    /**
+     * Called with the tracks the pipeline returned, for stages that remember them
+     */
+    default void returned(List<Track> tracks) {
+    }
+}
@@ -0,0 +1,128 @@
+package model;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent identical calls: while a call for a key is in flight,
+ * later callers with the same key share its result instead of starting another one.
+ */
+public class SingleFlight<V> {
+    private final ConcurrentHashMap<String, Flight<V>> inFlight = new ConcurrentHashMap<>();
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder deduplicated = new LongAdder();
+    private final LongAdder abandoned = new LongAdder();
+
+    /**
+     * One upstream call and the callers still waiting on it
+     */
+    private static final class Flight<V> {
+        final CompletableFuture<V> shared = new CompletableFuture<>();
+        // Once this reaches 0 nobody wants the result and the flight cannot be joined
+        final AtomicInteger waiters = new AtomicInteger(1);
+        volatile CompletableFuture<V> upstream;
+
+        boolean join() {
+            while (true) {
+                int current = waiters.get();
+                if (current == 0) {
+                    return false;
+                }
+                if (waiters.compareAndSet(current, current + 1)) {
+                    return true;
+                }
+            }
+        }
+    }
+
+    /**
+     * Run the call for this key, or join the one already in flight.
+     * Each caller gets its own copy of the shared future, so one caller cancelling
+     * does not fail the others; when the last caller cancels, the upstream call is cancelled too.
+     */
+    public CompletableFuture<V> execute(String key, Supplier<CompletableFuture<V>> call) {
+        calls.increment();
+
+        while (true) {
+            Flight<V> flight = new Flight<>();
+            Flight<V> existing = inFlight.putIfAbsent(key, flight);
+            if (existing == null) {
+                start(key, flight, call);
+                return waiter(key, flight);
+            }
+            if (existing.join()) {
+                deduplicated.increment();
+                return waiter(key, existing);
+            }
+            // Every caller of that flight gave up; start afresh
+            inFlight.remove(key, existing);
+        }
+    }
+
+    private void start(String key, Flight<V> flight, Supplier<CompletableFuture<V>> call) {
+        CompletableFuture<V> upstream;
+        try {
+            upstream = call.get();
+        } catch (RuntimeException e) {
+            upstream = CompletableFuture.failedFuture(e);
+        }
+        flight.upstream = upstream;
+
+        upstream.whenComplete((value, error) -> {
+            inFlight.remove(key, flight);
+            if (error != null) {
+                flight.shared.completeExceptionally(error);
+            } else {
+                flight.shared.complete(value);
+            }
+        });
+
+        // The only caller may have given up while the call was being started
+        if (flight.waiters.get() == 0) {
+            upstream.cancel(true);
+        }
+    }
+
+    private CompletableFuture<V> waiter(String key, Flight<V> flight) {
+        CompletableFuture<V> copy = flight.shared.copy();
+        copy.whenComplete((value, error) -> {
+            if (error != null && !flight.shared.isDone() && flight.waiters.decrementAndGet() == 0) {
+                abandoned.increment();
+                inFlight.remove(key, flight);
+                CompletableFuture<V> upstream = flight.upstream;
+                if (upstream != null) {
+                    upstream.cancel(true);
+                }
+            }
+        });
+        return copy;
+    }
+
+    /**
+     * Total calls made through this instance
+     */
+    public long getCalls() {
+        return calls.sum();
+    }
+
+    /**
+     * Calls that joined an in-flight request instead of going upstream
+     */
+    public long getDeduplicated() {
+        return deduplicated.sum();
+    }
+
+    /**
+     * Upstream calls cancelled because every caller waiting on them gave up
+     */
+    public long getAbandoned() {
+        return abandoned.sum();
+    }
+
+    public int getInFlight() {
+        return inFlight.size();
+    }
+}
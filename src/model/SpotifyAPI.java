@@ -0,0 +1,81 @@
+package model;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Read-only view of the Spotify catalog used by the recommendation strategies.
+ * Implemented by SpotifyAPIClient and by decorators layered on top of it (e.g. caching).
+ *
+ * The Deadline overloads bound a call by the request's remaining time. By default they only
+ * refuse to start once the deadline has passed; SpotifyAPIClient also abandons (and cancels)
+ * HTTP exchanges that outlive it.
+ */
+public interface SpotifyAPI {
+    /**
+     * Search for tracks by query string
+     */
+    List<Track> searchTracks(String query, int limit) throws IOException;
+
+    /**
+     * Look up the ID of the best matching artist for a name
+     */
+    String getArtistID(String artist) throws IOException;
+
+    /**
+     * Get an artist's top tracks
+     */
+    List<Track> getArtistsTopTracks(String artistID) throws IOException;
+
+    /**
+     * IDs of artists related to the given one. Optional: sources without this data return none.
+     */
+    default List<String> getRelatedArtistIDs(String artistID) throws IOException {
+        return List.of();
+    }
+
+    /**
+     * Full metadata for one track, or null if there is no such track. Optional: sources that
+     * cannot look tracks up by ID return null.
+     */
+    default Track getTrack(String trackID) throws IOException {
+        return null;
+    }
+
+    /**
+     * Full metadata for one artist, or null if there is no such artist. Optional, like getTrack.
+     */
+    default Artist getArtist(String artistID) throws IOException {
+        return null;
+    }
+
+    default List<Track> searchTracks(String query, int limit, Deadline deadline) throws IOException {
+        deadline.check("search");
+        return searchTracks(query, limit);
+    }
+
+    default String getArtistID(String artist, Deadline deadline) throws IOException {
+        deadline.check("artist lookup");
+        return getArtistID(artist);
+    }
+
+    default List<Track> getArtistsTopTracks(String artistID, Deadline deadline) throws IOException {
+        deadline.check("top tracks");
+        return getArtistsTopTracks(artistID);
+    }
+
+    default List<String> getRelatedArtistIDs(String artistID, Deadline deadline) throws IOException {
+        deadline.check("related artists");
+        return getRelatedArtistIDs(artistID);
+    }
+
+    default Track getTrack(String trackID, Deadline deadline) throws IOException {
+        deadline.check("track lookup");
+        return getTrack(trackID);
+    }
+
+    default Artist getArtist(String artistID, Deadline deadline) throws IOException {
+        deadline.check("artist details");
+        return getArtist(artistID);
+    }
+}
@@ -1,57 +1,259 @@
 package model;
 
-import com.google.gson.JsonArray;
-import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonParser;
 import config.Config;
+import metrics.LatencyHistogram;
+import metrics.MetricsRegistry;
 
-import org.apache.hc.client5.http.classic.methods.HttpGet;
+import org.apache.hc.client5.http.async.methods.SimpleHttpRequest;
+import org.apache.hc.client5.http.async.methods.SimpleHttpResponse;
+import org.apache.hc.client5.http.async.methods.SimpleRequestBuilder;
 import org.apache.hc.client5.http.classic.methods.HttpPost;
 import org.apache.hc.client5.http.classic.methods.HttpPut;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.config.TlsConfig;
+import org.apache.hc.client5.http.impl.async.CloseableHttpAsyncClient;
+import org.apache.hc.client5.http.impl.async.HttpAsyncClients;
 import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
 import org.apache.hc.client5.http.impl.classic.CloseableHttpResponse;
 import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.client5.http.impl.nio.PoolingAsyncClientConnectionManager;
+import org.apache.hc.client5.http.impl.nio.PoolingAsyncClientConnectionManagerBuilder;
+import org.apache.hc.core5.concurrent.FutureCallback;
 import org.apache.hc.core5.http.ParseException;
 import org.apache.hc.core5.http.io.entity.EntityUtils;
 import org.apache.hc.core5.http.io.entity.StringEntity;
+import org.apache.hc.core5.http2.HttpVersionPolicy;
+import org.apache.hc.core5.io.CloseMode;
+import org.apache.hc.core5.pool.PoolStats;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
 import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 /**
  * REST API Client for Spotify Web API
  * Demonstrates REST API calls and JSON parsing
+ *
+ * Read calls run on a non-blocking HTTP/2-capable client and are exposed as
+ * CompletableFutures (the *Async methods); the blocking methods wait on those futures.
+ * Identical concurrent reads are coalesced into one request, so cancelling one caller's
+ * future leaves the shared exchange running for the others; once every caller has given up
+ * (e.g. their Deadlines passed) the exchange itself is cancelled.
+ *
+ * Lookups by ID (getTrack, getArtist) are batched: those made within BATCH_WINDOW_MS of each
+ * other go out as one /tracks?ids= or /artists?ids= call of up to MAX_IDS_PER_BATCH IDs.
  */
-public class SpotifyAPIClient {
-    private String accessToken;
+public class SpotifyAPIClient implements SpotifyAPI {
+    private static final Logger log = LoggerFactory.getLogger(SpotifyAPIClient.class);
+    private static final double GLOBAL_REQUESTS_PER_SECOND = 25;
+    private static final int GLOBAL_BURST = 50;
+    private static final double ENDPOINT_REQUESTS_PER_SECOND = 15;
+    private static final int ENDPOINT_BURST = 30;
+    private static final MetricsRegistry METRICS = MetricsRegistry.getDefault();
+    // Spotify's limit for both /tracks?ids= and /artists?ids=
+    private static final int MAX_IDS_PER_BATCH = 50;
+    private static final long BATCH_WINDOW_MS = 10;
+
+    private final AccessTokenManager tokenManager = new AccessTokenManager(this::requestClientCredentialsToken);
     private String refreshToken;
-    private long tokenExpirationTime;
     private final CloseableHttpClient httpClient;
-    private HashMap <String, String> deviceName = new HashMap<>();
+    private final PoolingHttpClientConnectionManager connectionManager;
+    private final CloseableHttpAsyncClient asyncClient;
+    private final PoolingAsyncClientConnectionManager asyncConnectionManager;
+    private final Map<String, String> deviceName = new ConcurrentHashMap<>();
+
+    // Identical concurrent reads (same URL) share one HTTP exchange
+    private final SingleFlight<List<Track>> trackFlights = new SingleFlight<>();
+    private final SingleFlight<String> artistIdFlights = new SingleFlight<>();
+    private final SingleFlight<List<String>> relatedArtistFlights = new SingleFlight<>();
+
+    // Keeps reads under Spotify's rate limit and retries 429/5xx responses
+    private final RequestScheduler scheduler = new RequestScheduler(
+            GLOBAL_REQUESTS_PER_SECOND, GLOBAL_BURST, ENDPOINT_REQUESTS_PER_SECOND, ENDPOINT_BURST);
+
+    // Single-ID lookups gathered into multi-ID calls
+    private final ScheduledExecutorService batchTimer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "spotify-batcher");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final RequestBatcher<Track> trackBatcher =
+            new RequestBatcher<>(MAX_IDS_PER_BATCH, BATCH_WINDOW_MS, this::getTracksByIds, batchTimer);
+    private final RequestBatcher<Artist> artistBatcher =
+            new RequestBatcher<>(MAX_IDS_PER_BATCH, BATCH_WINDOW_MS, this::getArtistsByIds, batchTimer);
 
     public SpotifyAPIClient() {
         this.httpClient = HttpClients.createDefault();
+        this.connectionManager = null;
+
+        HttpPoolConfig defaults = new HttpPoolConfig();
+        this.asyncConnectionManager = createAsyncConnectionManager(defaults);
+        this.asyncClient = createAsyncClient(asyncConnectionManager, defaults);
+    }
+
+    /**
+     * Creates a client backed by a pooled, keep-alive connection manager so that
+     * concurrent callers reuse TCP/TLS connections instead of handshaking per request
+     */
+    public SpotifyAPIClient(HttpPoolConfig poolConfig) {
+        ConnectionConfig connectionConfig = ConnectionConfig.custom()
+                .setConnectTimeout(Timeout.ofMilliseconds(poolConfig.getConnectTimeoutMs()))
+                .setValidateAfterInactivity(TimeValue.ofMilliseconds(poolConfig.getValidateAfterInactivityMs()))
+                .build();
+
+        this.connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(poolConfig.getMaxTotal())
+                .setMaxConnPerRoute(poolConfig.getMaxPerRoute())
+                .setDefaultConnectionConfig(connectionConfig)
+                .build();
+
+        RequestConfig requestConfig = RequestConfig.custom()
+                .setConnectionRequestTimeout(Timeout.ofMilliseconds(poolConfig.getConnectionRequestTimeoutMs()))
+                .setResponseTimeout(Timeout.ofMilliseconds(poolConfig.getResponseTimeoutMs()))
+                .build();
+
+        this.httpClient = HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(requestConfig)
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.ofMilliseconds(poolConfig.getIdleEvictionMs()))
+                .build();
+
+        this.asyncConnectionManager = createAsyncConnectionManager(poolConfig);
+        this.asyncClient = createAsyncClient(asyncConnectionManager, poolConfig);
+    }
+
+    private static PoolingAsyncClientConnectionManager createAsyncConnectionManager(HttpPoolConfig poolConfig) {
+        ConnectionConfig connectionConfig = ConnectionConfig.custom()
+                .setConnectTimeout(Timeout.ofMilliseconds(poolConfig.getConnectTimeoutMs()))
+                .setValidateAfterInactivity(TimeValue.ofMilliseconds(poolConfig.getValidateAfterInactivityMs()))
+                .build();
+
+        // Negotiate HTTP/2 via ALPN so many requests can be multiplexed over one connection
+        TlsConfig tlsConfig = TlsConfig.custom()
+                .setVersionPolicy(HttpVersionPolicy.NEGOTIATE)
+                .build();
+
+        return PoolingAsyncClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(poolConfig.getMaxTotal())
+                .setMaxConnPerRoute(poolConfig.getMaxPerRoute())
+                .setDefaultConnectionConfig(connectionConfig)
+                .setDefaultTlsConfig(tlsConfig)
+                .build();
+    }
+
+    private static CloseableHttpAsyncClient createAsyncClient(PoolingAsyncClientConnectionManager manager,
+                                                              HttpPoolConfig poolConfig) {
+        RequestConfig requestConfig = RequestConfig.custom()
+                .setConnectionRequestTimeout(Timeout.ofMilliseconds(poolConfig.getConnectionRequestTimeoutMs()))
+                .setResponseTimeout(Timeout.ofMilliseconds(poolConfig.getResponseTimeoutMs()))
+                .build();
+
+        CloseableHttpAsyncClient client = HttpAsyncClients.custom()
+                .setConnectionManager(manager)
+                .setDefaultRequestConfig(requestConfig)
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.ofMilliseconds(poolConfig.getIdleEvictionMs()))
+                .build();
+        client.start();
+        return client;
+    }
+
+    /**
+     * Current connection pool usage (leased, pending, available, max) of the blocking client
+     * used for authentication and playback, or null when this client was created without a pool
+     */
+    public PoolStats getPoolStats() {
+        return connectionManager != null ? connectionManager.getTotalStats() : null;
+    }
+
+    /**
+     * Current connection pool usage of the async client that serves all read calls
+     */
+    public PoolStats getAsyncPoolStats() {
+        return asyncConnectionManager.getTotalStats();
+    }
+
+    /**
+     * Number of read calls that were served by joining an identical in-flight request
+     */
+    public long getDeduplicatedCalls() {
+        return trackFlights.getDeduplicated() + artistIdFlights.getDeduplicated()
+                + relatedArtistFlights.getDeduplicated();
+    }
+
+    /**
+     * Batches of track lookups; getLookups() / getBatches() is how many lookups shared each call
+     */
+    public RequestBatcher<Track> getTrackBatcher() {
+        return trackBatcher;
+    }
+
+    public RequestBatcher<Artist> getArtistBatcher() {
+        return artistBatcher;
+    }
+
+    /**
+     * Rate limiting, throttling and retry state; endpoint limits can be tuned with setEndpointLimit
+     */
+    public RequestScheduler getScheduler() {
+        return scheduler;
     }
 
-    public void setAccessToken(String accessToken) {
-        this.accessToken = accessToken;
+    /**
+     * Use a token obtained elsewhere (e.g. with user scopes) until shortly before expiresAt,
+     * when it is refreshed with client credentials
+     *
+     * @param expiresAt Wall-clock milliseconds at which the token expires
+     */
+    public void setAccessToken(String accessToken, long expiresAt) {
+        tokenManager.setToken(accessToken, expiresAt);
     }
 
     public void setRefreshToken(String refreshToken) {
         this.refreshToken = refreshToken;
     }
 
-    public void setTokenExpirationTime(long tokenExpirationTime) {
-        this.tokenExpirationTime = tokenExpirationTime;
+    /**
+     * Token refresh count, failures and latency
+     */
+    public AccessTokenManager getTokenManager() {
+        return tokenManager;
     }
 
     /**
-     * Authenticate with Spotify API using Client Credentials Flow
+     * Authenticate with Spotify API using Client Credentials Flow.
+     * After this the token is kept fresh in the background.
      */
     public void authenticate() throws IOException {
+        tokenManager.refreshNow();
+        log.info("Successfully authenticated with Spotify API");
+    }
+
+    private AccessTokenManager.AccessToken requestClientCredentialsToken() throws IOException {
         String auth = Config.CLIENT_ID + ":" + Config.CLIENT_SECRET;
         String encodedAuth = Base64.getEncoder().encodeToString(auth.getBytes());
 
@@ -65,11 +267,11 @@ public class SpotifyAPIClient {
                 String jsonResponse = EntityUtils.toString(response.getEntity());
                 JsonObject jsonObject = JsonParser.parseString(jsonResponse).getAsJsonObject();
 
-                this.accessToken = jsonObject.get("access_token").getAsString();
+                String accessToken = jsonObject.get("access_token").getAsString();
                 int expiresIn = jsonObject.get("expires_in").getAsInt();
-                this.tokenExpirationTime = System.currentTimeMillis() + (expiresIn * 1000);
 
-                System.out.println("Successfully authenticated with Spotify API");
+                return new AccessTokenManager.AccessToken(accessToken,
+                        System.currentTimeMillis() + expiresIn * 1000L);
             } catch (ParseException e){
                 throw new IOException("Failed to parse JSON response", e);
             }
@@ -77,139 +279,180 @@ public class SpotifyAPIClient {
         }
     }
 
-    private void ensureValidToken() throws IOException {
-        if (accessToken == null || System.currentTimeMillis() >= tokenExpirationTime) {
-            authenticate();
-        }
+    private String ensureValidToken() throws IOException {
+        return tokenManager.getToken();
     }
 
     /**
      * Search for tracks by query string
      */
+    @Override
     public List<Track> searchTracks(String query, int limit) throws IOException {
-        ensureValidToken();
+        return await(searchTracksAsync(query, limit));
+    }
+
+    @Override
+    public List<Track> searchTracks(String query, int limit, Deadline deadline) throws IOException {
+        deadline.check("search");
+        return await(searchTracksAsync(query, limit, deadline.laneOr(RequestScheduler.Lane.SEARCH)), deadline);
+    }
 
+    /**
+     * Search for tracks without blocking the calling thread
+     */
+    public CompletableFuture<List<Track>> searchTracksAsync(String query, int limit) {
+        return searchTracksAsync(query, limit, RequestScheduler.Lane.SEARCH);
+    }
+
+    /**
+     * Search for tracks, queued in the lane of the traffic the search serves
+     */
+    public CompletableFuture<List<Track>> searchTracksAsync(String query, int limit, RequestScheduler.Lane lane) {
         String encodedQuery = URLEncoder.encode(query, StandardCharsets.UTF_8);
         String url = String.format("%s/search?q=%s&type=track&limit=%d",
                 Config.API_BASE_URL, encodedQuery, limit);
 
-        HttpGet httpGet = new HttpGet(url);
-        httpGet.setHeader("Authorization", "Bearer " + accessToken);
-
-        try (CloseableHttpResponse response = httpClient.execute(httpGet)) {
-            try{
-                String jsonResponse = EntityUtils.toString(response.getEntity());
-                return parseTracksFromSearchResponse(jsonResponse);
-            } catch (ParseException e){
-                throw new IOException("Failed to parse JSON response", e);
-            }
-
-        }
+        return trackFlights.execute(url, () -> parse(getAsync(url, lane, "search"),
+                this::parseTracksFromSearchResponse));
     }
 
     /**
      * Search for Artist's top tracks
      */
+    @Override
     public List<Track> getArtistsTopTracks(String artistID) throws IOException {
-        ensureValidToken();
-
-        List<Track> tracks = new ArrayList<>();
-
-        String url = String.format("%s/artists/%s/top-tracks?market=US", Config.API_BASE_URL, artistID);
-
-        HttpGet httpGet = new HttpGet(url);
-        httpGet.setHeader("Authorization", "Bearer " + accessToken);
+        return await(getArtistsTopTracksAsync(artistID));
+    }
 
-        try (CloseableHttpResponse response = httpClient.execute(httpGet)) {
-            try {
-                String jsonResponse = EntityUtils.toString(response.getEntity());
-                JsonObject root = JsonParser.parseString(jsonResponse).getAsJsonObject();
+    @Override
+    public List<Track> getArtistsTopTracks(String artistID, Deadline deadline) throws IOException {
+        deadline.check("top tracks");
+        return await(getArtistsTopTracksAsync(artistID, deadline.laneOr(RequestScheduler.Lane.RECOMMEND)), deadline);
+    }
 
-                if (!root.has("tracks")) {
-                    return tracks;
-                }
+    public CompletableFuture<List<Track>> getArtistsTopTracksAsync(String artistID) {
+        return getArtistsTopTracksAsync(artistID, RequestScheduler.Lane.RECOMMEND);
+    }
 
-                JsonArray items = root.getAsJsonArray("tracks");
+    public CompletableFuture<List<Track>> getArtistsTopTracksAsync(String artistID, RequestScheduler.Lane lane) {
+        String url = String.format("%s/artists/%s/top-tracks?market=US", Config.API_BASE_URL, artistID);
 
-                for (JsonElement element : items) {
-                    JsonObject item = element.getAsJsonObject();
-                    Track track = parseTrackFromJson(item);
-                    tracks.add(track);
-                }
+        return trackFlights.execute(url, () -> parse(getAsync(url, lane, "top-tracks"),
+                this::parseTracksFromTopTracksResponse));
+    }
 
-                return tracks;
+    @Override
+    public String getArtistID(String artist) throws IOException {
+        return await(getArtistIDAsync(artist));
+    }
 
-            } catch (ParseException e) {
-                throw new IOException("Failed to parse JSON response", e);
-            }
-        }
+    @Override
+    public String getArtistID(String artist, Deadline deadline) throws IOException {
+        deadline.check("artist lookup");
+        return await(getArtistIDAsync(artist, deadline.laneOr(RequestScheduler.Lane.RECOMMEND)), deadline);
     }
 
-    public String getArtistID(String artist) throws IOException {
-        ensureValidToken();
+    public CompletableFuture<String> getArtistIDAsync(String artist) {
+        return getArtistIDAsync(artist, RequestScheduler.Lane.RECOMMEND);
+    }
 
+    public CompletableFuture<String> getArtistIDAsync(String artist, RequestScheduler.Lane lane) {
         String encodedQuery = URLEncoder.encode(artist, StandardCharsets.UTF_8);
         String url = String.format("%s/search?q=%s&type=artist&limit=%d",
                 Config.API_BASE_URL, encodedQuery, Config.TRACK_POOL_SIZE);
 
-        HttpGet httpGet = new HttpGet(url);
-        httpGet.setHeader("Authorization", "Bearer " + accessToken);
+        return artistIdFlights.execute(url, () -> parse(getAsync(url, lane, "artist-search"),
+                this::parseArtistIDFromSearchResponse));
+    }
 
-        try (CloseableHttpResponse response = httpClient.execute(httpGet)) {
-            try{
-                String jsonResponse = EntityUtils.toString(response.getEntity());
-                JsonObject root = JsonParser.parseString(jsonResponse).getAsJsonObject();
+    @Override
+    public List<String> getRelatedArtistIDs(String artistID) throws IOException {
+        return await(getRelatedArtistIDsAsync(artistID));
+    }
 
-                if (!root.has("artists")) {
-                    return "No Artist Found";
-                }
+    @Override
+    public List<String> getRelatedArtistIDs(String artistID, Deadline deadline) throws IOException {
+        deadline.check("related artists");
+        return await(getRelatedArtistIDsAsync(artistID, deadline.laneOr(RequestScheduler.Lane.RECOMMEND)), deadline);
+    }
 
-                JsonObject item = root.getAsJsonObject("artists").getAsJsonArray("items").get(0).getAsJsonObject();
+    public CompletableFuture<List<String>> getRelatedArtistIDsAsync(String artistID) {
+        return getRelatedArtistIDsAsync(artistID, RequestScheduler.Lane.RECOMMEND);
+    }
 
-                return item.get("id").getAsString();
+    public CompletableFuture<List<String>> getRelatedArtistIDsAsync(String artistID, RequestScheduler.Lane lane) {
+        String url = String.format("%s/artists/%s/related-artists", Config.API_BASE_URL, artistID);
 
-            } catch (ParseException e){
-                throw new IOException("Failed to parse JSON response", e);
-            }
+        return relatedArtistFlights.execute(url, () -> parse(getAsync(url, lane, "related-artists"),
+                this::parseRelatedArtistIDs));
+    }
 
-        }
+    @Override
+    public Track getTrack(String trackID) throws IOException {
+        return await(getTrackAsync(trackID));
     }
 
-    public String getDeviceID(String name) {
-        return deviceName.get(name);
+    @Override
+    public Track getTrack(String trackID, Deadline deadline) throws IOException {
+        deadline.check("track lookup");
+        return await(getTrackAsync(trackID), deadline);
     }
 
-    public String[] getDeviceName(String token) throws IOException {
-        ensureValidToken();
+    /**
+     * One track by ID, fetched together with other lookups made around the same time
+     */
+    public CompletableFuture<Track> getTrackAsync(String trackID) {
+        return trackBatcher.get(trackID);
+    }
 
-        String url = String.format("%s/me/player/devices", Config.API_BASE_URL);
+    @Override
+    public Artist getArtist(String artistID) throws IOException {
+        return await(getArtistAsync(artistID));
+    }
 
-        HttpGet httpGet = new HttpGet(url);
-        httpGet.setHeader("Authorization", "Bearer " + token);
+    @Override
+    public Artist getArtist(String artistID, Deadline deadline) throws IOException {
+        deadline.check("artist details");
+        return await(getArtistAsync(artistID), deadline);
+    }
 
-        try (CloseableHttpResponse response = httpClient.execute(httpGet)) {
-            try{
-                String jsonResponse = EntityUtils.toString(response.getEntity());
-                JsonObject root = JsonParser.parseString(jsonResponse).getAsJsonObject();
+    /**
+     * One artist by ID, fetched together with other lookups made around the same time
+     */
+    public CompletableFuture<Artist> getArtistAsync(String artistID) {
+        return artistBatcher.get(artistID);
+    }
 
-                JsonArray devices = root.getAsJsonArray("devices");
-                int deviceSize = devices.size();
+    private CompletableFuture<List<Track>> getTracksByIds(List<String> ids) {
+        String url = String.format("%s/tracks?ids=%s&market=US", Config.API_BASE_URL, joinIds(ids));
+        return parse(getAsync(url, RequestScheduler.Lane.RECOMMEND, "tracks"), this::parseTracksByIds);
+    }
 
-                String[] deviceNames = new String[deviceSize];
+    private CompletableFuture<List<Artist>> getArtistsByIds(List<String> ids) {
+        String url = String.format("%s/artists?ids=%s", Config.API_BASE_URL, joinIds(ids));
+        return parse(getAsync(url, RequestScheduler.Lane.RECOMMEND, "artists"), this::parseArtistsByIds);
+    }
 
-                for(int i = 0; i < deviceSize; i++) {
-                    JsonObject device = devices.get(i).getAsJsonObject();
-                    deviceNames[i] = device.get("name").getAsString();
-                    deviceName.put(deviceNames[i], device.get("id").getAsString());
-                }
+    private static String joinIds(List<String> ids) {
+        StringJoiner joined = new StringJoiner(",");
+        for (String id : ids) {
+            joined.add(URLEncoder.encode(id, StandardCharsets.UTF_8));
+        }
+        return joined.toString();
+    }
 
-                return deviceNames;
+    public String getDeviceID(String name) {
+        return deviceName.get(name);
+    }
 
-            } catch (ParseException e){
-                throw new IOException("Failed to parse JSON response", e);
-            }
+    public String[] getDeviceName(String token) throws IOException {
+        return await(getDeviceNameAsync(token));
+    }
 
-        }
+    public CompletableFuture<String[]> getDeviceNameAsync(String token) {
+        String url = String.format("%s/me/player/devices", Config.API_BASE_URL);
+
+        return getAsync(url, token, RequestScheduler.Lane.SEARCH, "devices").thenApply(this::parseDeviceNames);
     }
 
     public void playSong(String deviceID, String songID, String token) throws IOException {
@@ -228,7 +471,8 @@ public class SpotifyAPIClient {
 
         try (CloseableHttpResponse response = httpClient.execute(httpPut)) {
             int status = response.getCode();
-            System.out.println("Status: " + status);
+            EntityUtils.consume(response.getEntity());
+            log.debug("Playback request returned {}", status);
         }
     }
 
@@ -245,54 +489,264 @@ public class SpotifyAPIClient {
 
         try (CloseableHttpResponse response = httpClient.execute(httpPut)) {
             int status = response.getCode();
-            System.out.println("Status: " + status);
+            EntityUtils.consume(response.getEntity());
+            log.debug("Playback request returned {}", status);
         }
     }
 
 
     /**
-     * Parse Track objects from JSON search response
+     * Queue a GET with the app's access token, read afresh for every attempt so a retry
+     * made after the token was refreshed does not send the expired one
+     */
+    private CompletableFuture<byte[]> getAsync(String url, RequestScheduler.Lane lane, String endpoint) {
+        return submit(lane, endpoint, () -> authorizedGet(url, endpoint));
+    }
+
+    /**
+     * Queue a GET with a token supplied by the caller (a user token)
+     */
+    private CompletableFuture<byte[]> getAsync(String url, String token,
+                                               RequestScheduler.Lane lane, String endpoint) {
+        return submit(lane, endpoint, () -> timedGet(url, token, endpoint));
+    }
+
+    /**
+     * Queue a GET on the rate-limit scheduler and return the response body. Cancelling the
+     * returned future, or completing it exceptionally (e.g. via orTimeout), aborts the request.
+     */
+    private CompletableFuture<byte[]> submit(RequestScheduler.Lane lane, String endpoint,
+                                             Supplier<CompletableFuture<SimpleHttpResponse>> attempt) {
+        CompletableFuture<SimpleHttpResponse> response = scheduler.submit(lane, endpoint, attempt);
+        CompletableFuture<byte[]> body = response.thenApply(SimpleHttpResponse::getBodyBytes);
+
+        body.whenComplete((bytes, error) -> {
+            if (error != null) {
+                response.cancel(true);
+            }
+        });
+
+        return body;
+    }
+
+    /**
+     * One attempt with the current access token. Runs on the scheduler's dispatcher, so it never
+     * waits for a refresh: while the token is valid the GET starts at once, otherwise when the
+     * refresh thread has fetched a new one.
+     */
+    private CompletableFuture<SimpleHttpResponse> authorizedGet(String url, String endpoint) {
+        CompletableFuture<SimpleHttpResponse> result = new CompletableFuture<>();
+        tokenManager.getTokenAsync().whenComplete((token, error) -> {
+            if (error != null) {
+                result.completeExceptionally(error instanceof CompletionException && error.getCause() != null
+                        ? error.getCause() : error);
+                return;
+            }
+            if (result.isDone()) {
+                return;
+            }
+            CompletableFuture<SimpleHttpResponse> exchange = timedGet(url, token, endpoint);
+            result.whenComplete((response, failure) -> {
+                if (failure != null) {
+                    exchange.cancel(true);
+                }
+            });
+            exchange.whenComplete((response, failure) -> {
+                if (failure != null) {
+                    result.completeExceptionally(failure);
+                } else {
+                    result.complete(response);
+                }
+            });
+        });
+        return result;
+    }
+
+    /**
+     * Parse a response body; failing or cancelling the parsed future cancels the request behind it
+     */
+    private static <T> CompletableFuture<T> parse(CompletableFuture<byte[]> body, Function<byte[], T> parser) {
+        CompletableFuture<T> parsed = body.thenApply(parser);
+        parsed.whenComplete((value, error) -> {
+            if (error != null) {
+                body.cancel(true);
+            }
+        });
+        return parsed;
+    }
+
+    /**
+     * One GET attempt, timed per endpoint (rate-limit queueing and retries are not included)
+     */
+    private CompletableFuture<SimpleHttpResponse> timedGet(String url, String token, String endpoint) {
+        LatencyHistogram latency = METRICS.histogram("recommender_spotify_request_seconds",
+                "Time of one Spotify HTTP exchange, by endpoint", "endpoint", endpoint);
+        long start = System.nanoTime();
+
+        CompletableFuture<SimpleHttpResponse> exchange = executeGet(url, token);
+        exchange.whenComplete((response, error) -> {
+            latency.record(System.nanoTime() - start);
+            if (error != null || response.getCode() >= 400) {
+                METRICS.counter("recommender_spotify_errors_total",
+                        "Spotify exchanges that failed or returned 4xx/5xx, by endpoint", "endpoint", endpoint)
+                        .increment();
+            }
+        });
+        return exchange;
+    }
+
+    /**
+     * Issue a single GET on the async client
+     */
+    private CompletableFuture<SimpleHttpResponse> executeGet(String url, String token) {
+        CompletableFuture<SimpleHttpResponse> result = new CompletableFuture<>();
+
+        SimpleHttpRequest request = SimpleRequestBuilder.get(url)
+                .setHeader("Authorization", "Bearer " + token)
+                .build();
+
+        Future<SimpleHttpResponse> exchange = asyncClient.execute(request, new FutureCallback<>() {
+            @Override
+            public void completed(SimpleHttpResponse response) {
+                result.complete(response);
+            }
+
+            @Override
+            public void failed(Exception e) {
+                result.completeExceptionally(e);
+            }
+
+            @Override
+            public void cancelled() {
+                result.cancel(false);
+            }
+        });
+
+        result.whenComplete((response, error) -> {
+            if (error != null) {
+                exchange.cancel(true);
+            }
+        });
+
+        return result;
+    }
+
+    /**
+     * Wait for an async call, unwrapping failures into the IOExceptions the blocking API has always thrown
+     */
+    private static <T> T await(CompletableFuture<T> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for Spotify API");
+        } catch (ExecutionException e) {
+            throw unwrap(e);
+        }
+    }
+
+    /**
+     * Wait no longer than the deadline allows, then cancel the call (and, unless another caller
+     * still shares it, its HTTP exchange)
      */
-    private List<Track> parseTracksFromSearchResponse(String jsonResponse) {
-        List<Track> tracks = new ArrayList<>();
-        JsonObject root = JsonParser.parseString(jsonResponse).getAsJsonObject();
+    private static <T> T await(CompletableFuture<T> future, Deadline deadline) throws IOException {
+        if (!deadline.isBounded()) {
+            return await(future);
+        }
+        try {
+            return future.get(deadline.remainingMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            throw new DeadlineExceededException("Deadline exceeded waiting for Spotify API");
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for Spotify API");
+        } catch (ExecutionException e) {
+            throw unwrap(e);
+        }
+    }
+
+    private static IOException unwrap(ExecutionException e) {
+        Throwable cause = e.getCause();
+        if (cause instanceof IOException) {
+            return (IOException) cause;
+        }
+        if (cause instanceof UncheckedIOException) {
+            return ((UncheckedIOException) cause).getCause();
+        }
+        return new IOException("Spotify API call failed: " + cause.getMessage(), cause);
+    }
 
-        if (!root.has("tracks")) {
-            return tracks;
+    /**
+     * Parse Track objects from JSON search response
+     */
+    private List<Track> parseTracksFromSearchResponse(byte[] body) {
+        try {
+            return SpotifyJsonParser.parseSearchTracks(body);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to parse JSON response", e);
         }
+    }
 
-        JsonArray items = root.getAsJsonObject("tracks").getAsJsonArray("items");
+    private List<Track> parseTracksFromTopTracksResponse(byte[] body) {
+        try {
+            return SpotifyJsonParser.parseTopTracks(body);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to parse JSON response", e);
+        }
+    }
 
-        for (JsonElement element : items) {
-            JsonObject item = element.getAsJsonObject();
-            Track track = parseTrackFromJson(item);
-            tracks.add(track);
+    private List<Track> parseTracksByIds(byte[] body) {
+        try {
+            return SpotifyJsonParser.parseTracksByIds(body);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to parse JSON response", e);
         }
+    }
 
-        return tracks;
+    private List<Artist> parseArtistsByIds(byte[] body) {
+        try {
+            return SpotifyJsonParser.parseArtistsByIds(body);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to parse JSON response", e);
+        }
     }
 
-    private Track parseTrackFromJson(JsonObject json) {
-        String id = json.get("id").getAsString();
-        String name = json.get("name").getAsString();
+    private String parseArtistIDFromSearchResponse(byte[] body) {
+        try {
+            String artistId = SpotifyJsonParser.parseFirstArtistId(body);
+            return artistId != null ? artistId : "No Artist Found";
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to parse JSON response", e);
+        }
+    }
 
-        List<String> artists = new ArrayList<>();
-        JsonArray artistsArray = json.getAsJsonArray("artists");
-        for (JsonElement artistElement : artistsArray) {
-            artists.add(artistElement.getAsJsonObject().get("name").getAsString());
+    private List<String> parseRelatedArtistIDs(byte[] body) {
+        try {
+            return SpotifyJsonParser.parseArtistIds(body);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to parse JSON response", e);
         }
+    }
 
-        String albumName = json.getAsJsonObject("album").get("name").getAsString();
+    private String[] parseDeviceNames(byte[] body) {
+        List<String[]> devices;
+        try {
+            devices = SpotifyJsonParser.parseDevices(body);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to parse JSON response", e);
+        }
 
-        Track track = new Track(id, name, artists, albumName);
-        track.setDurationMs(json.get("duration_ms").getAsInt());
-        track.setPopularity(json.get("popularity").getAsInt());
+        String[] deviceNames = new String[devices.size()];
 
-        if (json.has("preview_url") && !json.get("preview_url").isJsonNull()) {
-            track.setPreviewUrl(json.get("preview_url").getAsString());
+        for(int i = 0; i < deviceNames.length; i++) {
+            deviceNames[i] = devices.get(i)[0];
+            deviceName.put(deviceNames[i], devices.get(i)[1]);
         }
 
-        return track;
+        return deviceNames;
     }
 
 
@@ -300,5 +754,11 @@ public class SpotifyAPIClient {
         if (httpClient != null) {
             httpClient.close();
         }
+        if (asyncClient != null) {
+            asyncClient.close(CloseMode.GRACEFUL);
+        }
+        tokenManager.close();
+        scheduler.close();
+        batchTimer.shutdownNow();
     }
 }
\ No newline at end of file
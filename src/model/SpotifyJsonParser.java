@@ -0,0 +1,404 @@
+package model;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Streaming parser for Spotify Web API responses.
+ * Reads the body token by token and builds Tracks directly, skipping the parts we
+ * never use (available_markets, images, external URLs...) without materializing them.
+ */
+public final class SpotifyJsonParser {
+
+    private SpotifyJsonParser() {
+    }
+
+    /**
+     * Tracks from a /search?type=track response: {"tracks": {"items": [...]}}
+     */
+    public static List<Track> parseSearchTracks(byte[] body) throws IOException {
+        List<Track> tracks = new ArrayList<>();
+        if (body == null || body.length == 0) {
+            return tracks;
+        }
+
+        try (JsonReader in = reader(body)) {
+            in.beginObject();
+            while (in.hasNext()) {
+                if (in.nextName().equals("tracks")) {
+                    readItems(in, tracks);
+                } else {
+                    in.skipValue();
+                }
+            }
+        }
+        return tracks;
+    }
+
+    /**
+     * Tracks from an /artists/{id}/top-tracks response: {"tracks": [...]}
+     */
+    public static List<Track> parseTopTracks(byte[] body) throws IOException {
+        List<Track> tracks = new ArrayList<>();
+        if (body == null || body.length == 0) {
+            return tracks;
+        }
+
+        try (JsonReader in = reader(body)) {
+            in.beginObject();
+            while (in.hasNext()) {
+                if (in.nextName().equals("tracks")) {
+                    readTrackArray(in, tracks);
+                } else {
+                    in.skipValue();
+                }
+            }
+        }
+        return tracks;
+    }
+
+    /**
+     * Tracks from a /tracks?ids= response: {"tracks": [...]}, one per requested ID in request
+     * order, with null for IDs Spotify does not know
+     */
+    public static List<Track> parseTracksByIds(byte[] body) throws IOException {
+        List<Track> tracks = new ArrayList<>();
+        if (body == null || body.length == 0) {
+            return tracks;
+        }
+
+        try (JsonReader in = reader(body)) {
+            in.beginObject();
+            while (in.hasNext()) {
+                if (!in.nextName().equals("tracks")) {
+                    in.skipValue();
+                    continue;
+                }
+
+                in.beginArray();
+                while (in.hasNext()) {
+                    if (in.peek() == JsonToken.NULL) {
+                        in.nextNull();
+                        tracks.add(null);
+                    } else {
+                        tracks.add(readTrack(in));
+                    }
+                }
+                in.endArray();
+            }
+        }
+        return tracks;
+    }
+
+    /**
+     * Artists from an /artists?ids= response: {"artists": [...]}, one per requested ID in request
+     * order, with null for IDs Spotify does not know
+     */
+    public static List<Artist> parseArtistsByIds(byte[] body) throws IOException {
+        List<Artist> artists = new ArrayList<>();
+        if (body == null || body.length == 0) {
+            return artists;
+        }
+
+        try (JsonReader in = reader(body)) {
+            in.beginObject();
+            while (in.hasNext()) {
+                if (!in.nextName().equals("artists")) {
+                    in.skipValue();
+                    continue;
+                }
+
+                in.beginArray();
+                while (in.hasNext()) {
+                    if (in.peek() == JsonToken.NULL) {
+                        in.nextNull();
+                        artists.add(null);
+                    } else {
+                        artists.add(readArtist(in));
+                    }
+                }
+                in.endArray();
+            }
+        }
+        return artists;
+    }
+
+    /**
+     * ID of the first artist in a /search?type=artist response, or null if there is none
+     */
+    public static String parseFirstArtistId(byte[] body) throws IOException {
+        if (body == null || body.length == 0) {
+            return null;
+        }
+
+        String artistId = null;
+        try (JsonReader in = reader(body)) {
+            in.beginObject();
+            while (in.hasNext()) {
+                if (!in.nextName().equals("artists")) {
+                    in.skipValue();
+                    continue;
+                }
+
+                in.beginObject();
+                while (in.hasNext()) {
+                    if (!in.nextName().equals("items")) {
+                        in.skipValue();
+                        continue;
+                    }
+
+                    in.beginArray();
+                    while (in.hasNext()) {
+                        if (artistId == null) {
+                            artistId = readStringField(in, "id");
+                        } else {
+                            in.skipValue();
+                        }
+                    }
+                    in.endArray();
+                }
+                in.endObject();
+            }
+        }
+        return artistId;
+    }
+
+    /**
+     * IDs of the artists in an /artists/{id}/related-artists response: {"artists": [...]}
+     */
+    public static List<String> parseArtistIds(byte[] body) throws IOException {
+        List<String> ids = new ArrayList<>();
+        if (body == null || body.length == 0) {
+            return ids;
+        }
+
+        try (JsonReader in = reader(body)) {
+            in.beginObject();
+            while (in.hasNext()) {
+                if (!in.nextName().equals("artists")) {
+                    in.skipValue();
+                    continue;
+                }
+
+                in.beginArray();
+                while (in.hasNext()) {
+                    String id = readStringField(in, "id");
+                    if (id != null) {
+                        ids.add(id);
+                    }
+                }
+                in.endArray();
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * Names and IDs of the devices in a /me/player/devices response, as {name, id} pairs
+     */
+    public static List<String[]> parseDevices(byte[] body) throws IOException {
+        List<String[]> devices = new ArrayList<>();
+        if (body == null || body.length == 0) {
+            return devices;
+        }
+
+        try (JsonReader in = reader(body)) {
+            in.beginObject();
+            while (in.hasNext()) {
+                if (!in.nextName().equals("devices")) {
+                    in.skipValue();
+                    continue;
+                }
+
+                in.beginArray();
+                while (in.hasNext()) {
+                    String name = null;
+                    String id = null;
+                    in.beginObject();
+                    while (in.hasNext()) {
+                        switch (in.nextName()) {
+                            case "name":
+                                name = nextNullableString(in);
+                                break;
+                            case "id":
+                                id = nextNullableString(in);
+                                break;
+                            default:
+                                in.skipValue();
+                        }
+                    }
+                    in.endObject();
+                    devices.add(new String[]{name, id});
+                }
+                in.endArray();
+            }
+        }
+        return devices;
+    }
+
+    /**
+     * Read one track object
+     */
+    public static Track readTrack(JsonReader in) throws IOException {
+        String id = null;
+        String name = null;
+        String albumName = null;
+        String previewUrl = null;
+        int durationMs = 0;
+        int popularity = 0;
+        List<String> artists = new ArrayList<>(2);
+
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "id":
+                    id = nextNullableString(in);
+                    break;
+                case "name":
+                    name = nextNullableString(in);
+                    break;
+                case "duration_ms":
+                    durationMs = in.nextInt();
+                    break;
+                case "popularity":
+                    popularity = in.nextInt();
+                    break;
+                case "preview_url":
+                    previewUrl = nextNullableString(in);
+                    break;
+                case "artists":
+                    in.beginArray();
+                    while (in.hasNext()) {
+                        artists.add(readStringField(in, "name"));
+                    }
+                    in.endArray();
+                    break;
+                case "album":
+                    albumName = readStringField(in, "name");
+                    break;
+                default:
+                    in.skipValue();
+            }
+        }
+        in.endObject();
+
+        Track track = new Track(id, name, artists, albumName);
+        track.setDurationMs(durationMs);
+        track.setPopularity(popularity);
+        track.setPreviewUrl(previewUrl);
+        return track;
+    }
+
+    /**
+     * Read one full artist object
+     */
+    public static Artist readArtist(JsonReader in) throws IOException {
+        String id = null;
+        String name = null;
+        int popularity = 0;
+        int followers = 0;
+        List<String> genres = new ArrayList<>(2);
+
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "id":
+                    id = nextNullableString(in);
+                    break;
+                case "name":
+                    name = nextNullableString(in);
+                    break;
+                case "popularity":
+                    popularity = in.nextInt();
+                    break;
+                case "genres":
+                    in.beginArray();
+                    while (in.hasNext()) {
+                        genres.add(in.nextString());
+                    }
+                    in.endArray();
+                    break;
+                case "followers":
+                    in.beginObject();
+                    while (in.hasNext()) {
+                        if (in.nextName().equals("total") && in.peek() != JsonToken.NULL) {
+                            followers = in.nextInt();
+                        } else {
+                            in.skipValue();
+                        }
+                    }
+                    in.endObject();
+                    break;
+                default:
+                    in.skipValue();
+            }
+        }
+        in.endObject();
+
+        Artist artist = new Artist(id, name, genres);
+        artist.setPopularity(popularity);
+        artist.setFollowers(followers);
+        return artist;
+    }
+
+    private static void readItems(JsonReader in, List<Track> tracks) throws IOException {
+        in.beginObject();
+        while (in.hasNext()) {
+            if (in.nextName().equals("items")) {
+                readTrackArray(in, tracks);
+            } else {
+                in.skipValue();
+            }
+        }
+        in.endObject();
+    }
+
+    private static void readTrackArray(JsonReader in, List<Track> tracks) throws IOException {
+        in.beginArray();
+        while (in.hasNext()) {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+            } else {
+                tracks.add(readTrack(in));
+            }
+        }
+        in.endArray();
+    }
+
+    /**
+     * Read an object and return one of its string fields, skipping everything else
+     */
+    private static String readStringField(JsonReader in, String field) throws IOException {
+        String value = null;
+        in.beginObject();
+        while (in.hasNext()) {
+            if (in.nextName().equals(field)) {
+                value = nextNullableString(in);
+            } else {
+                in.skipValue();
+            }
+        }
+        in.endObject();
+        return value;
+    }
+
+    private static String nextNullableString(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        return in.nextString();
+    }
+
+    private static JsonReader reader(byte[] body) {
+        return new JsonReader(new InputStreamReader(new ByteArrayInputStream(body), UTF_8));
+    }
+}
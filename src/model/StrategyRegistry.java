@@ -0,0 +1,73 @@
+package model;
+
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Recommendation strategies by short name ("artist", "popularity", ...), shared by every
+ * connection so that a strategy's warm state (its index, hit counters) is built once.
+ * Strategies must therefore be thread-safe; the built-in ones keep no per-request fields.
+ */
+public class StrategyRegistry {
+    public static final String ARTIST = "artist";
+    public static final String POPULARITY = "popularity";
+    public static final String PARALLEL = "parallel";
+    public static final String INDEXED = "indexed";
+    public static final String SCORED = "scored";
+
+    private final ConcurrentHashMap<String, RecommendationStrategy> strategies = new ConcurrentHashMap<>();
+
+    /**
+     * The built-in strategies, plus "indexed" when an offline artist index is available
+     *
+     * @param artistIndex Index built by ArtistIndexBuilder, or null
+     */
+    public static StrategyRegistry standard(ArtistIndex artistIndex) {
+        return standard(artistIndex, ScoringPipeline.standard());
+    }
+
+    /**
+     * @param scoring Pipeline behind the "scored" strategy
+     */
+    public static StrategyRegistry standard(ArtistIndex artistIndex, ScoringPipeline scoring) {
+        StrategyRegistry registry = new StrategyRegistry();
+        registry.register(ARTIST, new ArtistSimilarityStrategy());
+        registry.register(POPULARITY, new PopularityBasedStrategy());
+        registry.register(PARALLEL, new ParallelArtistStrategy());
+        registry.register(SCORED, new ScoredStrategy(scoring));
+        if (artistIndex != null) {
+            registry.register(INDEXED, new IndexedSimilarityStrategy(artistIndex));
+        }
+        return registry;
+    }
+
+    /**
+     * Add a strategy, replacing any registered under the same name
+     */
+    public void register(String name, RecommendationStrategy strategy) {
+        strategies.put(name, strategy);
+    }
+
+    /**
+     * The strategy registered under this name, or null
+     */
+    public RecommendationStrategy get(String name) {
+        return strategies.get(name);
+    }
+
+    /**
+     * Like get, but an unknown name is an error
+     */
+    public RecommendationStrategy require(String name) {
+        RecommendationStrategy strategy = strategies.get(name);
+        if (strategy == null) {
+            throw new IllegalArgumentException("Unknown strategy: " + name + " (known: " + getNames() + ")");
+        }
+        return strategy;
+    }
+
+    public Set<String> getNames() {
+        return new TreeSet<>(strategies.keySet());
+    }
+}
@@ -0,0 +1,306 @@
+package model;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.ToIntFunction;
+import java.util.function.UnaryOperator;
+
+/**
+ * Two-tier cache: a weight-bounded LRU map in the heap backed by an optional DiskCacheTier.
+ * Disk writes run on the refresh executor, and an entry evicted from the heap loses its file too,
+ * so the disk tier holds no more than the heap does (plus whatever it kept from earlier runs).
+ *
+ * Entries are fresh for ttlMs. For a further staleMs they are still served, but a background
+ * reload is started (stale-while-revalidate) so callers never wait on a popular key.
+ */
+public class TieredCache<V> {
+    private static final Logger log = LoggerFactory.getLogger(TieredCache.class);
+
+
+    /**
+     * Fetches the value for a key on a miss
+     */
+    @FunctionalInterface
+    public interface Loader<V> {
+        V load() throws IOException;
+    }
+
+    private static final class Entry<V> {
+        final V value;
+        final long writtenAt;
+        final int weight;
+
+        Entry(V value, long writtenAt, int weight) {
+            this.value = value;
+            this.writtenAt = writtenAt;
+            this.weight = weight;
+        }
+    }
+
+    private final String name;
+    private final long ttlMs;
+    private final long staleMs;
+    private final long maxWeight;
+    private final ToIntFunction<V> weigher;
+    private final Type valueType;
+    private final DiskCacheTier diskTier;
+    private final Executor refreshExecutor;
+    private final UnaryOperator<V> freeze;
+
+    // Access-ordered so iteration starts at the least recently used entry
+    private final LinkedHashMap<String, Entry<V>> entries = new LinkedHashMap<>(64, 0.75f, true);
+    private long totalWeight;
+    private final Set<String> refreshing = ConcurrentHashMap.newKeySet();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder staleHits = new LongAdder();
+    private final LongAdder diskHits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * @param name Name used in log output
+     * @param ttlMs How long an entry is served without reloading
+     * @param staleMs How long past the TTL an entry may still be served while it is reloaded
+     * @param maxWeight Upper bound on the summed weight of in-heap entries
+     * @param weigher Weight of a single value (e.g. number of tracks)
+     * @param valueType Type used to read values back from disk
+     * @param diskTier Optional on-disk tier, may be null
+     * @param refreshExecutor Runs stale-while-revalidate reloads and disk writes
+     */
+    public TieredCache(String name, long ttlMs, long staleMs, long maxWeight, ToIntFunction<V> weigher,
+                       Type valueType, DiskCacheTier diskTier, Executor refreshExecutor) {
+        this(name, ttlMs, staleMs, maxWeight, weigher, valueType, diskTier, refreshExecutor, UnaryOperator.identity());
+    }
+
+    /**
+     * @param freeze Applied to every value before it is stored, loaded or read from disk (e.g. List::copyOf),
+     *               so the one instance handed to every caller cannot be changed by any of them
+     */
+    public TieredCache(String name, long ttlMs, long staleMs, long maxWeight, ToIntFunction<V> weigher,
+                       Type valueType, DiskCacheTier diskTier, Executor refreshExecutor, UnaryOperator<V> freeze) {
+        this.name = name;
+        this.ttlMs = ttlMs;
+        this.staleMs = staleMs;
+        this.maxWeight = maxWeight;
+        this.weigher = weigher;
+        this.valueType = valueType;
+        this.diskTier = diskTier;
+        this.refreshExecutor = refreshExecutor;
+        this.freeze = freeze;
+    }
+
+    /**
+     * Return the cached value for a key, loading it on a miss
+     */
+    public V get(String key, Loader<V> loader) throws IOException {
+        return get(key, loader, loader);
+    }
+
+    /**
+     * As get(key, loader), but stale entries are refreshed with refresher: the caller's loader
+     * may be bound to its request (e.g. a Deadline) while the background refresh is not
+     */
+    public V get(String key, Loader<V> loader, Loader<V> refresher) throws IOException {
+        long now = System.currentTimeMillis();
+        Entry<V> entry = lookup(key);
+
+        if (entry == null && diskTier != null) {
+            entry = readFromDisk(key, now);
+        }
+
+        if (entry != null) {
+            long age = now - entry.writtenAt;
+            if (age < ttlMs) {
+                hits.increment();
+                return entry.value;
+            }
+            if (age < ttlMs + staleMs) {
+                staleHits.increment();
+                refreshInBackground(key, refresher);
+                return entry.value;
+            }
+        }
+
+        misses.increment();
+        V value = freeze.apply(loader.load());
+        put(key, value, System.currentTimeMillis());
+        return value;
+    }
+
+    /**
+     * The in-heap value for a key if it is still fresh, else null. Loads nothing and counts
+     * neither a hit nor a miss, so callers that decide for themselves whether the value will do
+     * (e.g. it must cover a request) can keep their own statistics.
+     */
+    public V getIfFresh(String key) {
+        Entry<V> entry = lookup(key);
+        if (entry == null || System.currentTimeMillis() - entry.writtenAt >= ttlMs) {
+            return null;
+        }
+        return entry.value;
+    }
+
+    public void put(String key, V value, long writtenAt) {
+        V frozen = freeze.apply(value);
+        store(key, new Entry<>(frozen, writtenAt, Math.max(1, weigher.applyAsInt(frozen))));
+        if (diskTier != null) {
+            writeToDisk(key, frozen, writtenAt);
+        }
+    }
+
+    private void writeToDisk(String key, V value, long writtenAt) {
+        try {
+            refreshExecutor.execute(() -> {
+                // Skip entries evicted or invalidated while the write was queued
+                synchronized (entries) {
+                    if (!entries.containsKey(key)) {
+                        return;
+                    }
+                }
+                diskTier.write(key, value, writtenAt);
+            });
+        } catch (RejectedExecutionException e) {
+            log.debug("[{} cache] Not writing {} to disk, executor is shut down", name, key);
+        }
+    }
+
+    public void invalidate(String key) {
+        synchronized (entries) {
+            Entry<V> removed = entries.remove(key);
+            if (removed != null) {
+                totalWeight -= removed.weight;
+            }
+        }
+        if (diskTier != null) {
+            diskTier.remove(key);
+        }
+    }
+
+    private Entry<V> lookup(String key) {
+        synchronized (entries) {
+            return entries.get(key);
+        }
+    }
+
+    private Entry<V> readFromDisk(String key, long now) {
+        DiskCacheTier.Stored<V> stored = diskTier.read(key, valueType);
+        if (stored == null) {
+            return null;
+        }
+        if (now - stored.getWrittenAt() >= ttlMs + staleMs) {
+            diskTier.remove(key);
+            return null;
+        }
+
+        diskHits.increment();
+        V value = freeze.apply(stored.getValue());
+        Entry<V> entry = new Entry<>(value, stored.getWrittenAt(), Math.max(1, weigher.applyAsInt(value)));
+        store(key, entry);
+        return entry;
+    }
+
+    private void store(String key, Entry<V> entry) {
+        List<String> evicted = new ArrayList<>();
+        synchronized (entries) {
+            Entry<V> previous = entries.put(key, entry);
+            if (previous != null) {
+                totalWeight -= previous.weight;
+            }
+            totalWeight += entry.weight;
+
+            Iterator<Map.Entry<String, Entry<V>>> eldest = entries.entrySet().iterator();
+            while (totalWeight > maxWeight && eldest.hasNext()) {
+                Map.Entry<String, Entry<V>> victim = eldest.next();
+                if (victim.getKey().equals(key)) {
+                    continue;
+                }
+                totalWeight -= victim.getValue().weight;
+                eldest.remove();
+                evictions.increment();
+                evicted.add(victim.getKey());
+            }
+        }
+
+        if (diskTier != null) {
+            evicted.forEach(diskTier::remove);
+        }
+    }
+
+    private void refreshInBackground(String key, Loader<V> loader) {
+        if (!refreshing.add(key)) {
+            return;
+        }
+
+        refreshExecutor.execute(() -> {
+            try {
+                put(key, loader.load(), System.currentTimeMillis());
+            } catch (IOException | RuntimeException e) {
+                log.warn("[{} cache] Refresh of {} failed: {}", name, key, e.getMessage());
+            } finally {
+                refreshing.remove(key);
+            }
+        });
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * Requests answered with an expired entry while it was reloaded in the background
+     */
+    public long getStaleHits() {
+        return staleHits.sum();
+    }
+
+    /**
+     * Heap misses that were answered from the disk tier
+     */
+    public long getDiskHits() {
+        return diskHits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    public long getWeight() {
+        synchronized (entries) {
+            return totalWeight;
+        }
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s: hits=%d stale=%d disk=%d misses=%d evictions=%d size=%d weight=%d",
+                name, getHits(), getStaleHits(), getDiskHits(), getMisses(), getEvictions(), size(), getWeight());
+    }
+}
@@ -0,0 +1,50 @@
+package model;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token-bucket rate limiter: holds up to capacity tokens and refills at a fixed rate.
+ * Not thread-safe; RequestScheduler only touches its buckets from the dispatcher thread.
+ */
+public class TokenBucket {
+    private final double capacity;
+    private final double tokensPerNano;
+    private double tokens;
+    private long lastRefill;
+
+    /**
+     * @param ratePerSecond Sustained requests per second
+     * @param burst Maximum requests allowed back to back
+     */
+    public TokenBucket(double ratePerSecond, int burst) {
+        this.capacity = burst;
+        this.tokensPerNano = ratePerSecond / TimeUnit.SECONDS.toNanos(1);
+        this.tokens = burst;
+        this.lastRefill = System.nanoTime();
+    }
+
+    /**
+     * Nanoseconds until a token will be available, 0 if one is available now
+     */
+    public long nanosUntilAvailable(long now) {
+        refill(now);
+        if (tokens >= 1) {
+            return 0;
+        }
+        return (long) Math.ceil((1 - tokens) / tokensPerNano);
+    }
+
+    /**
+     * Take a token; callers check nanosUntilAvailable first
+     */
+    public void take() {
+        tokens -= 1;
+    }
+
+    private void refill(long now) {
+        if (now > lastRefill) {
+            tokens = Math.min(capacity, tokens + (now - lastRefill) * tokensPerNano);
+            lastRefill = now;
+        }
+    }
+}
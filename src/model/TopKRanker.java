@@ -0,0 +1,158 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Picks the most popular tracks out of a candidate pool without sorting it.
+ *
+ * Keeps a min-heap of at most count entries keyed by one long per track (popularity in the high
+ * bits, candidate position inverted in the low ones), so each candidate costs a comparison of
+ * two primitives and only those beating the current minimum touch the heap: O(n log count)
+ * instead of sorting and boxing all n. The order matches the stream pipeline it replaces
+ * (filter, sorted by popularity descending, limit): ties keep candidate order.
+ *
+ * The seed and repeated IDs are dropped. A repeat is recognised while its first copy is in the
+ * heap, by a set of the IDs held there; one seen after that copy was displaced scores no higher
+ * (same track, same popularity) so it is displaced as well.
+ */
+public final class TopKRanker {
+
+    private TopKRanker() {
+    }
+
+    /**
+     * The count most popular candidates, most popular first
+     *
+     * @param excludeId ID to leave out (the seed), or null
+     */
+    public static List<Track> top(Iterable<? extends Track> candidates, String excludeId, int count) {
+        if (count <= 0) {
+            return new ArrayList<>();
+        }
+
+        long[] keys = new long[count];
+        Track[] tracks = new Track[count];
+        Set<String> heldIds = new HashSet<>();
+        int size = 0;
+        int position = 0;
+
+        for (Track track : candidates) {
+            // Earlier candidates get the larger low bits, so they win ties
+            long key = ((long) track.getPopularity() << 32) | (Integer.MAX_VALUE - position++);
+            if (size == count && key <= keys[0]) {
+                continue;
+            }
+            String id = track.getId();
+            if (id != null && (id.equals(excludeId) || heldIds.contains(id))) {
+                continue;
+            }
+            if (id != null) {
+                heldIds.add(id);
+            }
+
+            if (size < count) {
+                keys[size] = key;
+                tracks[size] = track;
+                siftUp(keys, tracks, size++);
+            } else {
+                String displaced = tracks[0].getId();
+                if (displaced != null) {
+                    heldIds.remove(displaced);
+                }
+                keys[0] = key;
+                tracks[0] = track;
+                siftDown(keys, tracks, size);
+            }
+        }
+
+        // Draining the min-heap yields least popular first
+        List<Track> result = new ArrayList<>(size);
+        while (size > 0) {
+            result.add(tracks[0]);
+            size--;
+            keys[0] = keys[size];
+            tracks[0] = tracks[size];
+            siftDown(keys, tracks, size);
+        }
+        Collections.reverse(result);
+        return result;
+    }
+
+    /**
+     * Indexes of the count highest scores among the first size, highest first; ties keep index order
+     */
+    public static int[] topIndices(float[] scores, int size, int count) {
+        int k = Math.max(0, Math.min(count, size));
+        long[] keys = new long[k];
+        int filled = 0;
+
+        for (int i = 0; i < size; i++) {
+            // Float bits made to sort as ints in the high half, the inverted index in the low one
+            int bits = Float.floatToIntBits(scores[i]);
+            bits ^= (bits >> 31) & Integer.MAX_VALUE;
+            long key = ((long) bits << 32) | (Integer.MAX_VALUE - i);
+            if (filled < k) {
+                keys[filled] = key;
+                siftUp(keys, null, filled++);
+            } else if (k > 0 && key > keys[0]) {
+                keys[0] = key;
+                siftDown(keys, null, filled);
+            }
+        }
+
+        int[] indexes = new int[filled];
+        while (filled > 0) {
+            indexes[--filled] = Integer.MAX_VALUE - (int) keys[0];
+            keys[0] = keys[filled];
+            siftDown(keys, null, filled);
+        }
+        return indexes;
+    }
+
+    private static void siftUp(long[] keys, Track[] tracks, int i) {
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (keys[i] >= keys[parent]) {
+                return;
+            }
+            swap(keys, tracks, i, parent);
+            i = parent;
+        }
+    }
+
+    private static void siftDown(long[] keys, Track[] tracks, int size) {
+        int i = 0;
+        while (true) {
+            int least = i;
+            int left = 2 * i + 1;
+            int right = left + 1;
+            if (left < size && keys[left] < keys[least]) {
+                least = left;
+            }
+            if (right < size && keys[right] < keys[least]) {
+                least = right;
+            }
+            if (least == i) {
+                return;
+            }
+            swap(keys, tracks, i, least);
+            i = least;
+        }
+    }
+
+    private static void swap(long[] keys, Track[] tracks, int a, int b) {
+        long key = keys[a];
+        keys[a] = keys[b];
+        keys[b] = key;
+        if (tracks == null) {
+            return;
+        }
+        Track track = tracks[a];
+        tracks[a] = tracks[b];
+        tracks[b] = track;
+    }
+}
@@ -0,0 +1,572 @@
+package model;
+
+import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Append-only, columnar store of every track seen, kept in one directory and read through
+ * memory-mapped MemorySegments.
+ *
+ * Files (big-endian):
+ * <pre>
+ * tracks.meta      MAGIC, VERSION, int rowCount, long stringsEnd, long artistRefsEnd,
+ *                  int indexedRows, int indexGeneration
+ * id.col           per row: long string ref of the track ID
+ * name.col         per row: long string ref of the name
+ * album.col        per row: long string ref of the album name
+ * artists.col      per row: long start and int count in artist-refs.dat
+ * popularity.col   per row: byte
+ * duration.col     per row: int
+ * artist-refs.dat  long string refs of artist names
+ * strings.dat      [int length, UTF-8 bytes]; a ref is the offset of the length, -1 for null
+ * id-N.idx         open-addressing hash table of [hash, row + 1] int pairs, 0 marks an empty slot;
+ *                  N is the generation in tracks.meta, its capacity is the file size / 8
+ * </pre>
+ * Opening only maps the files and reads the header, so a restarted server has every track it
+ * ever stored at once, without deserializing. Rows past rowCount (a write cut short by a crash)
+ * are ignored, and an index that lags behind the rows is caught up on open.
+ *
+ * Appends are serialized by a lock; reads take none. Files grow by mapping a larger region;
+ * earlier mappings stay valid for readers still using them until the store is closed, so a
+ * file's mappings add up to at most twice its size. Artist and album names are stored once per
+ * session, so a name may repeat across restarts.
+ */
+public class TrackStore implements AutoCloseable {
+    static final int MAGIC = 0x54535452; // "TSTR"
+    static final int VERSION = 2;
+
+    private static final ValueLayout.OfInt INT = ValueLayout.JAVA_INT_UNALIGNED.withOrder(ByteOrder.BIG_ENDIAN);
+    private static final ValueLayout.OfLong LONG = ValueLayout.JAVA_LONG_UNALIGNED.withOrder(ByteOrder.BIG_ENDIAN);
+    private static final ValueLayout.OfByte BYTE = ValueLayout.JAVA_BYTE;
+
+    private static final int META_BYTES = 64;
+    private static final long ROWS_AT = 8;
+    private static final long STRINGS_END_AT = 12;
+    private static final long ARTIST_REFS_END_AT = 20;
+    private static final long INDEXED_ROWS_AT = 28;
+    private static final long INDEX_GENERATION_AT = 32;
+
+    private static final long ARTISTS_ROW_BYTES = Long.BYTES + Integer.BYTES;
+    private static final int INITIAL_ROWS = 1024;
+    private static final int INITIAL_INDEX_CAPACITY = 4096;
+    private static final int SLOT_BYTES = 8;
+
+    /**
+     * One growable, memory-mapped file. Growing maps a larger region in the store's arena;
+     * readers holding the old segment keep a valid view of everything written before the growth.
+     */
+    private static final class MappedFile {
+        final Path path;
+        final FileChannel channel;
+        final Arena arena;
+        volatile MemorySegment segment;
+
+        MappedFile(Path path, long initialBytes, Arena arena) throws IOException {
+            this.path = path;
+            this.arena = arena;
+            this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE);
+            this.segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, Math.max(channel.size(), initialBytes),
+                    arena);
+        }
+
+        MemorySegment ensure(long bytes) throws IOException {
+            MemorySegment current = segment;
+            if (bytes <= current.byteSize()) {
+                return current;
+            }
+            long size = Math.max(current.byteSize(), 1);
+            while (size < bytes) {
+                size *= 2;
+            }
+            segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, size, arena);
+            return segment;
+        }
+
+        void force() {
+            segment.force();
+        }
+
+        void close() throws IOException {
+            segment.force();
+            channel.close();
+        }
+    }
+
+    /**
+     * The ID hash table; replaced (never modified) by the next generation when it has to grow
+     */
+    private static final class Index {
+        final MappedFile file;
+        final int capacity;
+        final int generation;
+
+        Index(MappedFile file, int capacity, int generation) {
+            this.file = file;
+            this.capacity = capacity;
+            this.generation = generation;
+        }
+    }
+
+    private final Path directory;
+    private final Arena arena = Arena.ofShared();
+    private final MappedFile meta;
+    private final MappedFile ids;
+    private final MappedFile names;
+    private final MappedFile albums;
+    private final MappedFile artists;
+    private final MappedFile popularity;
+    private final MappedFile durations;
+    private final MappedFile artistRefs;
+    private final MappedFile strings;
+    private volatile Index index;
+
+    // Published after a row's columns and index entry are written
+    private volatile int rowCount;
+    private long stringsEnd;
+    private long artistRefsEnd;
+    // Guarded by writeLock
+    private boolean closed;
+
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private final Map<String, Long> nameRefs = new HashMap<>();
+
+    private TrackStore(Path directory) throws IOException {
+        this.directory = directory;
+        this.meta = new MappedFile(directory.resolve("tracks.meta"), META_BYTES, arena);
+        this.ids = new MappedFile(directory.resolve("id.col"), INITIAL_ROWS * (long) Long.BYTES, arena);
+        this.names = new MappedFile(directory.resolve("name.col"), INITIAL_ROWS * (long) Long.BYTES, arena);
+        this.albums = new MappedFile(directory.resolve("album.col"), INITIAL_ROWS * (long) Long.BYTES, arena);
+        this.artists = new MappedFile(directory.resolve("artists.col"), INITIAL_ROWS * ARTISTS_ROW_BYTES, arena);
+        this.popularity = new MappedFile(directory.resolve("popularity.col"), INITIAL_ROWS, arena);
+        this.durations = new MappedFile(directory.resolve("duration.col"), INITIAL_ROWS * (long) Integer.BYTES,
+                arena);
+        this.artistRefs = new MappedFile(directory.resolve("artist-refs.dat"), INITIAL_ROWS * (long) Long.BYTES,
+                arena);
+        this.strings = new MappedFile(directory.resolve("strings.dat"), INITIAL_ROWS * 64L, arena);
+
+        MemorySegment header = meta.segment;
+        if (header.get(INT, 0) == 0) {
+            header.set(INT, 0, MAGIC);
+            header.set(INT, 4, VERSION);
+        } else if (header.get(INT, 0) != MAGIC || header.get(INT, 4) != VERSION) {
+            throw new IOException("Not a track store (or unsupported version): " + directory);
+        }
+        this.rowCount = header.get(INT, ROWS_AT);
+        this.stringsEnd = header.get(LONG, STRINGS_END_AT);
+        this.artistRefsEnd = header.get(LONG, ARTIST_REFS_END_AT);
+
+        int generation = header.get(INT, INDEX_GENERATION_AT);
+        Path indexPath = indexPath(generation);
+        int capacity = Files.exists(indexPath)
+                ? (int) (Files.size(indexPath) / SLOT_BYTES) : INITIAL_INDEX_CAPACITY;
+        this.index = new Index(new MappedFile(indexPath, (long) capacity * SLOT_BYTES, arena), capacity, generation);
+        deleteOtherIndexes(generation);
+        catchUpIndex(header.get(INT, INDEXED_ROWS_AT));
+    }
+
+    /**
+     * Open the store in this directory, creating it if it does not exist
+     */
+    public static TrackStore open(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        return new TrackStore(directory);
+    }
+
+    private Path indexPath(int generation) {
+        return directory.resolve("id-" + generation + ".idx");
+    }
+
+    /**
+     * Remove index generations left behind: ones replaced while mapped (which some platforms
+     * will not delete) or a larger one whose build a crash cut short
+     */
+    private void deleteOtherIndexes(int generation) throws IOException {
+        String current = indexPath(generation).getFileName().toString();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "id-*.idx")) {
+            for (Path file : files) {
+                if (!file.getFileName().toString().equals(current)) {
+                    Files.deleteIfExists(file);
+                }
+            }
+        }
+    }
+
+    /**
+     * Index rows written before a crash stopped their index entries from being recorded
+     */
+    private void catchUpIndex(int indexedRows) throws IOException {
+        if (indexedRows >= rowCount) {
+            return;
+        }
+        for (int row = indexedRows; row < rowCount; row++) {
+            growIndexIfNeeded(row + 1);
+            insert(index, stringHash(ids.segment.get(LONG, (long) row * Long.BYTES)), row);
+        }
+        meta.segment.set(INT, INDEXED_ROWS_AT, rowCount);
+    }
+
+    // ---- Writing
+
+    /**
+     * Append a track unless one with its ID is already stored
+     *
+     * @return Whether the track was added
+     */
+    public boolean add(Track track) throws IOException {
+        if (track.getId() == null) {
+            return false;
+        }
+        writeLock.lock();
+        try {
+            if (find(track.getId()) >= 0) {
+                return false;
+            }
+
+            int row = rowCount;
+            growIndexIfNeeded(row + 1);
+
+            long idRef = writeString(track.getId());
+            long refAt = (long) row * Long.BYTES;
+            ids.ensure(refAt + Long.BYTES).set(LONG, refAt, idRef);
+            names.ensure(refAt + Long.BYTES).set(LONG, refAt, writeString(track.getName()));
+            albums.ensure(refAt + Long.BYTES).set(LONG, refAt, nameRef(track.getAlbumName()));
+
+            List<String> artistNames = track.getArtists() != null ? track.getArtists() : List.of();
+            long start = artistRefsEnd;
+            MemorySegment refs = artistRefs.ensure((start + artistNames.size()) * Long.BYTES);
+            for (int i = 0; i < artistNames.size(); i++) {
+                refs.set(LONG, (start + i) * Long.BYTES, nameRef(artistNames.get(i)));
+            }
+            artistRefsEnd = start + artistNames.size();
+            long artistsAt = row * ARTISTS_ROW_BYTES;
+            MemorySegment artistColumn = artists.ensure(artistsAt + ARTISTS_ROW_BYTES);
+            artistColumn.set(LONG, artistsAt, start);
+            artistColumn.set(INT, artistsAt + Long.BYTES, artistNames.size());
+
+            popularity.ensure(row + 1L).set(BYTE, row, (byte) Math.max(0, Math.min(100, track.getPopularity())));
+            long durationAt = (long) row * Integer.BYTES;
+            durations.ensure(durationAt + Integer.BYTES).set(INT, durationAt, track.getDurationMs());
+
+            insert(index, stringHash(idRef), row);
+
+            MemorySegment header = meta.segment;
+            header.set(LONG, STRINGS_END_AT, stringsEnd);
+            header.set(LONG, ARTIST_REFS_END_AT, artistRefsEnd);
+            header.set(INT, INDEXED_ROWS_AT, row + 1);
+            header.set(INT, ROWS_AT, row + 1);
+            rowCount = row + 1;
+            return true;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Append every track not already stored
+     *
+     * @return How many were added
+     */
+    public int addAll(List<Track> tracks) throws IOException {
+        int added = 0;
+        for (Track track : tracks) {
+            if (add(track)) {
+                added++;
+            }
+        }
+        return added;
+    }
+
+    private long nameRef(String name) throws IOException {
+        if (name == null) {
+            return -1;
+        }
+        Long ref = nameRefs.get(name);
+        if (ref == null) {
+            ref = writeString(name);
+            nameRefs.put(name, ref);
+        }
+        return ref;
+    }
+
+    private long writeString(String value) throws IOException {
+        if (value == null) {
+            return -1;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        long ref = stringsEnd;
+        MemorySegment segment = strings.ensure(ref + Integer.BYTES + bytes.length);
+        segment.set(INT, ref, bytes.length);
+        MemorySegment.copy(bytes, 0, segment, BYTE, ref + Integer.BYTES, bytes.length);
+        stringsEnd = ref + Integer.BYTES + bytes.length;
+        return ref;
+    }
+
+    /**
+     * Keep the table at most half full: build the next generation, twice the size, in its own
+     * file from the old one's slots (hashes included, so no ID is re-read), then record it in
+     * tracks.meta and swap it in. The old file is never overwritten while mapped; it is deleted
+     * now where the platform allows, otherwise on the next open.
+     */
+    private void growIndexIfNeeded(int rows) throws IOException {
+        Index current = index;
+        if ((long) rows * 2 <= current.capacity) {
+            return;
+        }
+
+        int capacity = current.capacity * 2;
+        int generation = current.generation + 1;
+        Path next = indexPath(generation);
+        Files.deleteIfExists(next);
+        MappedFile file = new MappedFile(next, (long) capacity * SLOT_BYTES, arena);
+        Index grown = new Index(file, capacity, generation);
+        MemorySegment old = current.file.segment;
+        for (long slot = 0; slot < current.capacity; slot++) {
+            int rowPlusOne = old.get(INT, slot * SLOT_BYTES + Integer.BYTES);
+            if (rowPlusOne != 0) {
+                insert(grown, old.get(INT, slot * SLOT_BYTES), rowPlusOne - 1);
+            }
+        }
+        file.force();
+
+        meta.segment.set(INT, INDEX_GENERATION_AT, generation);
+        meta.force();
+        index = grown;
+
+        current.file.channel.close();
+        try {
+            Files.deleteIfExists(current.file.path);
+        } catch (IOException e) {
+            // Still mapped (Windows): removed by deleteOtherIndexes on the next open
+        }
+    }
+
+    private static void insert(Index index, int hash, int row) {
+        MemorySegment table = index.file.segment;
+        int mask = index.capacity - 1;
+        long slot = hash & mask;
+        while (table.get(INT, slot * SLOT_BYTES + Integer.BYTES) != 0) {
+            slot = (slot + 1) & mask;
+        }
+        table.set(INT, slot * SLOT_BYTES, hash);
+        table.set(INT, slot * SLOT_BYTES + Integer.BYTES, row + 1);
+    }
+
+    // ---- Reading
+
+    public int size() {
+        return rowCount;
+    }
+
+    /**
+     * Row of the track with this ID, or -1
+     */
+    public int find(String trackId) {
+        int rows = rowCount;
+        Index current = index;
+        byte[] key = trackId.getBytes(StandardCharsets.UTF_8);
+        int hash = hash(MemorySegment.ofArray(key), 0, key.length);
+
+        MemorySegment table = current.file.segment;
+        int mask = current.capacity - 1;
+        for (long slot = hash & mask; ; slot = (slot + 1) & mask) {
+            int rowPlusOne = table.get(INT, slot * SLOT_BYTES + Integer.BYTES);
+            if (rowPlusOne == 0) {
+                return -1;
+            }
+            int row = rowPlusOne - 1;
+            if (row < rows && table.get(INT, slot * SLOT_BYTES) == hash
+                    && stringEquals(ids.segment.get(LONG, (long) row * Long.BYTES), key)) {
+                return row;
+            }
+        }
+    }
+
+    /**
+     * The stored track with this ID, or null
+     */
+    public Track get(String trackId) {
+        int row = find(trackId);
+        return row >= 0 ? getTrack(row) : null;
+    }
+
+    public Track getTrack(int row) {
+        MemorySegment artistColumn = artists.segment;
+        long start = artistColumn.get(LONG, row * ARTISTS_ROW_BYTES);
+        int count = artistColumn.get(INT, row * ARTISTS_ROW_BYTES + Long.BYTES);
+        MemorySegment refs = artistRefs.segment;
+        List<String> artistNames = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            artistNames.add(string(refs.get(LONG, (start + i) * Long.BYTES)));
+        }
+
+        long refAt = (long) row * Long.BYTES;
+        Track track = new Track(string(ids.segment.get(LONG, refAt)), string(names.segment.get(LONG, refAt)),
+                artistNames, string(albums.segment.get(LONG, refAt)));
+        track.setPopularity(getPopularity(row));
+        track.setDurationMs(getDurationMs(row));
+        return track;
+    }
+
+    public int getPopularity(int row) {
+        return popularity.segment.get(BYTE, row);
+    }
+
+    public int getDurationMs(int row) {
+        return durations.segment.get(INT, (long) row * Integer.BYTES);
+    }
+
+    /**
+     * Fill rows with the rows of the most popular tracks, most popular first, and return how
+     * many were filled (fewer than rows.length only if the store is smaller). Scans the mapped
+     * popularity column with rows itself as the heap, so it allocates nothing.
+     */
+    public int mostPopular(int[] rows) {
+        MemorySegment column = popularity.segment;
+        int count = rowCount;
+        int filled = 0;
+
+        // Min-heap on popularity: the root is the least popular of the best seen so far
+        for (int row = 0; row < count; row++) {
+            if (filled < rows.length) {
+                rows[filled] = row;
+                siftUp(rows, filled++, column);
+            } else if (filled > 0 && column.get(BYTE, row) > column.get(BYTE, rows[0])) {
+                rows[0] = row;
+                siftDown(rows, 0, filled, column);
+            }
+        }
+
+        // Repeatedly move the least popular to the end, leaving the most popular first
+        for (int end = filled - 1; end > 0; end--) {
+            int least = rows[0];
+            rows[0] = rows[end];
+            rows[end] = least;
+            siftDown(rows, 0, end, column);
+        }
+        return filled;
+    }
+
+    private static void siftUp(int[] heap, int i, MemorySegment column) {
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (column.get(BYTE, heap[i]) >= column.get(BYTE, heap[parent])) {
+                return;
+            }
+            swap(heap, i, parent);
+            i = parent;
+        }
+    }
+
+    private static void siftDown(int[] heap, int i, int size, MemorySegment column) {
+        while (true) {
+            int least = i;
+            int left = 2 * i + 1;
+            int right = left + 1;
+            if (left < size && column.get(BYTE, heap[left]) < column.get(BYTE, heap[least])) {
+                least = left;
+            }
+            if (right < size && column.get(BYTE, heap[right]) < column.get(BYTE, heap[least])) {
+                least = right;
+            }
+            if (least == i) {
+                return;
+            }
+            swap(heap, i, least);
+            i = least;
+        }
+    }
+
+    private static void swap(int[] values, int a, int b) {
+        int tmp = values[a];
+        values[a] = values[b];
+        values[b] = tmp;
+    }
+
+    private String string(long ref) {
+        if (ref < 0) {
+            return null;
+        }
+        MemorySegment segment = strings.segment;
+        byte[] bytes = new byte[segment.get(INT, ref)];
+        MemorySegment.copy(segment, BYTE, ref + Integer.BYTES, bytes, 0, bytes.length);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private boolean stringEquals(long ref, byte[] key) {
+        MemorySegment segment = strings.segment;
+        if (segment.get(INT, ref) != key.length) {
+            return false;
+        }
+        for (int i = 0; i < key.length; i++) {
+            if (segment.get(BYTE, ref + Integer.BYTES + i) != key[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int stringHash(long ref) {
+        MemorySegment segment = strings.segment;
+        return hash(segment, ref + Integer.BYTES, segment.get(INT, ref));
+    }
+
+    /**
+     * FNV-1a over UTF-8 bytes, so the index is built without decoding IDs. Any value is valid:
+     * an empty slot is marked by its row field.
+     */
+    private static int hash(MemorySegment bytes, long offset, int length) {
+        int hash = 0x811c9dc5;
+        for (int i = 0; i < length; i++) {
+            hash ^= bytes.get(BYTE, offset + i) & 0xff;
+            hash *= 0x01000193;
+        }
+        // Spread the high bits into the low ones the table masks with
+        return hash ^ (hash >>> 16);
+    }
+
+    /**
+     * Write the mapped pages to disk now rather than when the OS gets to them
+     */
+    public void flush() {
+        for (MappedFile file : List.of(ids, names, albums, artists, popularity, durations, artistRefs, strings,
+                index.file, meta)) {
+            file.force();
+        }
+    }
+
+    /**
+     * Unmaps every file; the store must no longer be read once closed. Closing again does nothing
+     */
+    @Override
+    public void close() throws IOException {
+        writeLock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            for (MappedFile file : List.of(ids, names, albums, artists, popularity, durations, artistRefs,
+                    strings, index.file, meta)) {
+                file.close();
+            }
+            arena.close();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+}
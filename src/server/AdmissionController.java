@@ -0,0 +1,128 @@
+package server;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Server-wide cap on requests being handled at once, adapted to observed latency.
+ *
+ * Gradient-style limit: a short-term latency average is compared with a long-term one. While
+ * they agree the limit grows (by about sqrt(limit) per sample, if the limit is actually being
+ * used); when the short-term average climbs because Spotify or our own queues slow down, the
+ * limit shrinks in proportion. Requests over the limit are turned away immediately, so the ones
+ * admitted keep a bounded latency instead of everyone waiting longer and longer.
+ */
+public class AdmissionController {
+    private static final double SHORT_SMOOTHING = 0.1;
+    private static final double LONG_SMOOTHING = 0.002;
+    // Short-term latency may reach this multiple of the long-term average before the limit shrinks
+    private static final double LATENCY_TOLERANCE = 1.5;
+    private static final double LIMIT_SMOOTHING = 0.2;
+    private static final double FAILURE_DECREASE = 0.9;
+    private static final long MIN_RETRY_AFTER_MS = 100;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final LongAdder admitted = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private volatile double limit;
+
+    // Guarded by this
+    private double shortLatencyNanos;
+    private double longLatencyNanos;
+
+    public AdmissionController(int initialLimit, int minLimit, int maxLimit) {
+        this.limit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+    }
+
+    /**
+     * Admit a request if fewer than the current limit are in flight; call release() when it is done
+     */
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= (int) limit) {
+                rejected.increment();
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                admitted.increment();
+                return true;
+            }
+        }
+    }
+
+    /**
+     * @param latencyNanos How long the admitted request took
+     * @param failed The upstream call failed (timeouts, 5xx): always a signal to back off
+     */
+    public void release(long latencyNanos, boolean failed) {
+        int current = inFlight.getAndDecrement();
+        update(latencyNanos, failed, current);
+    }
+
+    private synchronized void update(long latencyNanos, boolean failed, int inFlightAtRelease) {
+        if (shortLatencyNanos == 0) {
+            shortLatencyNanos = latencyNanos;
+            longLatencyNanos = latencyNanos;
+        } else {
+            shortLatencyNanos += SHORT_SMOOTHING * (latencyNanos - shortLatencyNanos);
+            longLatencyNanos += LONG_SMOOTHING * (latencyNanos - longLatencyNanos);
+        }
+
+        // Once latency recovers, let the long-term baseline follow it down quickly
+        if (longLatencyNanos > shortLatencyNanos) {
+            longLatencyNanos = shortLatencyNanos;
+        }
+
+        double newLimit;
+        if (failed) {
+            newLimit = limit * FAILURE_DECREASE;
+        } else {
+            double gradient = Math.max(0.5, Math.min(1.0,
+                    LATENCY_TOLERANCE * longLatencyNanos / shortLatencyNanos));
+            // Only probe upwards while the limit is actually the constraint
+            double headroom = inFlightAtRelease * 2 >= limit ? Math.sqrt(limit) : 0;
+            double target = limit * gradient + headroom;
+            newLimit = limit + LIMIT_SMOOTHING * (target - limit);
+        }
+        limit = Math.max(minLimit, Math.min(maxLimit, newLimit));
+    }
+
+    /**
+     * How long a turned-away client should wait: about one typical request time
+     */
+    public synchronized long getRetryAfterMs() {
+        return Math.max(MIN_RETRY_AFTER_MS, TimeUnit.NANOSECONDS.toMillis((long) shortLatencyNanos));
+    }
+
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    public long getAdmitted() {
+        return admitted.sum();
+    }
+
+    public long getRejected() {
+        return rejected.sum();
+    }
+
+    public synchronized double getLatencyMs() {
+        return shortLatencyNanos / 1_000_000.0;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("admission: limit=%d inFlight=%d admitted=%d rejected=%d latency=%.1fms",
+                getLimit(), getInFlight(), getAdmitted(), getRejected(), getLatencyMs());
+    }
+}
@@ -0,0 +1,439 @@
+package server;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonPrimitive;
+import model.Track;
+
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compact binary framing, negotiated per connection: the client sends the JSON line
+ * {"action":"HELLO","protocol":"binary"} and, if the server accepts, both sides switch to frames.
+ * Servers that do not know HELLO answer with an error and the connection stays on JSON.
+ *
+ * <pre>
+ * frame      varint payload length, payload
+ * request    action (1 SEARCH, 2 RECOMMEND), varint id, then
+ *              SEARCH:    str query, varint limit
+ *              RECOMMEND: str trackId, str trackName, str trackArtist, str trackAlbum, varint count,
+ *                         (name, artist and album are null when the server is to look the track up)
+ *                         str strategy (null for the server's default)
+ *            then varint deadlineMs (0 for none)
+ * response   status (0 success, 1 error, 2 busy), varint id, then
+ *              success: action (| 0x80 if partial), varint trackCount, track...
+ *              error:   str message
+ *              busy:    varint retryAfterMs
+ * track      str id, str name, varint artistCount, name artist..., name album, str previewUrl,
+ *            varint popularity, varint durationMs
+ * str        varint (UTF-8 length + 1) then the bytes; 0 is null
+ * name       varint 0 null, 1 new str (added to the table), n >= 2 table entry n - 2
+ * </pre>
+ *
+ * Artist and album names repeat across tracks and responses, so each direction of a connection
+ * keeps a table of names already sent. One instance serves one connection: writes must be
+ * serialized by the caller (table order is write order) and reads must come from one thread.
+ */
+public class BinaryProtocol {
+    public static final String HELLO = "HELLO";
+    public static final String PROTOCOL_NAME = "binary";
+
+    private static final int SEARCH = 1;
+    private static final int RECOMMEND = 2;
+    private static final int SUCCESS = 0;
+    private static final int ERROR = 1;
+    private static final int BUSY = 2;
+    private static final int PARTIAL_FLAG = 0x80;
+    private static final int MAX_FRAME_BYTES = 16 * 1024 * 1024;
+    private static final int MAX_LINE_BYTES = 1024 * 1024;
+    // Both sides stop adding names at this size, so the tables stay in step
+    private static final int MAX_NAMES = 4096;
+
+    private final Map<String, Integer> sentNames = new HashMap<>();
+    private final List<String> receivedNames = new ArrayList<>();
+    private final ByteArrayOutputStream payload = new ByteArrayOutputStream();
+
+    /**
+     * The JSON request a client sends to ask for binary framing
+     */
+    public static JsonObject hello() {
+        JsonObject hello = new JsonObject();
+        hello.addProperty("action", HELLO);
+        hello.addProperty("protocol", PROTOCOL_NAME);
+        return hello;
+    }
+
+    public static boolean isHello(JsonObject request) {
+        return request != null && request.has("action") && HELLO.equals(request.get("action").getAsString())
+                && request.has("protocol") && PROTOCOL_NAME.equals(request.get("protocol").getAsString());
+    }
+
+    /**
+     * The JSON line a server answers HELLO with before switching to frames
+     */
+    public static JsonObject helloAccepted() {
+        JsonObject response = new JsonObject();
+        response.addProperty("status", "success");
+        response.addProperty("action", HELLO);
+        response.addProperty("protocol", PROTOCOL_NAME);
+        return response;
+    }
+
+    // ---- Requests (client writes, server reads)
+
+    public void writeRequest(OutputStream out, long id, JsonObject request) throws IOException {
+        payload.reset();
+        String action = request.get("action").getAsString();
+        switch (action) {
+            case "SEARCH":
+                payload.write(SEARCH);
+                writeVarLong(payload, id);
+                writeString(payload, request.get("query").getAsString());
+                writeVarLong(payload, request.has("limit") ? request.get("limit").getAsInt() : 20);
+                break;
+            case "RECOMMEND":
+                payload.write(RECOMMEND);
+                writeVarLong(payload, id);
+                writeString(payload, request.get("trackId").getAsString());
+                writeString(payload, optString(request, "trackName"));
+                writeString(payload, optString(request, "trackArtist"));
+                writeString(payload, optString(request, "trackAlbum"));
+                writeVarLong(payload, request.has("count") ? request.get("count").getAsInt() : 10);
+                writeString(payload, request.has("strategy") ? request.get("strategy").getAsString() : null);
+                break;
+            default:
+                throw new IOException("No binary encoding for action " + action);
+        }
+        writeVarLong(payload, request.has("deadlineMs") ? request.get("deadlineMs").getAsLong() : 0);
+        writeFrame(out);
+    }
+
+    /**
+     * Next request as the JSON object RequestHandler expects, or null once the client has closed
+     */
+    public JsonObject readRequest(InputStream in) throws IOException {
+        ByteBuffer frame = readFrame(in);
+        if (frame == null) {
+            return null;
+        }
+
+        try {
+            return decodeRequest(frame);
+        } catch (BufferUnderflowException e) {
+            throw new IOException("Truncated request frame");
+        }
+    }
+
+    private static JsonObject decodeRequest(ByteBuffer frame) throws IOException {
+        JsonObject request = new JsonObject();
+        int action = frame.get();
+        request.addProperty("id", readVarLong(frame));
+        switch (action) {
+            case SEARCH:
+                request.addProperty("action", "SEARCH");
+                request.addProperty("query", readString(frame));
+                request.addProperty("limit", (int) readVarLong(frame));
+                break;
+            case RECOMMEND:
+                request.addProperty("action", "RECOMMEND");
+                request.addProperty("trackId", readString(frame));
+                putString(request, "trackName", readString(frame));
+                putString(request, "trackArtist", readString(frame));
+                putString(request, "trackAlbum", readString(frame));
+                request.addProperty("count", (int) readVarLong(frame));
+                String strategy = readString(frame);
+                if (strategy != null) {
+                    request.addProperty("strategy", strategy);
+                }
+                break;
+            default:
+                request.addProperty("action", "UNKNOWN_" + action);
+                return request;
+        }
+        long deadlineMs = readVarLong(frame);
+        // Negative values are passed on for RequestHandler to reject, as it does for JSON
+        if (deadlineMs != 0) {
+            request.addProperty("deadlineMs", deadlineMs);
+        }
+        return request;
+    }
+
+    // ---- Responses (server writes, client reads)
+
+    public void writeResponse(OutputStream out, Response response) throws IOException {
+        payload.reset();
+        payload.write(response.isSuccess() ? SUCCESS : response.isBusy() ? BUSY : ERROR);
+        writeVarLong(payload, response.getId() != null ? response.getId().getAsLong() : 0);
+
+        if (response.isBusy()) {
+            writeVarLong(payload, response.getRetryAfterMs());
+        } else if (response.isSuccess()) {
+            int action = response.getAction().equals("SEARCH") ? SEARCH : RECOMMEND;
+            payload.write(response.isPartial() ? action | PARTIAL_FLAG : action);
+            writeVarLong(payload, response.getTracks().size());
+            for (Track track : response.getTracks()) {
+                writeTrack(track);
+            }
+        } else {
+            writeString(payload, response.getMessage());
+        }
+        writeFrame(out);
+    }
+
+    /**
+     * Next response, or null once the server has closed the connection
+     */
+    public Response readResponse(InputStream in) throws IOException {
+        ByteBuffer frame = readFrame(in);
+        if (frame == null) {
+            return null;
+        }
+
+        try {
+            return decodeResponse(frame);
+        } catch (BufferUnderflowException e) {
+            throw new IOException("Truncated response frame");
+        }
+    }
+
+    private Response decodeResponse(ByteBuffer frame) throws IOException {
+        int status = frame.get();
+        JsonElement id = new JsonPrimitive(readVarLong(frame));
+        Response response;
+        if (status == SUCCESS) {
+            int actionByte = frame.get() & 0xFF;
+            String action = (actionByte & ~PARTIAL_FLAG) == SEARCH ? "SEARCH" : "RECOMMEND";
+            int count = readCount(frame);
+            List<Track> tracks = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                tracks.add(readTrack(frame));
+            }
+            response = Response.success(action, tracks);
+            response.setPartial((actionByte & PARTIAL_FLAG) != 0);
+        } else if (status == BUSY) {
+            response = Response.busy(readVarLong(frame));
+        } else {
+            response = Response.error(readString(frame));
+        }
+        response.setId(id);
+        return response;
+    }
+
+    private void writeTrack(Track track) {
+        writeString(payload, track.getId());
+        writeString(payload, track.getName());
+        List<String> artists = track.getArtists() != null ? track.getArtists() : List.of();
+        writeVarLong(payload, artists.size());
+        for (String artist : artists) {
+            writeName(artist);
+        }
+        writeName(track.getAlbumName());
+        writeString(payload, track.getPreviewUrl());
+        writeVarLong(payload, track.getPopularity());
+        writeVarLong(payload, track.getDurationMs());
+    }
+
+    private Track readTrack(ByteBuffer frame) throws IOException {
+        String id = readString(frame);
+        String name = readString(frame);
+        int artistCount = readCount(frame);
+        List<String> artists = new ArrayList<>(artistCount);
+        for (int i = 0; i < artistCount; i++) {
+            artists.add(readName(frame));
+        }
+
+        Track track = new Track(id, name, artists, readName(frame));
+        track.setPreviewUrl(readString(frame));
+        track.setPopularity((int) readVarLong(frame));
+        track.setDurationMs((int) readVarLong(frame));
+        return track;
+    }
+
+    private void writeName(String name) {
+        if (name == null) {
+            writeVarLong(payload, 0);
+            return;
+        }
+
+        Integer index = sentNames.get(name);
+        if (index != null) {
+            writeVarLong(payload, index + 2);
+            return;
+        }
+
+        writeVarLong(payload, 1);
+        writeString(payload, name);
+        if (sentNames.size() < MAX_NAMES) {
+            sentNames.put(name, sentNames.size());
+        }
+    }
+
+    private String readName(ByteBuffer frame) throws IOException {
+        int tag = (int) readVarLong(frame);
+        if (tag == 0) {
+            return null;
+        }
+        if (tag == 1) {
+            String name = readString(frame);
+            if (receivedNames.size() < MAX_NAMES) {
+                receivedNames.add(name);
+            }
+            return name;
+        }
+        if (tag - 2 >= receivedNames.size()) {
+            throw new IOException("Unknown name reference " + tag);
+        }
+        return receivedNames.get(tag - 2);
+    }
+
+    // ---- Framing and primitives
+
+    private void writeFrame(OutputStream out) throws IOException {
+        ByteArrayOutputStream header = new ByteArrayOutputStream(5);
+        writeVarLong(header, payload.size());
+        header.writeTo(out);
+        payload.writeTo(out);
+        out.flush();
+    }
+
+    private static ByteBuffer readFrame(InputStream in) throws IOException {
+        int first = in.read();
+        if (first < 0) {
+            return null;
+        }
+
+        long length = first & 0x7F;
+        int shift = 7;
+        int b = first;
+        while ((b & 0x80) != 0) {
+            b = in.read();
+            if (b < 0) {
+                throw new EOFException("Connection closed inside a frame header");
+            }
+            length |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        }
+        if (length > MAX_FRAME_BYTES) {
+            throw new IOException("Frame of " + length + " bytes exceeds limit");
+        }
+
+        byte[] bytes = in.readNBytes((int) length);
+        if (bytes.length < length) {
+            throw new EOFException("Connection closed inside a frame");
+        }
+        return ByteBuffer.wrap(bytes);
+    }
+
+    static void writeVarLong(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    static long readVarLong(ByteBuffer in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = in.get();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed varint");
+    }
+
+    private static String optString(JsonObject request, String field) {
+        return request.has(field) && !request.get(field).isJsonNull() ? request.get(field).getAsString() : null;
+    }
+
+    private static void putString(JsonObject request, String field, String value) {
+        if (value != null) {
+            request.addProperty(field, value);
+        }
+    }
+
+    private static void writeString(ByteArrayOutputStream out, String value) {
+        if (value == null) {
+            writeVarLong(out, 0);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarLong(out, bytes.length + 1L);
+        out.write(bytes, 0, bytes.length);
+    }
+
+    /**
+     * Element count checked against the rest of the frame, each element taking at least one byte,
+     * so a corrupt count cannot size a huge list
+     */
+    private static int readCount(ByteBuffer in) throws IOException {
+        long count = readVarLong(in);
+        if (count < 0 || count > in.remaining()) {
+            throw new IOException("Count of " + count + " exceeds the frame");
+        }
+        return (int) count;
+    }
+
+    private static String readString(ByteBuffer in) throws IOException {
+        long encoded = readVarLong(in);
+        if (encoded == 0) {
+            return null;
+        }
+        // Compared as a long, so a huge varint cannot wrap into a small or negative int
+        long length = encoded - 1;
+        if (length < 0 || length > in.remaining()) {
+            throw new IOException("String of " + length + " bytes exceeds the frame");
+        }
+        String value = new String(in.array(), in.arrayOffset() + in.position(), (int) length, StandardCharsets.UTF_8);
+        in.position(in.position() + (int) length);
+        return value;
+    }
+
+    /**
+     * Read one newline-terminated UTF-8 line (without \r\n), or null at end of stream.
+     * Reads byte by byte from a buffered stream, so nothing past the line is consumed and the
+     * same stream can carry binary frames afterwards.
+     */
+    public static String readLine(InputStream in) throws IOException {
+        ByteArrayOutputStream line = new ByteArrayOutputStream(256);
+        int b;
+        while ((b = in.read()) != '\n') {
+            if (b < 0) {
+                return line.size() > 0 ? line.toString(StandardCharsets.UTF_8) : null;
+            }
+            if (line.size() >= MAX_LINE_BYTES) {
+                throw new IOException("Request line exceeds " + MAX_LINE_BYTES + " bytes");
+            }
+            line.write(b);
+        }
+
+        byte[] bytes = line.toByteArray();
+        int length = bytes.length;
+        if (length > 0 && bytes[length - 1] == '\r') {
+            length--;
+        }
+        return new String(bytes, 0, length, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Write one JSON line and flush
+     */
+    public static void writeLine(OutputStream out, String line) throws IOException {
+        out.write(line.getBytes(StandardCharsets.UTF_8));
+        out.write('\n');
+        out.flush();
+    }
+}
@@ -1,142 +1,192 @@
 package server;
 
-import com.google.gson.Gson;
 import com.google.gson.JsonObject;
-import model.*;
+import model.SpotifyAPI;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
 
-import java.io.BufferedReader;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
 import java.io.IOException;
-import java.io.InputStreamReader;
-import java.io.PrintWriter;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.net.Socket;
-import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * Handles individual client connections in separate threads
  * Demonstrates Multithreading and Socket communication
+ *
+ * Requests tagged with an "id" are handled concurrently and answered as each completes; a client
+ * with MAX_PIPELINED already in flight gets an immediate BUSY answer for the next one.
+ * Untagged requests are answered in order on this thread.
+ * A HELLO request switches the connection to BinaryProtocol frames, where every request is tagged.
  */
 public class ClientHandler implements Runnable {
+    private static final Logger log = LoggerFactory.getLogger(ClientHandler.class);
+
+    // Pipelined requests mostly wait on Spotify, so each gets its own virtual thread
+    private static final ExecutorService PIPELINE = Executors.newVirtualThreadPerTaskExecutor();
+
     private final Socket clientSocket;
-    private final SpotifyAPIClient apiClient;
-    private final RecommendationEngine recommendationEngine;
-    private final Gson gson;
-    private final int clientId;
-    private static int nextClientId = 1;
+    private final RequestHandler requestHandler;
+    private final Semaphore pipelinePermits = new Semaphore(RequestHandler.MAX_PIPELINED);
+    // Serializes responses (and binary name-table updates); a lock rather than synchronized so
+    // virtual threads blocked on a slow socket write never pin their carrier
+    private final ReentrantLock writeLock = new ReentrantLock();
+    // Kept as the MDC string, built once rather than per request
+    private final String clientId;
+    private static final AtomicInteger nextClientId = new AtomicInteger(1);
+    private static final AtomicInteger openConnections = new AtomicInteger();
+
+    public ClientHandler(Socket socket, SpotifyAPI apiClient) {
+        this(socket, apiClient, null);
+    }
 
-    public ClientHandler(Socket socket, SpotifyAPIClient apiClient) {
+    /**
+     * @param admission Server-wide request limit shared by all connections, or null for none
+     */
+    public ClientHandler(Socket socket, SpotifyAPI apiClient, AdmissionController admission) {
+        this(socket, new RequestHandler(apiClient, admission));
+    }
+
+    /**
+     * @param requestHandler Handler shared with the server's other connections
+     */
+    public ClientHandler(Socket socket, RequestHandler requestHandler) {
         this.clientSocket = socket;
-        this.apiClient = apiClient;
-        this.recommendationEngine = new RecommendationEngine(
-                new ArtistSimilarityStrategy(), apiClient);
-        this.gson = new Gson();
-        this.clientId = nextClientId++;
+        this.requestHandler = requestHandler;
+        this.clientId = Integer.toString(nextClientId.getAndIncrement());
+    }
+
+    /**
+     * Turn away a connection the server has no room for: one BUSY line, then close
+     */
+    public static void rejectBusy(Socket socket, long retryAfterMs) {
+        try (Socket s = socket) {
+            s.setSoTimeout(1000);
+            OutputStream out = s.getOutputStream();
+            BinaryProtocol.writeLine(out, RequestHandler.encode(Response.busy(retryAfterMs)));
+        } catch (IOException e) {
+            log.warn("Failed to reject connection: {}", e.getMessage());
+        }
     }
 
     @Override
     public void run() {
-        String clientAddress = clientSocket.getInetAddress().getHostAddress();
-        System.out.println(String.format("[Client %d] Connected from %s",
-                clientId, clientAddress));
+        openConnections.incrementAndGet();
+        MDC.put("clientId", clientId);
+        log.debug("Connected from {}", clientSocket.getInetAddress().getHostAddress());
 
         try (
-                BufferedReader in = new BufferedReader(
-                        new InputStreamReader(clientSocket.getInputStream()));
-                PrintWriter out = new PrintWriter(clientSocket.getOutputStream(), true)
+                InputStream in = new BufferedInputStream(clientSocket.getInputStream());
+                OutputStream out = new BufferedOutputStream(clientSocket.getOutputStream())
         ) {
-            String request;
-            while ((request = in.readLine()) != null) {
-                System.out.println(String.format("[Client %d] Request: %s",
-                        clientId, request));
-
-                String response = handleRequest(request);
-                out.println(response);
+            BinaryProtocol binary = null;
+            while (true) {
+                if (binary != null) {
+                    JsonObject request = binary.readRequest(in);
+                    if (request == null) {
+                        break;
+                    }
+                    handlePipelined(out, request, binary);
+                    continue;
+                }
+
+                String request = BinaryProtocol.readLine(in);
+                if (request == null) {
+                    break;
+                }
+                log.trace("Request: {}", request);
+
+                JsonObject jsonRequest = RequestHandler.parse(request);
+                if (BinaryProtocol.isHello(jsonRequest)) {
+                    binary = new BinaryProtocol();
+                    send(out, BinaryProtocol.helloAccepted().toString());
+                    log.debug("Switched to binary protocol");
+                } else if (RequestHandler.isPipelined(jsonRequest)) {
+                    handlePipelined(out, jsonRequest, null);
+                } else if (jsonRequest != null) {
+                    send(out, requestHandler.handleRequest(jsonRequest));
+                } else {
+                    send(out, requestHandler.handleRequest(request));
+                }
             }
+
+            // Answer everything still in flight before closing
+            pipelinePermits.acquireUninterruptibly(RequestHandler.MAX_PIPELINED);
         } catch (IOException e) {
-            System.err.println(String.format("[Client %d] Error: %s",
-                    clientId, e.getMessage()));
+            log.warn("Connection error: {}", e.getMessage());
         } finally {
             cleanup();
+            MDC.remove("clientId");
         }
     }
 
-    private String handleRequest(String request) {
-        try {
-            JsonObject jsonRequest = gson.fromJson(request, JsonObject.class);
-            String action = jsonRequest.get("action").getAsString();
-
-            switch (action) {
-                case "SEARCH":
-                    return handleSearch(jsonRequest);
-                case "RECOMMEND":
-                    return handleRecommend(jsonRequest);
-                default:
-                    return createErrorResponse("Unknown action: " + action);
-            }
-        } catch (Exception e) {
-            return createErrorResponse("Error: " + e.getMessage());
+    /**
+     * Handle a tagged request on its own virtual thread, answering as JSON or, if binary is set, as a frame
+     */
+    private void handlePipelined(OutputStream out, JsonObject request, BinaryProtocol binary) throws IOException {
+        if (!pipelinePermits.tryAcquire()) {
+            Response busy = requestHandler.busy();
+            busy.setId(request.get("id"));
+            send(out, busy, binary);
+            return;
         }
+        PIPELINE.execute(() -> {
+            MDC.put("clientId", clientId);
+            try {
+                send(out, requestHandler.handle(request), binary);
+            } catch (IOException e) {
+                log.warn("Failed to send response: {}", e.getMessage());
+            } finally {
+                pipelinePermits.release();
+                MDC.remove("clientId");
+            }
+        });
     }
 
-    private String handleSearch(JsonObject request) {
+    private void send(OutputStream out, Response response, BinaryProtocol binary) throws IOException {
+        if (binary == null) {
+            send(out, RequestHandler.encode(response));
+            return;
+        }
+        writeLock.lock();
         try {
-            String query = request.get("query").getAsString();
-            int limit = request.has("limit") ? request.get("limit").getAsInt() : 20;
-
-            List<Track> tracks = apiClient.searchTracks(query, limit);
-
-            JsonObject response = new JsonObject();
-            response.addProperty("status", "success");
-            response.addProperty("action", "SEARCH");
-            response.add("data", gson.toJsonTree(tracks));
-
-            return gson.toJson(response);
-        } catch (IOException e) {
-            return createErrorResponse("Search failed: " + e.getMessage());
+            binary.writeResponse(out, response);
+        } finally {
+            writeLock.unlock();
         }
     }
 
-    private String handleRecommend(JsonObject request) {
+    private void send(OutputStream out, String response) throws IOException {
+        writeLock.lock();
         try {
-            // Get the seed track details
-            String trackId = request.get("trackId").getAsString();
-            String trackName = request.get("trackName").getAsString();
-            String trackArtist = request.get("trackArtist").getAsString();
-            String trackAlbum = request.get("trackAlbum").getAsString();
-
-            int count = request.has("count") ? request.get("count").getAsInt() : 10;
-
-            // Create seed track object
-            Track seedTrack = new Track(trackId, trackName,
-                    List.of(trackArtist), trackAlbum);
-
-            // Get recommendations using our custom algorithm
-            List<Track> recommendations = recommendationEngine.getRecommendations(
-                    seedTrack, count);
-
-            JsonObject response = new JsonObject();
-            response.addProperty("status", "success");
-            response.addProperty("action", "RECOMMEND");
-            response.add("data", gson.toJsonTree(recommendations));
-
-            return gson.toJson(response);
-        } catch (IOException e) {
-            return createErrorResponse("Recommendation failed: " + e.getMessage());
+            BinaryProtocol.writeLine(out, response);
+        } finally {
+            writeLock.unlock();
         }
     }
 
-    private String createErrorResponse(String message) {
-        JsonObject response = new JsonObject();
-        response.addProperty("status", "error");
-        response.addProperty("message", message);
-        return gson.toJson(response);
+    /**
+     * Connections currently being served by ClientHandlers in this process
+     */
+    public static int getOpenConnections() {
+        return openConnections.get();
     }
 
     private void cleanup() {
+        openConnections.decrementAndGet();
         try {
             clientSocket.close();
-            System.out.println(String.format("[Client %d] Disconnected", clientId));
+            log.debug("Disconnected");
         } catch (IOException e) {
-            e.printStackTrace();
+            log.warn("Failed to close connection", e);
         }
     }
 }
\ No newline at end of file
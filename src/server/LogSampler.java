@@ -0,0 +1,19 @@
+package server;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lets through one in every N routine events, so per-request logging stays cheap under load
+ */
+class LogSampler {
+    private final int every;
+    private final AtomicLong events = new AtomicLong();
+
+    LogSampler(int every) {
+        this.every = Math.max(1, every);
+    }
+
+    boolean sample() {
+        return events.getAndIncrement() % every == 0;
+    }
+}
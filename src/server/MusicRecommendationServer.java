@@ -1,57 +1,416 @@
 package server;
 
+import metrics.MetricsRegistry;
+import metrics.MetricsServer;
+import model.AccessTokenManager;
+import model.ArtistIndex;
+import model.CachingSpotifyAPI;
+import model.HttpPoolConfig;
+import model.RecommendationCache;
+import model.RecommendationEngine;
+import model.RequestBatcher;
+import model.RequestScheduler;
+import model.ScoringPipeline;
 import model.SpotifyAPIClient;
+import model.RecordingSpotifyAPI;
+import model.SpotifyAPI;
+import model.StrategyRegistry;
+import model.TieredCache;
+import model.TrackStore;
 import config.Config;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.net.ServerSocket;
 import java.net.Socket;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
- * Multi-threaded server that handles multiple client connections
+ * Multi-threaded server that handles multiple client connections.
+ *
+ * By default each connection holds one of WORKER_THREADS platform threads for its whole life.
+ * With -Drecommender.virtualThreads=true each connection gets its own virtual thread instead,
+ * so idle connections cost almost nothing; -Drecommender.maxConnections caps how many are served
+ * at once (further clients wait in the accept backlog).
+ * With -Drecommender.nio=true a single selector thread owns all sockets (NioServer) and only
+ * requests being handled occupy a worker.
+ *
+ * Overload is refused rather than queued without bound: the worker pool queues at most
+ * QUEUE_CAPACITY tasks (further connections, or NIO requests, get a BUSY answer), and an
+ * AdmissionController shared by all connections limits requests in flight, tracking how long
+ * they take so the limit shrinks when Spotify slows down.
+ *
+ * All connections share one RequestHandler and so one RecommendationEngine: every strategy in
+ * StrategyRegistry is built once, "indexed" only with -Drecommender.artistIndex=<file>.
+ * -Drecommender.strategy=<name> picks the default (artist); getEngine().setStrategy(name)
+ * swaps it while running. "scored" ranks by weighted signals, set with
+ * -Drecommender.scoringWeights=popularity=1,overlap=0.5,... (ScoringPipeline.fromWeights).
+ * Results are memoized per seed and strategy (RecommendationCache), so clients asking about the
+ * same popular seed share one computation.
+ *
+ * With -Drecommender.trackStore=<dir> every track fetched from Spotify is also recorded in a
+ * memory-mapped TrackStore, which answers track lookups by ID, so a restarted server starts warm.
+ *
+ * With -Drecommender.metricsPort=<port> the metrics (request, strategy and Spotify latency
+ * histograms, error and cache counters, connection and queue gauges) are served for Prometheus
+ * at http://localhost:<port>/metrics.
  */
 public class MusicRecommendationServer {
+    private static final Logger log = LoggerFactory.getLogger(MusicRecommendationServer.class);
+    private static final int WORKER_THREADS = 10;
+    private static final int QUEUE_CAPACITY = 50;
+    private static final int DEFAULT_MAX_CONNECTIONS = 10_000;
+    private static final Duration PINNING_THRESHOLD = Duration.ofMillis(20);
+
     private final int port;
     private final SpotifyAPIClient apiClient;
+    private final TrackStore trackStore;
+    private final CachingSpotifyAPI cachedApi;
     private final ExecutorService threadPool;
+    private final AdmissionController admission;
+    private final RecommendationEngine engine;
+    private final RequestHandler requestHandler;
+    private final boolean virtualThreads;
+    private final int maxConnections;
+    private final Semaphore connectionPermits;
+    private final PinningMonitor pinningMonitor;
+    private volatile NioServer nioServer;
+    private MetricsServer metricsServer;
     private volatile boolean running;
+    private final AtomicBoolean shutDown = new AtomicBoolean();
 
     public MusicRecommendationServer(int port) {
+        this(port, Boolean.getBoolean("recommender.virtualThreads"),
+                Integer.getInteger("recommender.maxConnections", DEFAULT_MAX_CONNECTIONS));
+    }
+
+    /**
+     * @param virtualThreads Run each connection on its own virtual thread instead of the fixed pool
+     * @param maxConnections Most connections served at once in virtual-thread mode
+     */
+    public MusicRecommendationServer(int port, boolean virtualThreads, int maxConnections) {
         this.port = port;
-        this.apiClient = new SpotifyAPIClient();
-        this.threadPool = Executors.newFixedThreadPool(10);
+        this.apiClient = new SpotifyAPIClient(HttpPoolConfig.forWorkerThreads(WORKER_THREADS));
+        this.trackStore = openTrackStore();
+        this.cachedApi = createCache(trackStore != null ? new RecordingSpotifyAPI(apiClient, trackStore) : apiClient);
+        this.virtualThreads = virtualThreads;
+        this.maxConnections = maxConnections;
+        this.admission = new AdmissionController(WORKER_THREADS * 2, 2, WORKER_THREADS * 20);
+        this.engine = createEngine(cachedApi);
+        this.requestHandler = new RequestHandler(cachedApi, engine, admission);
+        if (virtualThreads) {
+            this.threadPool = Executors.newVirtualThreadPerTaskExecutor();
+            this.connectionPermits = new Semaphore(maxConnections);
+            this.pinningMonitor = new PinningMonitor(PINNING_THRESHOLD);
+        } else {
+            this.threadPool = new ThreadPoolExecutor(WORKER_THREADS, WORKER_THREADS, 0L, TimeUnit.MILLISECONDS,
+                    new ArrayBlockingQueue<>(QUEUE_CAPACITY));
+            this.connectionPermits = null;
+            this.pinningMonitor = null;
+        }
         this.running = false;
     }
 
     public void start() throws IOException {
-        System.out.println("Authenticating with Spotify API...");
+        log.info("Authenticating with Spotify API...");
         apiClient.authenticate();
 
         running = true;
+        registerMetrics(MetricsRegistry.getDefault());
+        Integer metricsPort = Integer.getInteger("recommender.metricsPort");
+        if (metricsPort != null) {
+            metricsServer = new MetricsServer(metricsPort, MetricsRegistry.getDefault());
+            log.info("Metrics available at http://localhost:{}/metrics", metricsServer.getPort());
+        }
+
+        if (Boolean.getBoolean("recommender.nio")) {
+            startNio();
+            return;
+        }
 
         try (ServerSocket serverSocket = new ServerSocket(port)) {
-            System.out.println("Music Recommendation Server started on port " + port);
-            System.out.println("Waiting for client connections...");
+            if (virtualThreads) {
+                log.info("Music Recommendation Server started on port {} (virtual threads, max {} connections)",
+                        port, maxConnections);
+            } else {
+                log.info("Music Recommendation Server started on port {}", port);
+            }
 
             while (running) {
-                Socket clientSocket = serverSocket.accept();
-                ClientHandler handler = new ClientHandler(clientSocket, apiClient);
-                threadPool.execute(handler);
+                if (virtualThreads) {
+                    acceptVirtual(serverSocket);
+                } else {
+                    Socket clientSocket = serverSocket.accept();
+                    ClientHandler handler = new ClientHandler(clientSocket, requestHandler);
+                    try {
+                        threadPool.execute(handler);
+                    } catch (RejectedExecutionException e) {
+                        ClientHandler.rejectBusy(clientSocket, admission.getRetryAfterMs());
+                    }
+                }
             }
         } finally {
             shutdown();
         }
     }
 
+    private void startNio() throws IOException {
+        nioServer = new NioServer(port, requestHandler, threadPool, maxConnections);
+        log.info("Music Recommendation Server started on port {} (NIO, max {} connections)", port, maxConnections);
+        try {
+            nioServer.run();
+        } finally {
+            shutdown();
+        }
+    }
+
+    /**
+     * Take a connection permit before accepting, so clients over the cap queue in the
+     * OS backlog instead of holding sockets and threads
+     */
+    private void acceptVirtual(ServerSocket serverSocket) throws IOException {
+        connectionPermits.acquireUninterruptibly();
+        Socket clientSocket;
+        try {
+            clientSocket = serverSocket.accept();
+        } catch (IOException e) {
+            connectionPermits.release();
+            throw e;
+        }
+
+        ClientHandler handler = new ClientHandler(clientSocket, requestHandler);
+        threadPool.execute(() -> {
+            try {
+                handler.run();
+            } finally {
+                connectionPermits.release();
+            }
+        });
+    }
+
+    /**
+     * Gauges and counters read from state the server's parts already keep
+     */
+    private void registerMetrics(MetricsRegistry metrics) {
+        metrics.gauge("recommender_open_connections", "Client connections currently open",
+                () -> nioServer != null ? nioServer.getOpenConnections() : ClientHandler.getOpenConnections());
+        if (threadPool instanceof ThreadPoolExecutor) {
+            ThreadPoolExecutor pool = (ThreadPoolExecutor) threadPool;
+            metrics.gauge("recommender_worker_queue_depth", "Tasks waiting for a worker thread",
+                    () -> pool.getQueue().size());
+            metrics.gauge("recommender_active_workers", "Worker threads busy", pool::getActiveCount);
+        }
+
+        metrics.gauge("recommender_admission_limit", "Current adaptive concurrency limit", admission::getLimit);
+        metrics.gauge("recommender_admission_in_flight", "Requests currently admitted", admission::getInFlight);
+
+        RequestScheduler scheduler = apiClient.getScheduler();
+        metrics.gauge("recommender_spotify_queue_depth", "Spotify requests waiting for a rate-limit token",
+                scheduler::getQueued);
+        metrics.counter("recommender_spotify_throttled_total", "429 responses from Spotify",
+                null, "", scheduler::getThrottledResponses);
+        metrics.counter("recommender_spotify_retries_total", "Spotify requests retried",
+                null, "", scheduler::getRetries);
+        metrics.counter("recommender_spotify_deduplicated_total", "Spotify reads that joined an identical call",
+                null, "", apiClient::getDeduplicatedCalls);
+        registerBatcher(metrics, "tracks", apiClient.getTrackBatcher());
+        registerBatcher(metrics, "artists", apiClient.getArtistBatcher());
+
+        AccessTokenManager tokens = apiClient.getTokenManager();
+        metrics.counter("recommender_token_refreshes_total", "Spotify access tokens fetched",
+                null, "", tokens::getRefreshCount);
+        metrics.counter("recommender_token_refresh_failures_total", "Spotify access token fetches that failed",
+                null, "", tokens::getRefreshFailures);
+        metrics.gauge("recommender_token_refresh_last_latency_milliseconds", "Time taken by the last token fetch",
+                tokens::getLastRefreshLatencyMs);
+        metrics.gauge("recommender_token_refresh_average_latency_milliseconds", "Mean time taken by a token fetch",
+                () -> Math.round(tokens.getAverageRefreshLatencyMs()));
+
+        for (TieredCache<?> cache : List.of(cachedApi.getSearchCache(), cachedApi.getArtistIdCache(),
+                cachedApi.getTopTracksCache(), cachedApi.getRelatedArtistsCache())) {
+            metrics.counter("recommender_cache_hits_total", "Fresh cache hits, by cache",
+                    "cache", cache.getName(), cache::getHits);
+            metrics.counter("recommender_cache_stale_hits_total", "Stale cache hits served while refreshing, by cache",
+                    "cache", cache.getName(), cache::getStaleHits);
+            metrics.counter("recommender_cache_misses_total", "Cache misses, by cache",
+                    "cache", cache.getName(), cache::getMisses);
+        }
+
+        RecommendationCache results = engine.getResultCache();
+        metrics.counter("recommender_result_cache_hits_total", "Recommendations answered from the result cache",
+                null, "", results::getHits);
+        metrics.counter("recommender_result_cache_misses_total", "Recommendations computed by a strategy",
+                null, "", results::getMisses);
+        metrics.counter("recommender_result_cache_saved_milliseconds_total",
+                "Strategy time avoided by result cache hits", null, "", () -> results.getSavedNanos() / 1_000_000);
+
+        if (trackStore != null) {
+            metrics.gauge("recommender_track_store_tracks", "Tracks in the on-disk track store", trackStore::size);
+        }
+
+        if (pinningMonitor != null) {
+            metrics.counter("recommender_pinned_virtual_threads_total", "Virtual threads pinned while blocking",
+                    null, "", pinningMonitor::getPinnedEvents);
+        }
+    }
+
+    private static void registerBatcher(MetricsRegistry metrics, String kind, RequestBatcher<?> batcher) {
+        metrics.counter("recommender_spotify_batched_lookups_total", "Lookups by ID gathered into batches, by kind",
+                "kind", kind, batcher::getLookups);
+        metrics.counter("recommender_spotify_batches_total", "Multi-ID calls sent to Spotify, by kind",
+                "kind", kind, batcher::getBatches);
+    }
+
+    /**
+     * Responses are cached in the heap; set -Drecommender.cacheDir=<dir> to also keep them on disk across restarts
+     */
+    private static CachingSpotifyAPI createCache(SpotifyAPI api) {
+        String cacheDir = System.getProperty("recommender.cacheDir");
+        if (cacheDir == null) {
+            return new CachingSpotifyAPI(api);
+        }
+
+        try {
+            return CachingSpotifyAPI.withDiskTier(api, Paths.get(cacheDir));
+        } catch (IOException e) {
+            log.warn("Disk cache unavailable, caching in memory only: {}", e.getMessage());
+            return new CachingSpotifyAPI(api);
+        }
+    }
+
+    /**
+     * The track store under -Drecommender.trackStore=<dir>, or null when unset or unusable
+     */
+    private static TrackStore openTrackStore() {
+        String storeDir = System.getProperty("recommender.trackStore");
+        if (storeDir == null) {
+            return null;
+        }
+
+        try {
+            TrackStore store = TrackStore.open(Paths.get(storeDir));
+            log.info("Track store opened with {} tracks", store.size());
+            return store;
+        } catch (IOException e) {
+            log.warn("Track store unavailable, tracks will not be recorded: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private static RecommendationEngine createEngine(CachingSpotifyAPI cachedApi) {
+        ArtistIndex artistIndex = null;
+        String indexPath = System.getProperty("recommender.artistIndex");
+        if (indexPath != null) {
+            try {
+                artistIndex = ArtistIndex.open(Paths.get(indexPath));
+            } catch (IOException e) {
+                log.warn("Artist index unavailable, \"indexed\" strategy disabled: {}", e.getMessage());
+            }
+        }
+
+        ScoringPipeline scoring = ScoringPipeline.standard();
+        String weights = System.getProperty("recommender.scoringWeights");
+        if (weights != null) {
+            try {
+                scoring = ScoringPipeline.fromWeights(weights);
+            } catch (IllegalArgumentException e) {
+                log.warn("Bad scoring weights, using {}: {}", ScoringPipeline.DEFAULT_WEIGHTS, e.getMessage());
+            }
+        }
+
+        StrategyRegistry registry = StrategyRegistry.standard(artistIndex, scoring);
+        String defaultStrategy = System.getProperty("recommender.strategy", StrategyRegistry.ARTIST);
+        if (registry.get(defaultStrategy) == null) {
+            log.warn("Unknown strategy {}, using {}", defaultStrategy, StrategyRegistry.ARTIST);
+            defaultStrategy = StrategyRegistry.ARTIST;
+        }
+        return new RecommendationEngine(registry, defaultStrategy, cachedApi, new RecommendationCache());
+    }
+
+    public SpotifyAPIClient getApiClient() {
+        return apiClient;
+    }
+
+    public CachingSpotifyAPI getCachedApi() {
+        return cachedApi;
+    }
+
+    /**
+     * The on-disk track store, or null without -Drecommender.trackStore
+     */
+    public TrackStore getTrackStore() {
+        return trackStore;
+    }
+
+    /**
+     * The engine every connection uses; setStrategy on it changes the default for all of them
+     */
+    public RecommendationEngine getEngine() {
+        return engine;
+    }
+
+    public AdmissionController getAdmission() {
+        return admission;
+    }
+
+    /**
+     * Connections currently being served in virtual-thread mode (0 in pool mode)
+     */
+    public int getActiveConnections() {
+        if (connectionPermits == null) {
+            return 0;
+        }
+        return maxConnections - connectionPermits.availablePermits();
+    }
+
+    /**
+     * Pinned virtual-thread blocking calls seen so far, or -1 when not running on virtual threads
+     */
+    public long getPinnedEvents() {
+        return pinningMonitor != null ? pinningMonitor.getPinnedEvents() : -1;
+    }
+
+    /**
+     * Stop serving and release resources; runs once, whether from start() or the shutdown hook
+     */
     public void shutdown() {
+        if (!shutDown.compareAndSet(false, true)) {
+            return;
+        }
         running = false;
+        if (metricsServer != null) {
+            metricsServer.close();
+        }
+        if (nioServer != null) {
+            nioServer.shutdown();
+        }
         threadPool.shutdown();
+        if (pinningMonitor != null) {
+            pinningMonitor.close();
+        }
+        cachedApi.close();
         try {
             apiClient.close();
         } catch (IOException e) {
-            e.printStackTrace();
+            log.warn("Failed to close Spotify client", e);
+        }
+        if (trackStore != null) {
+            try {
+                trackStore.close();
+            } catch (IOException e) {
+                log.warn("Failed to close track store", e);
+            }
         }
     }
 
@@ -62,8 +421,7 @@ public class MusicRecommendationServer {
         try {
             server.start();
         } catch (IOException e) {
-            System.err.println("Failed to start server: " + e.getMessage());
-            e.printStackTrace();
+            log.error("Failed to start server", e);
         }
     }
 }
\ No newline at end of file
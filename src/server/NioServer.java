@@ -0,0 +1,394 @@
+package server;
+
+import com.google.gson.JsonObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Non-blocking front end: one selector thread owns every socket, frames newline-delimited
+ * requests and writes responses, while a worker pool runs RequestHandler.
+ *
+ * Idle connections cost only their channel and key, not a thread. Untagged requests on one
+ * connection are handled one at a time, in order, exactly as with ClientHandler; requests tagged
+ * with an "id" run concurrently (up to MAX_PIPELINED per connection) and are answered as they
+ * complete. When the worker pool's queue is full, requests are answered BUSY at once.
+ *
+ * All connection state is touched only by the selector thread; workers hand results back through
+ * a queue and wake the selector.
+ */
+public class NioServer implements Runnable {
+    private static final Logger log = LoggerFactory.getLogger(NioServer.class);
+    private static final int READ_BUFFER_SIZE = 64 * 1024;
+    private static final int MAX_FRAME_BYTES = 1024 * 1024;
+    // Stop reading from a client that has this many requests waiting to be handled
+    private static final int MAX_QUEUED_FRAMES = 32;
+    // ... or this many response bytes it has not taken off the socket yet
+    private static final int MAX_QUEUED_WRITE_BYTES = 1024 * 1024;
+
+    private final RequestHandler requestHandler;
+    private final ExecutorService workers;
+    private final int maxConnections;
+    private final Selector selector;
+    private final ServerSocketChannel serverChannel;
+    private final SelectionKey acceptKey;
+    // Shared by all connections: only the selector thread reads into it
+    private final ByteBuffer readBuffer = ByteBuffer.allocateDirect(READ_BUFFER_SIZE);
+    private final Queue<Runnable> selectorTasks = new ConcurrentLinkedQueue<>();
+    private int openConnections;
+    private volatile boolean running;
+
+    /**
+     * Bind the listening socket; call run() to start serving
+     *
+     * @param port Port to listen on, 0 for any free port
+     * @param workers Pool that runs the (blocking) request handling
+     * @param maxConnections Connections served at once; new clients wait in the accept backlog
+     */
+    public NioServer(int port, RequestHandler requestHandler, ExecutorService workers, int maxConnections)
+            throws IOException {
+        this.requestHandler = requestHandler;
+        this.workers = workers;
+        this.maxConnections = maxConnections;
+        this.selector = Selector.open();
+        this.serverChannel = ServerSocketChannel.open();
+        serverChannel.bind(new InetSocketAddress(port), 1024);
+        serverChannel.configureBlocking(false);
+        this.acceptKey = serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+    }
+
+    public int getLocalPort() {
+        return serverChannel.socket().getLocalPort();
+    }
+
+    /**
+     * Serve until shutdown() is called
+     */
+    @Override
+    public void run() {
+        running = true;
+        try {
+            while (running) {
+                selector.select();
+                runSelectorTasks();
+
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    if (!key.isValid()) {
+                        continue;
+                    }
+
+                    if (key.isAcceptable()) {
+                        try {
+                            accept();
+                        } catch (IOException e) {
+                            // e.g. out of file descriptors: keep serving the clients we have
+                            log.warn("Accept failed: {}", e.getMessage());
+                        }
+                    } else {
+                        Connection connection = (Connection) key.attachment();
+                        if (key.isReadable()) {
+                            connection.read();
+                        }
+                        if (key.isValid() && key.isWritable()) {
+                            connection.write();
+                        }
+                    }
+                }
+            }
+        } catch (IOException | ClosedSelectorException e) {
+            if (running) {
+                log.error("NIO server stopped: {}", e.getMessage());
+            }
+        } finally {
+            closeAll();
+        }
+    }
+
+    public void shutdown() {
+        running = false;
+        selector.wakeup();
+    }
+
+    /**
+     * Connections currently open; only approximate when read from outside the selector thread
+     */
+    public int getOpenConnections() {
+        return openConnections;
+    }
+
+    private void accept() throws IOException {
+        SocketChannel channel;
+        while (openConnections < maxConnections && (channel = serverChannel.accept()) != null) {
+            channel.configureBlocking(false);
+            channel.socket().setTcpNoDelay(true);
+            SelectionKey key = channel.register(selector, SelectionKey.OP_READ);
+            key.attach(new Connection(channel, key));
+            openConnections++;
+        }
+
+        if (openConnections >= maxConnections) {
+            acceptKey.interestOps(0);
+        }
+    }
+
+    private void runSelectorTasks() {
+        Runnable task;
+        while ((task = selectorTasks.poll()) != null) {
+            task.run();
+        }
+    }
+
+    private void closeAll() {
+        for (SelectionKey key : selector.keys()) {
+            if (key.attachment() instanceof Connection) {
+                ((Connection) key.attachment()).close();
+            }
+        }
+        try {
+            serverChannel.close();
+            selector.close();
+        } catch (IOException e) {
+            log.warn("Failed to close NIO server", e);
+        }
+    }
+
+    /**
+     * Per-client framing and write state, owned by the selector thread
+     */
+    private final class Connection {
+        final SocketChannel channel;
+        final SelectionKey key;
+        final Queue<String> frames = new ArrayDeque<>();
+        final Queue<ByteBuffer> writes = new ArrayDeque<>();
+        long queuedWriteBytes;
+        // Parsed form of frames.peek(), so a request waiting for a slot is parsed only once
+        JsonObject head;
+        // Bytes of a request line that has not seen its newline yet; allocated only when needed
+        ByteArrayOutputStream partial;
+        boolean handling;
+        int pipelined;
+        boolean inputClosed;
+        boolean closed;
+
+        Connection(SocketChannel channel, SelectionKey key) {
+            this.channel = channel;
+            this.key = key;
+        }
+
+        void read() {
+            int read;
+            try {
+                readBuffer.clear();
+                read = channel.read(readBuffer);
+            } catch (IOException e) {
+                close();
+                return;
+            }
+
+            if (read < 0) {
+                // Client is done sending; answer what it already sent (like readLine(), a final
+                // line without a newline still counts), then close
+                inputClosed = true;
+                if (partial != null) {
+                    frames.add(new String(partial.toByteArray(), StandardCharsets.UTF_8));
+                    partial = null;
+                    dispatchNext();
+                }
+                key.interestOps(key.interestOps() & ~SelectionKey.OP_READ);
+                closeIfDone();
+                return;
+            }
+
+            readBuffer.flip();
+            if (!frame()) {
+                close();
+                return;
+            }
+            dispatchNext();
+            updateInterest();
+        }
+
+        /**
+         * Split the read buffer into request lines; false if a line is too long
+         */
+        boolean frame() {
+            int start = readBuffer.position();
+            for (int i = start; i < readBuffer.limit(); i++) {
+                if (readBuffer.get(i) == '\n') {
+                    frames.add(decode(start, i));
+                    start = i + 1;
+                }
+            }
+
+            if (start < readBuffer.limit()) {
+                if (partial == null) {
+                    partial = new ByteArrayOutputStream();
+                }
+                for (int i = start; i < readBuffer.limit(); i++) {
+                    partial.write(readBuffer.get(i));
+                }
+                return partial.size() <= MAX_FRAME_BYTES;
+            }
+            return true;
+        }
+
+        String decode(int start, int end) {
+            byte[] bytes;
+            int length = end - start;
+            if (partial != null) {
+                for (int i = start; i < end; i++) {
+                    partial.write(readBuffer.get(i));
+                }
+                bytes = partial.toByteArray();
+                length = bytes.length;
+                partial = null;
+            } else {
+                bytes = new byte[length];
+                readBuffer.get(start, bytes);
+            }
+
+            // Same line semantics as BufferedReader.readLine(): drop a trailing \r
+            if (length > 0 && bytes[length - 1] == '\r') {
+                length--;
+            }
+            return new String(bytes, 0, length, StandardCharsets.UTF_8);
+        }
+
+        /**
+         * Hand waiting requests to workers, oldest first: an untagged request waits until the
+         * previous untagged one is answered, a tagged one until the connection has a free slot
+         */
+        void dispatchNext() {
+            while (!closed && !frames.isEmpty()) {
+                if (head == null) {
+                    head = RequestHandler.parse(frames.peek());
+                }
+                boolean tagged = RequestHandler.isPipelined(head);
+                if (tagged ? pipelined >= RequestHandler.MAX_PIPELINED : handling) {
+                    return;
+                }
+
+                String line = frames.poll();
+                JsonObject request = head;
+                head = null;
+                if (tagged) {
+                    pipelined++;
+                } else {
+                    handling = true;
+                }
+
+                try {
+                    workers.execute(() -> {
+                        String response = request != null
+                                ? requestHandler.handleRequest(request)
+                                : requestHandler.handleRequest(line);
+                        selectorTasks.add(() -> onResponse(response, tagged));
+                        selector.wakeup();
+                    });
+                } catch (RejectedExecutionException e) {
+                    if (workers.isShutdown()) {
+                        close();
+                        return;
+                    }
+                    // Worker queue is full: answer BUSY on the next selector pass rather than queueing more
+                    String busy = requestHandler.busyResponse(request);
+                    selectorTasks.add(() -> onResponse(busy, tagged));
+                    selector.wakeup();
+                }
+            }
+        }
+
+        void onResponse(String response, boolean tagged) {
+            if (tagged) {
+                pipelined--;
+            } else {
+                handling = false;
+            }
+            if (closed) {
+                return;
+            }
+
+            byte[] bytes = (response + "\n").getBytes(StandardCharsets.UTF_8);
+            writes.add(ByteBuffer.wrap(bytes));
+            queuedWriteBytes += bytes.length;
+            write();
+            dispatchNext();
+            updateInterest();
+        }
+
+        void write() {
+            try {
+                while (!writes.isEmpty()) {
+                    ByteBuffer buffer = writes.peek();
+                    queuedWriteBytes -= channel.write(buffer);
+                    if (buffer.hasRemaining()) {
+                        break;
+                    }
+                    writes.poll();
+                }
+            } catch (IOException e) {
+                close();
+                return;
+            }
+            updateInterest();
+            closeIfDone();
+        }
+
+        void updateInterest() {
+            if (closed) {
+                return;
+            }
+            int ops = 0;
+            // A client that sends faster than it reads is not read from until it catches up
+            if (!inputClosed && frames.size() < MAX_QUEUED_FRAMES && queuedWriteBytes < MAX_QUEUED_WRITE_BYTES) {
+                ops |= SelectionKey.OP_READ;
+            }
+            if (!writes.isEmpty()) {
+                ops |= SelectionKey.OP_WRITE;
+            }
+            key.interestOps(ops);
+        }
+
+        void closeIfDone() {
+            if (inputClosed && !handling && pipelined == 0 && frames.isEmpty() && writes.isEmpty()) {
+                close();
+            }
+        }
+
+        void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            key.cancel();
+            try {
+                channel.close();
+            } catch (IOException ignored) {
+            }
+
+            openConnections--;
+            if (running && acceptKey.isValid()) {
+                acceptKey.interestOps(SelectionKey.OP_ACCEPT);
+            }
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package server;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Watches for virtual threads that block while pinned to their carrier thread.
+ *
+ * A pinned virtual thread holds a carrier for the whole blocking call, so a handful of them
+ * can stall every other connection. Each pinned event longer than the threshold is counted
+ * and logged with the frames that caused it.
+ */
+public class PinningMonitor implements AutoCloseable {
+    private static final Logger log = LoggerFactory.getLogger(PinningMonitor.class);
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    private static final int LOGGED_FRAMES = 8;
+
+    private final RecordingStream stream;
+    private final LongAdder pinnedEvents = new LongAdder();
+
+    public PinningMonitor(Duration threshold) {
+        this.stream = new RecordingStream();
+        stream.enable(PINNED_EVENT).withThreshold(threshold).withStackTrace();
+        stream.onEvent(PINNED_EVENT, this::onPinned);
+        stream.startAsync();
+    }
+
+    private void onPinned(RecordedEvent event) {
+        pinnedEvents.increment();
+        if (!log.isWarnEnabled()) {
+            return;
+        }
+
+        StringBuilder message = new StringBuilder(String.format(
+                "Virtual thread #%d pinned its carrier for %dms",
+                event.getThread() != null ? event.getThread().getJavaThreadId() : -1, event.getDuration().toMillis()));
+        if (event.getStackTrace() != null) {
+            List<RecordedFrame> frames = event.getStackTrace().getFrames();
+            for (RecordedFrame frame : frames.subList(0, Math.min(LOGGED_FRAMES, frames.size()))) {
+                message.append(String.format("%n    at %s.%s(line %d)",
+                        frame.getMethod().getType().getName(), frame.getMethod().getName(), frame.getLineNumber()));
+            }
+        }
+        log.warn(message.toString());
+    }
+
+    /**
+     * Pinned blocking calls seen since the monitor started
+     */
+    public long getPinnedEvents() {
+        return pinnedEvents.sum();
+    }
+
+    @Override
+    public void close() {
+        stream.close();
+    }
+}
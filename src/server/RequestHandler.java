@@ -0,0 +1,327 @@
+package server;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import metrics.Counter;
+import metrics.LatencyHistogram;
+import metrics.MetricsRegistry;
+import model.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Turns one JSON request line into one JSON response line.
+ * Holds no socket state, so it can be driven in-process (benchmarks) as well as by ClientHandler.
+ *
+ * A request may carry an "id" (any JSON value). Its response echoes the id, and servers may answer
+ * such requests concurrently and out of order; requests without an id are answered in order.
+ *
+ * A RECOMMEND request needs only "trackId": without "trackName" the seed's details are fetched
+ * from Spotify (batched with other lookups by ID). A RECOMMEND request may also name a "strategy"
+ * registered with the engine (see StrategyRegistry); without one the engine's current default is used.
+ *
+ * A request may also carry "deadlineMs": how long the client will wait (0 for no limit). Spotify
+ * calls still running when it passes are cancelled, and the response is marked "partial" with
+ * whatever was found in time.
+ *
+ * With an AdmissionController, SEARCH and RECOMMEND requests over its limit are answered at once
+ * with a BUSY error instead of queueing behind a slow Spotify, and the time each admitted request
+ * takes feeds back into the limit.
+ *
+ * Each handled request may be logged to "server.requests" with the fields action, latencyMs and
+ * status in the MDC (alongside clientId, set by the connection). Failures, BUSY answers and slow
+ * requests are always logged; others are sampled, 1 in -Drecommender.logSampleEvery (default 100).
+ */
+public class RequestHandler {
+    // Tagged requests a connection may have in flight; past that the next one is answered BUSY
+    static final int MAX_PIPELINED = 16;
+
+    // Gson is thread-safe and caches type adapters; one per connection is wasted heap
+    private static final Gson gson = new Gson();
+    private static final long DEFAULT_RETRY_AFTER_MS = 100;
+
+    private static final Logger requestLog = LoggerFactory.getLogger("server.requests");
+    private static final LogSampler sampler = new LogSampler(Integer.getInteger("recommender.logSampleEvery", 100));
+    private static final long SLOW_REQUEST_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private static final MetricsRegistry metrics = MetricsRegistry.getDefault();
+    private static final LatencyHistogram searchLatency = metrics.histogram("recommender_request_seconds",
+            "Time to handle a request, by action", "action", "SEARCH");
+    private static final LatencyHistogram recommendLatency = metrics.histogram("recommender_request_seconds",
+            "Time to handle a request, by action", "action", "RECOMMEND");
+    private static final Counter searchErrors = metrics.counter("recommender_request_errors_total",
+            "Requests answered with an error, by action", "action", "SEARCH");
+    private static final Counter recommendErrors = metrics.counter("recommender_request_errors_total",
+            "Requests answered with an error, by action", "action", "RECOMMEND");
+    private static final Counter partialResponses = metrics.counter("recommender_partial_responses_total",
+            "Responses cut short by the request deadline");
+    private static final Counter busyResponses = metrics.counter("recommender_busy_responses_total",
+            "Requests turned away by admission control");
+
+    private final SpotifyAPI apiClient;
+    private final RecommendationEngine recommendationEngine;
+    private final AdmissionController admission;
+
+    public RequestHandler(SpotifyAPI apiClient) {
+        this(apiClient, null);
+    }
+
+    /**
+     * @param admission Shared limit on requests handled at once, or null to admit everything
+     */
+    public RequestHandler(SpotifyAPI apiClient, AdmissionController admission) {
+        this(apiClient, new RecommendationEngine(StrategyRegistry.standard(null), StrategyRegistry.ARTIST, apiClient),
+                admission);
+    }
+
+    /**
+     * @param recommendationEngine Engine shared by every connection, so strategies keep their warm state
+     */
+    public RequestHandler(SpotifyAPI apiClient, RecommendationEngine recommendationEngine,
+                          AdmissionController admission) {
+        this.apiClient = apiClient;
+        this.recommendationEngine = recommendationEngine;
+        this.admission = admission;
+    }
+
+    public RecommendationEngine getRecommendationEngine() {
+        return recommendationEngine;
+    }
+
+    public String handleRequest(String request) {
+        JsonObject jsonRequest = parse(request);
+        if (jsonRequest == null) {
+            return encode(Response.error("Error: Malformed request"));
+        }
+        return handleRequest(jsonRequest);
+    }
+
+    /**
+     * Handle an already parsed request (see parse) and encode the answer as a JSON line
+     */
+    public String handleRequest(JsonObject request) {
+        return encode(handle(request));
+    }
+
+    /**
+     * A response as a JSON line (without the newline)
+     */
+    public static String encode(Response response) {
+        return gson.toJson(response.toJson(gson));
+    }
+
+    /**
+     * Handle an already parsed request, leaving the encoding to the caller
+     */
+    public Response handle(JsonObject request) {
+        long start = System.nanoTime();
+        String action = null;
+        Response response;
+        try {
+            action = request.get("action").getAsString();
+
+            switch (action) {
+                case "SEARCH":
+                case "RECOMMEND":
+                    response = admit(request, action);
+                    break;
+                default:
+                    response = Response.error("Unknown action: " + action);
+            }
+        } catch (Exception e) {
+            response = Response.error("Error: " + e.getMessage());
+        }
+
+        response.setId(request.get("id"));
+        logRequest(action, System.nanoTime() - start, response);
+        return response;
+    }
+
+    private static void logRequest(String action, long latencyNanos, Response response) {
+        boolean notable = !response.isSuccess() || latencyNanos >= SLOW_REQUEST_NANOS;
+        if (notable) {
+            if (!requestLog.isWarnEnabled()) {
+                return;
+            }
+        } else if (!requestLog.isInfoEnabled() || !sampler.sample()) {
+            return;
+        }
+
+        String status = response.isBusy() ? "busy" : !response.isSuccess() ? "error"
+                : response.isPartial() ? "partial" : "ok";
+        MDC.put("action", String.valueOf(action));
+        MDC.put("latencyMs", String.valueOf(TimeUnit.NANOSECONDS.toMillis(latencyNanos)));
+        MDC.put("status", status);
+        try {
+            if (!response.isSuccess()) {
+                requestLog.warn("Request failed: {}", response.getMessage());
+            } else if (notable) {
+                requestLog.warn("Slow request, {} tracks", response.getTracks().size());
+            } else {
+                requestLog.info("Handled request, {} tracks", response.getTracks().size());
+            }
+        } finally {
+            MDC.remove("action");
+            MDC.remove("latencyMs");
+            MDC.remove("status");
+        }
+    }
+
+    private Response admit(JsonObject request, String action) {
+        if (admission == null) {
+            return dispatch(request, action);
+        }
+        if (!admission.tryAcquire()) {
+            busyResponses.increment();
+            return busy();
+        }
+
+        long start = System.nanoTime();
+        Response response = null;
+        try {
+            response = dispatch(request, action);
+            return response;
+        } finally {
+            // Only upstream failures count against the limit; a malformed request throws and leaves response null
+            admission.release(System.nanoTime() - start, response != null && !response.isSuccess());
+        }
+    }
+
+    private Response dispatch(JsonObject request, String action) {
+        boolean search = action.equals("SEARCH");
+        long start = System.nanoTime();
+        Response response = search ? handleSearch(request) : handleRecommend(request);
+
+        (search ? searchLatency : recommendLatency).record(System.nanoTime() - start);
+        if (!response.isSuccess()) {
+            (search ? searchErrors : recommendErrors).increment();
+        } else if (response.isPartial()) {
+            partialResponses.increment();
+        }
+        return response;
+    }
+
+    /**
+     * A BUSY answer for a request the server will not take on right now
+     */
+    public Response busy() {
+        return Response.busy(admission != null ? admission.getRetryAfterMs() : DEFAULT_RETRY_AFTER_MS);
+    }
+
+    /**
+     * busy() as a JSON line, tagged with the request's id if it has one
+     */
+    public String busyResponse(JsonObject request) {
+        Response response = busy();
+        if (request != null) {
+            response.setId(request.get("id"));
+        }
+        return encode(response);
+    }
+
+    /**
+     * Parse a request line, or null if it is not a JSON object
+     */
+    public static JsonObject parse(String request) {
+        try {
+            return gson.fromJson(request, JsonObject.class);
+        } catch (JsonParseException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Whether the client tagged the request with an id and accepts its response out of order
+     */
+    public static boolean isPipelined(JsonObject request) {
+        return request != null && request.has("id");
+    }
+
+    /**
+     * The request's time budget, with its Spotify calls queued in the lane of its action.
+     * A deadlineMs of 0 means no limit, as in BinaryProtocol; a negative one is rejected.
+     */
+    private static Deadline deadline(JsonObject request, RequestScheduler.Lane lane) {
+        long deadlineMs = request.has("deadlineMs") ? request.get("deadlineMs").getAsLong() : 0;
+        if (deadlineMs < 0) {
+            throw new IllegalArgumentException("deadlineMs must not be negative: " + deadlineMs);
+        }
+        Deadline deadline = deadlineMs > 0 ? Deadline.after(deadlineMs) : Deadline.none();
+        return deadline.inLane(lane);
+    }
+
+    private static Response success(String action, List<Track> tracks, Deadline deadline) {
+        Response response = Response.success(action, tracks);
+        response.setPartial(deadline.isPartial());
+        return response;
+    }
+
+    /**
+     * Nothing was found before the deadline: an empty partial result rather than an upstream failure
+     */
+    private static Response timedOut(String action) {
+        Response response = Response.success(action, List.of());
+        response.setPartial(true);
+        return response;
+    }
+
+    private Response handleSearch(JsonObject request) {
+        try {
+            String query = request.get("query").getAsString();
+            int limit = request.has("limit") ? request.get("limit").getAsInt() : 20;
+            Deadline deadline = deadline(request, RequestScheduler.Lane.SEARCH);
+
+            List<Track> tracks = apiClient.searchTracks(query, limit, deadline);
+
+            return success("SEARCH", tracks, deadline);
+        } catch (DeadlineExceededException e) {
+            return timedOut("SEARCH");
+        } catch (IOException | IllegalArgumentException e) {
+            return Response.error("Search failed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * The seed as described by the request, or looked up by ID when the client sent only that
+     */
+    private Track seedTrack(JsonObject request, Deadline deadline) throws IOException {
+        String trackId = request.get("trackId").getAsString();
+        if (!request.has("trackName") || request.get("trackName").isJsonNull()) {
+            return apiClient.getTrack(trackId, deadline);
+        }
+
+        String trackName = request.get("trackName").getAsString();
+        String trackArtist = request.get("trackArtist").getAsString();
+        String trackAlbum = request.get("trackAlbum").getAsString();
+        return new Track(trackId, trackName, List.of(trackArtist), trackAlbum);
+    }
+
+    private Response handleRecommend(JsonObject request) {
+        try {
+            int count = request.has("count") ? request.get("count").getAsInt() : 10;
+            String strategy = request.has("strategy") ? request.get("strategy").getAsString() : null;
+            Deadline deadline = deadline(request, RequestScheduler.Lane.RECOMMEND);
+
+            Track seedTrack = seedTrack(request, deadline);
+            if (seedTrack == null) {
+                return Response.error("Recommendation failed: unknown track " + request.get("trackId").getAsString());
+            }
+
+            // Get recommendations using our custom algorithm
+            List<Track> recommendations = recommendationEngine.getRecommendations(
+                    seedTrack, count, strategy, deadline);
+
+            return success("RECOMMEND", recommendations, deadline);
+        } catch (DeadlineExceededException e) {
+            return timedOut("RECOMMEND");
+        } catch (IOException | IllegalArgumentException e) {
+            return Response.error("Recommendation failed: " + e.getMessage());
+        }
+    }
+}
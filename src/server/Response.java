@@ -0,0 +1,126 @@
+package server;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import model.Track;
+
+import java.util.List;
+
+/**
+ * One answer to a client request, before it is encoded as a JSON line or a binary frame
+ */
+public class Response {
+    /** Error code of responses turned away by admission control; the client should retry later */
+    public static final String BUSY = "BUSY";
+
+    private final boolean success;
+    private final String action;
+    private final List<Track> tracks;
+    private final String message;
+    private String code;
+    private long retryAfterMs;
+    private boolean partial;
+    private JsonElement id;
+
+    private Response(boolean success, String action, List<Track> tracks, String message) {
+        this.success = success;
+        this.action = action;
+        this.tracks = tracks;
+        this.message = message;
+    }
+
+    public static Response success(String action, List<Track> tracks) {
+        return new Response(true, action, tracks, null);
+    }
+
+    public static Response error(String message) {
+        return new Response(false, null, null, message);
+    }
+
+    /**
+     * Refuse a request without handling it, hinting when the server is likely to have room again
+     */
+    public static Response busy(long retryAfterMs) {
+        Response response = new Response(false, null, null, "Server busy, retry later");
+        response.code = BUSY;
+        response.retryAfterMs = retryAfterMs;
+        return response;
+    }
+
+    public boolean isSuccess() {
+        return success;
+    }
+
+    public String getAction() {
+        return action;
+    }
+
+    public List<Track> getTracks() {
+        return tracks;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    /**
+     * The request's deadline cut some of the work short; the tracks are what was found in time
+     */
+    public boolean isPartial() {
+        return partial;
+    }
+
+    public void setPartial(boolean partial) {
+        this.partial = partial;
+    }
+
+    public boolean isBusy() {
+        return BUSY.equals(code);
+    }
+
+    /**
+     * Suggested wait before retrying a BUSY request, 0 otherwise
+     */
+    public long getRetryAfterMs() {
+        return retryAfterMs;
+    }
+
+    /**
+     * The id of the request this answers, or null for untagged requests
+     */
+    public JsonElement getId() {
+        return id;
+    }
+
+    public void setId(JsonElement id) {
+        this.id = id;
+    }
+
+    /**
+     * The JSON protocol form: {"status", "action", "data"} or {"status", "message"}, plus "id" if tagged.
+     * Partial successes add "partial": true; BUSY errors also carry "code": "BUSY" and "retryAfterMs".
+     */
+    public JsonObject toJson(Gson gson) {
+        JsonObject json = new JsonObject();
+        if (success) {
+            json.addProperty("status", "success");
+            json.addProperty("action", action);
+            json.add("data", gson.toJsonTree(tracks));
+            if (partial) {
+                json.addProperty("partial", true);
+            }
+        } else {
+            json.addProperty("status", "error");
+            json.addProperty("message", message);
+            if (code != null) {
+                json.addProperty("code", code);
+                json.addProperty("retryAfterMs", retryAfterMs);
+            }
+        }
+        if (id != null) {
+            json.add("id", id);
+        }
+        return json;
+    }
+}
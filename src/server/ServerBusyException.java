@@ -0,0 +1,21 @@
+package server;
+
+import java.io.IOException;
+
+/**
+ * The server turned a request away under load; it is safe to send again after getRetryAfterMs()
+ */
+public class ServerBusyException extends IOException {
+    private static final long serialVersionUID = 1L;
+
+    private final long retryAfterMs;
+
+    public ServerBusyException(long retryAfterMs) {
+        super("Server busy, retry after " + retryAfterMs + "ms");
+        this.retryAfterMs = retryAfterMs;
+    }
+
+    public long getRetryAfterMs() {
+        return retryAfterMs;
+    }
+}
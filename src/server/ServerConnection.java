@@ -4,80 +4,291 @@ import com.google.gson.Gson;
 import com.google.gson.JsonObject;
 import config.Config;
 import model.Track;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
-import java.io.BufferedReader;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
 import java.io.IOException;
-import java.io.InputStreamReader;
-import java.io.PrintWriter;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
 import java.net.Socket;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * Client-side socket connection to the server
+ *
+ * Requests are tagged with an id, so any number can be in flight on the one connection; a
+ * reader thread completes each request's future when its response arrives, in whatever order
+ * the server finishes them. Requests the server refuses under load fail with ServerBusyException.
+ *
+ * connect(host, port, true) asks the server for BinaryProtocol framing; a server that does not
+ * support it leaves the connection on newline-delimited JSON.
  */
 public class ServerConnection {
+    private static final Logger log = LoggerFactory.getLogger(ServerConnection.class);
+
     private Socket socket;
-    private PrintWriter out;
-    private BufferedReader in;
+    private OutputStream out;
+    private InputStream in;
+    private BinaryProtocol binary;
+    private final ReentrantLock writeLock = new ReentrantLock();
     private final Gson gson;
+    private final AtomicLong nextRequestId = new AtomicLong();
+    private final Map<Long, CompletableFuture<Response>> pending = new ConcurrentHashMap<>();
+    // Set once the reader has stopped; nothing sent afterwards can be answered
+    private volatile IOException readerStopped;
 
     public ServerConnection() {
         this.gson = new Gson();
     }
 
     public void connect() throws IOException {
-        socket = new Socket(Config.SERVER_HOST, Config.SERVER_PORT);
-        out = new PrintWriter(socket.getOutputStream(), true);
-        in = new BufferedReader(new InputStreamReader(socket.getInputStream()));
-        System.out.println("Connected to server");
+        connect(Config.SERVER_HOST, Config.SERVER_PORT);
+    }
+
+    public void connect(String host, int port) throws IOException {
+        connect(host, port, false);
+    }
+
+    /**
+     * @param binaryProtocol Negotiate the compact binary framing instead of JSON lines
+     */
+    public void connect(String host, int port, boolean binaryProtocol) throws IOException {
+        socket = new Socket(host, port);
+        out = new BufferedOutputStream(socket.getOutputStream());
+        in = new BufferedInputStream(socket.getInputStream());
+
+        if (binaryProtocol) {
+            // Lock-step exchange before the reader starts, so no frame can be mistaken for a line
+            BinaryProtocol.writeLine(out, gson.toJson(BinaryProtocol.hello()));
+            JsonObject reply = RequestHandler.parse(BinaryProtocol.readLine(in));
+            if (reply != null && reply.has("status") && reply.get("status").getAsString().equals("success")) {
+                binary = new BinaryProtocol();
+            } else {
+                log.info("Server does not support the binary protocol, using JSON");
+            }
+        }
+
+        readerStopped = null;
+        Thread reader = new Thread(this::readResponses, "server-connection-reader");
+        reader.setDaemon(true);
+        reader.start();
+        log.info("Connected to server");
     }
 
     public List<Track> searchTracks(String query) throws IOException {
+        return await(searchTracksAsync(query));
+    }
+
+    public List<Track> getRecommendations(Track seedTrack) throws IOException {
+        return await(getRecommendationsAsync(seedTrack));
+    }
+
+    public CompletableFuture<List<Track>> searchTracksAsync(String query) {
         JsonObject request = new JsonObject();
         request.addProperty("action", "SEARCH");
         request.addProperty("query", query);
         request.addProperty("limit", 20);
 
-        return sendRequest(request);
+        return sendRequest(request).thenApply(Response::getTracks);
     }
 
-    public List<Track> getRecommendations(Track seedTrack) throws IOException {
-        JsonObject request = new JsonObject();
-        request.addProperty("action", "RECOMMEND");
-        request.addProperty("trackId", seedTrack.getId());
+    public CompletableFuture<List<Track>> getRecommendationsAsync(Track seedTrack) {
+        return getRecommendationsAsync(seedTrack, 0).thenApply(Response::getTracks);
+    }
+
+    /**
+     * The server's answer, whose isPartial() tells whether the deadline cut the work short
+     *
+     * @param deadlineMs How long the server may spend before answering with what it has; 0 for no limit
+     */
+    public CompletableFuture<Response> getRecommendationsAsync(Track seedTrack, long deadlineMs) {
+        return getRecommendationsAsync(seedTrack, null, deadlineMs);
+    }
+
+    /**
+     * The server's answer, whose isPartial() tells whether the deadline cut the work short
+     *
+     * @param strategy Name of the server-side strategy to use (see StrategyRegistry), or null for the server's default
+     * @param deadlineMs How long the server may spend before answering with what it has; 0 for no limit
+     */
+    public CompletableFuture<Response> getRecommendationsAsync(Track seedTrack, String strategy, long deadlineMs) {
+        JsonObject request = recommendRequest(seedTrack.getId(), strategy, deadlineMs);
         request.addProperty("trackName", seedTrack.getName());
         request.addProperty("trackArtist", seedTrack.getArtists().get(0));
         request.addProperty("trackAlbum", seedTrack.getAlbumName());
-        request.addProperty("count", 10);
 
         return sendRequest(request);
     }
 
-    private List<Track> sendRequest(JsonObject request) throws IOException {
-        out.println(gson.toJson(request));
+    /**
+     * Recommendations for a seed known only by its Spotify ID; the server looks up its details.
+     * isPartial() on the answer tells whether the deadline cut the work short.
+     */
+    public CompletableFuture<Response> getRecommendationsAsync(String trackId, String strategy, long deadlineMs) {
+        return sendRequest(recommendRequest(trackId, strategy, deadlineMs));
+    }
 
-        String responseLine = in.readLine();
-        JsonObject response = gson.fromJson(responseLine, JsonObject.class);
+    private static JsonObject recommendRequest(String trackId, String strategy, long deadlineMs) {
+        JsonObject request = new JsonObject();
+        request.addProperty("action", "RECOMMEND");
+        request.addProperty("trackId", trackId);
+        request.addProperty("count", 10);
+        if (strategy != null) {
+            request.addProperty("strategy", strategy);
+        }
+        // A negative deadline is sent as is, for the server to reject
+        if (deadlineMs != 0) {
+            request.addProperty("deadlineMs", deadlineMs);
+        }
+        return request;
+    }
 
-        if (response.get("status").getAsString().equals("success")) {
-            Track[] tracksArray = gson.fromJson(response.get("data"), Track[].class);
-            return List.of(tracksArray);
+    public boolean isBinaryProtocol() {
+        return binary != null;
+    }
+
+    /**
+     * Requests sent but not yet answered
+     */
+    public int getPendingRequests() {
+        return pending.size();
+    }
+
+    private CompletableFuture<Response> sendRequest(JsonObject request) {
+        long id = nextRequestId.incrementAndGet();
+
+        CompletableFuture<Response> response = new CompletableFuture<>();
+        pending.put(id, response);
+        // Checked after registering: either this sees the reader gone or its failPending sees the request
+        IOException stopped = readerStopped;
+        if (stopped != null) {
+            if (pending.remove(id) != null) {
+                response.completeExceptionally(stopped);
+            }
+            return response;
+        }
+
+        writeLock.lock();
+        try {
+            if (binary != null) {
+                binary.writeRequest(out, id, request);
+            } else {
+                request.addProperty("id", id);
+                BinaryProtocol.writeLine(out, gson.toJson(request));
+            }
+        } catch (IOException | RuntimeException e) {
+            pending.remove(id);
+            response.completeExceptionally(e);
+        } finally {
+            writeLock.unlock();
+        }
+        return response;
+    }
+
+    private void readResponses() {
+        try {
+            Response response;
+            while ((response = binary != null ? binary.readResponse(in) : readJsonResponse()) != null) {
+                if (response.getId() == null) {
+                    // An untagged BUSY is the server refusing the whole connection. An untagged error
+                    // cannot be matched to the request it answers, so none of those waiting can count on theirs
+                    if (response.isBusy()) {
+                        failPending(new ServerBusyException(response.getRetryAfterMs()));
+                    } else if (!response.isSuccess()) {
+                        failPending(new IOException("Server error: " + response.getMessage()));
+                    }
+                    continue;
+                }
+
+                CompletableFuture<Response> request = pending.remove(response.getId().getAsLong());
+                if (request == null) {
+                    continue;
+                }
+
+                if (response.isSuccess()) {
+                    request.complete(response);
+                } else if (response.isBusy()) {
+                    request.completeExceptionally(new ServerBusyException(response.getRetryAfterMs()));
+                } else {
+                    request.completeExceptionally(new IOException("Server error: " + response.getMessage()));
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            if (isConnected()) {
+                log.warn("Lost connection to server: {}", e.getMessage());
+            }
+        } finally {
+            readerStopped = new IOException("Connection to server closed");
+            failPending(readerStopped);
+        }
+    }
+
+    private void failPending(IOException e) {
+        // Removed before completing, so a caller woken by the failure never sees its request still pending
+        for (Long id : pending.keySet()) {
+            CompletableFuture<Response> request = pending.remove(id);
+            if (request != null) {
+                request.completeExceptionally(e);
+            }
+        }
+    }
+
+    private Response readJsonResponse() throws IOException {
+        String responseLine = BinaryProtocol.readLine(in);
+        if (responseLine == null) {
+            return null;
+        }
+
+        JsonObject json = gson.fromJson(responseLine, JsonObject.class);
+        Response response;
+        if (json.get("status").getAsString().equals("success")) {
+            Track[] tracksArray = gson.fromJson(json.get("data"), Track[].class);
+            response = Response.success(json.get("action").getAsString(), List.of(tracksArray));
+            response.setPartial(json.has("partial") && json.get("partial").getAsBoolean());
+        } else if (json.has("code") && json.get("code").getAsString().equals(Response.BUSY)) {
+            response = Response.busy(json.get("retryAfterMs").getAsLong());
         } else {
-            throw new IOException("Server error: " + response.get("message").getAsString());
+            response = Response.error(json.get("message").getAsString());
+        }
+        response.setId(json.get("id"));
+        return response;
+    }
+
+    private static List<Track> await(CompletableFuture<List<Track>> response) throws IOException {
+        try {
+            return response.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for server");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IOException("Request failed: " + e.getCause().getMessage(), e.getCause());
         }
     }
 
     public void disconnect() {
         try {
+            // Closing the socket first unblocks the reader thread
+            if (socket != null) socket.close();
             if (in != null) in.close();
             if (out != null) out.close();
-            if (socket != null) socket.close();
         } catch (IOException e) {
-            e.printStackTrace();
+            log.warn("Failed to close connection", e);
         }
     }
 
     public boolean isConnected() {
         return socket != null && socket.isConnected() && !socket.isClosed();
     }
-}
\ No newline at end of file
+}
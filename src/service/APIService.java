@@ -1,7 +1,7 @@
 package service;
 
 import model.Track;
-import model.SpotifyAPIClient;
+import model.SpotifyAPI;
 import model.RecommendationEngine;
 
 import java.io.IOException;
@@ -9,10 +9,10 @@ import java.util.ArrayList;
 import java.util.List;
 
 public class APIService {
-    private final SpotifyAPIClient spotifyClient;
+    private final SpotifyAPI spotifyClient;
     private final RecommendationEngine recommendationEngine;
 
-    public APIService(SpotifyAPIClient spotifyClient, RecommendationEngine recommendationEngine) {
+    public APIService(SpotifyAPI spotifyClient, RecommendationEngine recommendationEngine) {
         this.spotifyClient = spotifyClient;
         this.recommendationEngine = recommendationEngine;
     }
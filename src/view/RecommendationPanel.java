@@ -157,14 +157,12 @@ public class RecommendationPanel {
 
     private void switchStrategy() {
         if (usingPopularity) {
-            RecommendationStrategy artistStrategy = new ArtistSimilarityStrategy();
-            recommendationEngine.setStrategy(artistStrategy);
+            recommendationEngine.setStrategy(StrategyRegistry.ARTIST);
             strategyLabel.setText("Current Strategy: Artist's Top Track");
             switchStrategyButton.setText("Switch to Popularity");
             usingPopularity = false;
         } else {
-            RecommendationStrategy popStrategy = new PopularityBasedStrategy();
-            recommendationEngine.setStrategy(popStrategy);
+            recommendationEngine.setStrategy(StrategyRegistry.POPULARITY);
             strategyLabel.setText("Current Strategy: Popularity");
             switchStrategyButton.setText("Switch to Artist's Top Track");
             usingPopularity = true;
@@ -0,0 +1,116 @@
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import model.AccessTokenManager;
+import model.AccessTokenManager.AccessToken;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+// Test class for AccessTokenManager
+class AccessTokenManagerTest {
+
+    private static final long HOUR_MS = TimeUnit.HOURS.toMillis(1);
+
+    private AtomicInteger fetches;
+    private CountDownLatch release;
+    private AccessTokenManager manager;
+
+    @BeforeEach
+    void setUp() {
+        fetches = new AtomicInteger();
+        release = new CountDownLatch(0);
+        // Each fetch hands out a numbered token valid for an hour, once release opens
+        manager = new AccessTokenManager(() -> {
+            int n = fetches.incrementAndGet();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                throw new IOException(e);
+            }
+            return new AccessToken("token-" + n, System.currentTimeMillis() + HOUR_MS);
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        manager.close();
+    }
+
+    @Test
+    void testAtMostOneRefreshInFlight() throws Exception {
+        release = new CountDownLatch(1);
+        ExecutorService threads = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(threads.submit(manager::getToken));
+            }
+            Thread.sleep(100);
+            release.countDown();
+
+            for (Future<String> result : results) {
+                assertEquals("token-1", result.get(5, TimeUnit.SECONDS), "Every caller should get the one refresh");
+            }
+        } finally {
+            threads.shutdownNow();
+        }
+        assertEquals(1, fetches.get(), "Concurrent callers with no valid token should share one fetch");
+        assertEquals(1, manager.getRefreshCount(), "One refresh should be counted");
+    }
+
+    @Test
+    void testRefreshesBeforeExpiry() throws Exception {
+        // Expires within the refresh margin, so a background refresh starts at once; it is held
+        // until the old token has been read
+        release = new CountDownLatch(1);
+        manager.setToken("old", System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(30));
+        assertEquals("old", manager.getToken(), "A still-valid token should be served without waiting");
+        release.countDown();
+
+        long waitUntil = System.currentTimeMillis() + 5_000;
+        while (fetches.get() == 0 && System.currentTimeMillis() < waitUntil) {
+            Thread.sleep(10);
+        }
+        assertEquals(1, fetches.get(), "Token should be refreshed in the background before it expires");
+        while (!"token-1".equals(manager.getCurrent().getValue()) && System.currentTimeMillis() < waitUntil) {
+            Thread.sleep(10);
+        }
+        assertEquals("token-1", manager.getToken(), "The refreshed token should replace the old one");
+    }
+
+    @Test
+    void testSuppliedTokenIsKeptUntilNearExpiry() throws Exception {
+        manager.setToken("user-token", System.currentTimeMillis() + HOUR_MS);
+        Thread.sleep(200);
+
+        assertEquals("user-token", manager.getToken(), "A supplied token should not be replaced early");
+        assertEquals(0, fetches.get(), "No refresh should run while the supplied token is fresh");
+    }
+
+    @Test
+    void testFailedRefreshIsCountedAndRetried() throws Exception {
+        AccessTokenManager failing = new AccessTokenManager(() -> {
+            if (fetches.incrementAndGet() == 1) {
+                throw new IOException("token endpoint down");
+            }
+            return new AccessToken("token-" + fetches.get(), System.currentTimeMillis() + HOUR_MS);
+        });
+        try {
+            assertThrows(IOException.class, failing::getToken, "A failed fetch should reach the caller");
+            assertEquals(1, failing.getRefreshFailures(), "The failure should be counted");
+            assertEquals("token-2", failing.getToken(), "The next caller should start a new refresh");
+        } finally {
+            failing.close();
+        }
+    }
+}
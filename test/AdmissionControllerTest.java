@@ -0,0 +1,103 @@
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import com.google.gson.JsonObject;
+import model.InMemorySpotifyAPI;
+import model.Track;
+import server.AdmissionController;
+import server.RequestHandler;
+import server.Response;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+// Test class for AdmissionController
+class AdmissionControllerTest {
+
+    private AdmissionController admission;
+
+    @BeforeEach
+    void setUp() {
+        admission = new AdmissionController(4, 1, 100);
+    }
+
+    @Test
+    void testRejectsOverLimit() {
+        for (int i = 0; i < 4; i++) {
+            assertTrue(admission.tryAcquire(), "Requests under the limit should be admitted");
+        }
+        assertFalse(admission.tryAcquire(), "The request over the limit should be refused");
+        assertEquals(1, admission.getRejected(), "Refusals should be counted");
+
+        admission.release(TimeUnit.MILLISECONDS.toNanos(10), false);
+        assertTrue(admission.tryAcquire(), "A released slot should be reusable");
+    }
+
+    @Test
+    void testLimitFollowsLatency() {
+        // Steady 10ms requests with the limit fully used: the limit should grow
+        for (int i = 0; i < 200; i++) {
+            runAtLimit(10);
+        }
+        int grown = admission.getLimit();
+        assertTrue(grown > 4, "Limit should grow while latency is steady, was " + grown);
+
+        // Upstream slows down to 100ms: the limit should shrink
+        for (int i = 0; i < 3; i++) {
+            runAtLimit(100);
+        }
+        int shrunk = admission.getLimit();
+        assertTrue(shrunk < grown / 2, "Limit should shrink when latency rises, was " + shrunk);
+        assertTrue(admission.getRetryAfterMs() >= 50, "Retry hint should follow recent latency");
+    }
+
+    private void runAtLimit(long latencyMs) {
+        int admitted = 0;
+        while (admission.tryAcquire()) {
+            admitted++;
+        }
+        for (int i = 0; i < admitted; i++) {
+            admission.release(TimeUnit.MILLISECONDS.toNanos(latencyMs), false);
+        }
+    }
+
+    @Test
+    void testRequestHandlerAnswersBusy() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch finish = new CountDownLatch(1);
+        InMemorySpotifyAPI api = new InMemorySpotifyAPI(List.of(new Track("id1", "Song", List.of("Artist"), "Album"))) {
+            @Override
+            public List<Track> searchTracks(String query, int limit) {
+                started.countDown();
+                try {
+                    finish.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return super.searchTracks(query, limit);
+            }
+        };
+        RequestHandler handler = new RequestHandler(api, new AdmissionController(1, 1, 1));
+
+        JsonObject request = new JsonObject();
+        request.addProperty("action", "SEARCH");
+        request.addProperty("query", "Song");
+        request.addProperty("id", 9);
+
+        CompletableFuture<Response> first = CompletableFuture.supplyAsync(() -> handler.handle(request));
+        assertTrue(started.await(5, TimeUnit.SECONDS), "First request should reach the API");
+
+        Response busy = handler.handle(request);
+        assertTrue(busy.isBusy(), "Second request should be refused while the first holds the only slot");
+        assertTrue(busy.getRetryAfterMs() > 0, "BUSY should carry a retry hint");
+        assertEquals("BUSY", RequestHandler.parse(handler.handleRequest(request)).get("code").getAsString(),
+                "JSON answer should carry the BUSY code");
+
+        finish.countDown();
+        assertTrue(first.get(5, TimeUnit.SECONDS).isSuccess(), "Admitted request should still succeed");
+        assertTrue(handler.handle(request).isSuccess(), "Requests should be admitted again once the slot frees");
+    }
+}
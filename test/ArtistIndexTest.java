@@ -0,0 +1,81 @@
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import model.ArtistIndex;
+import model.ArtistIndexBuilder;
+import model.InMemorySpotifyAPI;
+import model.IndexedSimilarityStrategy;
+import model.Track;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+// Test class for ArtistIndex, ArtistIndexBuilder and IndexedSimilarityStrategy
+class ArtistIndexTest {
+
+    private InMemorySpotifyAPI stub;
+    private ArtistIndex index;
+
+    private static Track track(String id, String name, int popularity, String... artists) {
+        Track track = new Track(id, name, List.of(artists), "Album " + id);
+        track.setPopularity(popularity);
+        return track;
+    }
+
+    @BeforeEach
+    void setUp() throws IOException {
+        stub = new InMemorySpotifyAPI(List.of(
+                track("1", "Solo Hit", 90, "Artist A"),
+                track("2", "Duet", 70, "Artist A", "Artist B"),
+                track("3", "B Side", 60, "Artist B"),
+                track("4", "Elsewhere", 80, "Artist C")));
+
+        ArtistIndexBuilder builder = new ArtistIndexBuilder();
+        builder.crawl(stub, List.of("Artist A"), 10);
+
+        Path file = Files.createTempFile("artist-index", ".bin");
+        file.toFile().deleteOnExit();
+        builder.write(file);
+        index = ArtistIndex.open(file);
+    }
+
+    @Test
+    void testLookupIsCaseInsensitive() {
+        int artist = index.findArtist("  artist a ");
+
+        assertTrue(artist >= 0, "Indexed artist should be found");
+        assertEquals("Artist A", index.getArtistName(artist), "Display name should be preserved");
+        assertEquals(-1, index.findArtist("Artist C"), "Artist never crawled should be missing");
+    }
+
+    @Test
+    void testCoArtistIsNeighborAndTracksAreRanked() {
+        int artist = index.findArtist("Artist A");
+
+        int[] neighbors = index.getNeighbors(artist);
+        assertEquals(1, neighbors.length, "Artist A only shares tracks with Artist B");
+        assertEquals("Artist B", index.getArtistName(neighbors[0]), "Co-artist should be a neighbor");
+
+        List<Track> top = index.getTopTracks(artist, 10);
+        assertEquals("1", top.get(0).getId(), "Most popular track should come first");
+        assertEquals(List.of("Artist A", "Artist B"), top.get(1).getArtists(), "Track artists should round-trip");
+    }
+
+    @Test
+    void testStrategyAnswersIndexedArtistsOffline() throws IOException {
+        IndexedSimilarityStrategy strategy = new IndexedSimilarityStrategy(index);
+        long callsBefore = stub.getCalls();
+
+        List<Track> recs = strategy.recommend(track("1", "Solo Hit", 90, "Artist A"), stub, 5);
+
+        assertEquals(List.of("2", "3"), recs.stream().map(Track::getId).toList(),
+                "Should recommend own and neighbor tracks, minus the seed");
+        assertEquals(callsBefore, stub.getCalls(), "Indexed artists should not hit the API");
+
+        strategy.recommend(track("4", "Elsewhere", 80, "Artist C"), stub, 5);
+        assertEquals(1, strategy.getIndexMisses(), "Unindexed artist should fall back to the API");
+    }
+}
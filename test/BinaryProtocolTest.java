@@ -0,0 +1,140 @@
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonPrimitive;
+import model.InMemorySpotifyAPI;
+import model.Track;
+import server.BinaryProtocol;
+import server.ClientHandler;
+import server.NioServer;
+import server.RequestHandler;
+import server.Response;
+import server.ServerConnection;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+// Test class for BinaryProtocol
+class BinaryProtocolTest {
+
+    private List<Track> tracks;
+
+    @BeforeEach
+    void setUp() {
+        tracks = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            Track track = new Track("id" + i, "Song " + i, List.of("Artist " + (i % 2), "Guest"), "Album " + (i % 3));
+            track.setPopularity(i * 10);
+            track.setDurationMs(200_000 + i);
+            track.setPreviewUrl(i % 2 == 0 ? null : "https://p.example/" + i);
+            tracks.add(track);
+        }
+    }
+
+    @Test
+    void testResponseRoundTripReusesNames() throws IOException {
+        BinaryProtocol server = new BinaryProtocol();
+        BinaryProtocol client = new BinaryProtocol();
+        Response response = Response.success("SEARCH", tracks);
+        response.setId(new JsonPrimitive(7));
+
+        ByteArrayOutputStream first = new ByteArrayOutputStream();
+        server.writeResponse(first, response);
+        ByteArrayOutputStream second = new ByteArrayOutputStream();
+        server.writeResponse(second, response);
+
+        Response decoded = client.readResponse(new ByteArrayInputStream(first.toByteArray()));
+        Response again = client.readResponse(new ByteArrayInputStream(second.toByteArray()));
+
+        assertEquals(7, decoded.getId().getAsLong(), "Id should round-trip");
+        for (int i = 0; i < tracks.size(); i++) {
+            Track expected = tracks.get(i);
+            Track actual = again.getTracks().get(i);
+            assertEquals(expected.getId(), actual.getId(), "Track id should round-trip");
+            assertEquals(expected.getArtists(), actual.getArtists(), "Artists should come from the name table");
+            assertEquals(expected.getAlbumName(), actual.getAlbumName(), "Album should come from the name table");
+            assertEquals(expected.getPreviewUrl(), actual.getPreviewUrl(), "Null preview should stay null");
+            assertEquals(expected.getDurationMs(), actual.getDurationMs(), "Duration should round-trip");
+        }
+        assertTrue(second.size() < first.size(), "Names already sent should not be repeated");
+    }
+
+    @Test
+    void testRequestRoundTrip() throws IOException {
+        JsonObject request = new JsonObject();
+        request.addProperty("action", "RECOMMEND");
+        request.addProperty("trackId", "id1");
+        request.addProperty("trackName", "Song 1");
+        request.addProperty("trackArtist", "Artist 1");
+        request.addProperty("trackAlbum", "Album 1");
+        request.addProperty("count", 5);
+
+        ByteArrayOutputStream frame = new ByteArrayOutputStream();
+        new BinaryProtocol().writeRequest(frame, 300, request);
+        JsonObject decoded = new BinaryProtocol().readRequest(new ByteArrayInputStream(frame.toByteArray()));
+
+        request.addProperty("id", 300);
+        assertEquals(request, decoded, "Decoded request should match what RequestHandler would get as JSON");
+    }
+
+    @Test
+    void testCorruptLengthsAreRejected() {
+        // RECOMMEND id 1 whose trackId claims 999 bytes but one follows
+        byte[] request = {5, 2, 1, (byte) 0xE8, 0x07, 'x'};
+        assertThrows(IOException.class, () -> new BinaryProtocol().readRequest(new ByteArrayInputStream(request)),
+                "A string longer than its frame should be reported as a protocol error");
+
+        // SEARCH response id 1 claiming Integer.MAX_VALUE tracks in an 8-byte frame
+        byte[] response = {8, 0, 1, 1, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x07};
+        assertThrows(IOException.class, () -> new BinaryProtocol().readResponse(new ByteArrayInputStream(response)),
+                "A track count larger than its frame should not size a list");
+    }
+
+    @Test
+    void testNegotiatesWithClientHandlerAndFallsBackOnNio() throws Exception {
+        InMemorySpotifyAPI api = new InMemorySpotifyAPI(tracks);
+
+        ServerSocket serverSocket = new ServerSocket(0, 1, InetAddress.getLoopbackAddress());
+        Thread acceptor = new Thread(() -> {
+            try {
+                new ClientHandler(serverSocket.accept(), api).run();
+            } catch (IOException ignored) {
+            }
+        });
+        acceptor.start();
+
+        ServerConnection binary = new ServerConnection();
+        binary.connect("localhost", serverSocket.getLocalPort(), true);
+        try {
+            assertTrue(binary.isBinaryProtocol(), "ClientHandler should accept HELLO");
+            assertEquals(List.of("Artist 1", "Guest"), binary.searchTracks("Song 3").get(0).getArtists(),
+                    "Binary responses should decode to tracks");
+        } finally {
+            binary.disconnect();
+            serverSocket.close();
+        }
+
+        ExecutorService workers = Executors.newFixedThreadPool(1);
+        NioServer nio = new NioServer(0, new RequestHandler(api), workers, 10);
+        new Thread(nio).start();
+        ServerConnection fallback = new ServerConnection();
+        fallback.connect("localhost", nio.getLocalPort(), true);
+        try {
+            assertFalse(fallback.isBinaryProtocol(), "A server without HELLO should keep JSON");
+            assertEquals("id3", fallback.searchTracks("Song 3").get(0).getId(), "JSON should still work");
+        } finally {
+            fallback.disconnect();
+            nio.shutdown();
+            workers.shutdown();
+        }
+    }
+}
@@ -0,0 +1,73 @@
+import java.util.List;
+
+import model.CompactCatalog;
+import model.CompactTrack;
+import model.NamePool;
+import model.Track;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+// Test class for CompactCatalog, CompactTrack and NamePool
+class CompactCatalogTest {
+
+    private CompactCatalog catalog;
+
+    @BeforeEach
+    void setUp() {
+        catalog = new CompactCatalog();
+    }
+
+    private static Track track(String id, String album, String... artists) {
+        // new String so each track has its own copies, as parsed tracks do
+        Track track = new Track(id, "Song " + id, List.of(artists), album == null ? null : new String(album));
+        track.setPopularity(42);
+        track.setDurationMs(180_000);
+        track.setPreviewUrl("https://p.example/" + id);
+        return track;
+    }
+
+    @Test
+    void testRoundTripKeepsEveryField() {
+        Track original = track("t1", "Album", "A", "B");
+        Track back = catalog.toTrack(catalog.add(original));
+
+        assertEquals(original.getId(), back.getId(), "ID should survive");
+        assertEquals(original.getName(), back.getName(), "Name should survive");
+        assertEquals(List.of("A", "B"), back.getArtists(), "Artists should survive in order");
+        assertEquals("Album", back.getAlbumName(), "Album should survive");
+        assertEquals(42, back.getPopularity(), "Popularity should survive");
+        assertEquals(180_000, back.getDurationMs(), "Duration should survive");
+        assertEquals(original.getPreviewUrl(), back.getPreviewUrl(), "Preview URL should survive");
+
+        Track noAlbum = catalog.toTrack(catalog.add(track("t2", null)));
+        assertNull(noAlbum.getAlbumName(), "Missing album should stay null");
+        assertTrue(noAlbum.getArtists().isEmpty(), "Track without artists should stay without");
+    }
+
+    @Test
+    void testRepeatedNamesShareOneEntry() {
+        CompactTrack first = catalog.add(track("t1", "Album", new String("Artist")));
+        CompactTrack second = catalog.add(track("t2", "Album", new String("Artist"), "Guest"));
+
+        assertEquals(first.getArtistId(0), second.getArtistId(0), "Same artist should get the same ID");
+        assertEquals(first.getAlbumId(), second.getAlbumId(), "Same album should get the same ID");
+        assertEquals(3, catalog.getNames().size(), "Artist, album and guest should be stored once each");
+        assertSame(catalog.toTrack(first).getArtists().get(0), catalog.toTrack(second).getArtists().get(0),
+                "Materialized tracks should share the pooled String");
+        assertTrue(second.hasArtist(catalog.getNames().find("Guest")), "Guest should be found by pool ID");
+        assertSame(second, catalog.find("t2"), "Track should be found by ID");
+    }
+
+    @Test
+    void testPoolGrowsPastInitialCapacity() {
+        NamePool pool = new NamePool();
+        for (int i = 0; i < 1_000; i++) {
+            assertEquals(i, pool.intern("name" + i), "IDs should be handed out in order");
+        }
+        assertEquals("name999", pool.get(999), "Late names should resolve after growth");
+        assertEquals(NamePool.NONE, pool.find("missing"), "Unknown name should not be added by find");
+        assertEquals(NamePool.NONE, pool.intern(null), "Null should map to NONE");
+    }
+}
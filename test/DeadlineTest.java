@@ -0,0 +1,142 @@
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import com.google.gson.JsonObject;
+import model.Deadline;
+import model.InMemorySpotifyAPI;
+import model.ParallelArtistStrategy;
+import model.SingleFlight;
+import model.Track;
+import server.NioServer;
+import server.RequestHandler;
+import server.Response;
+import server.ServerConnection;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+// Test class for Deadline propagation
+class DeadlineTest {
+
+    private InMemorySpotifyAPI api;
+
+    @BeforeEach
+    void setUp() {
+        List<Track> tracks = List.of(
+                new Track("f1", "Fast One", List.of("Fast"), "Album"),
+                new Track("f2", "Fast Two", List.of("Fast"), "Album"),
+                new Track("s1", "Slow One", List.of("Slow"), "Album"));
+
+        // Looking up the artist "Slow" takes 500ms
+        api = new InMemorySpotifyAPI(tracks) {
+            @Override
+            public String getArtistID(String artist) {
+                if (artist.equals("Slow")) {
+                    try {
+                        Thread.sleep(500);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                return super.getArtistID(artist);
+            }
+        };
+    }
+
+    @Test
+    void testRequestHandlerMarksTimedOutResultPartial() {
+        RequestHandler handler = new RequestHandler(api);
+        JsonObject request = new JsonObject();
+        request.addProperty("action", "RECOMMEND");
+        request.addProperty("trackId", "s1");
+        request.addProperty("trackName", "Slow One");
+        request.addProperty("trackArtist", "Slow");
+        request.addProperty("trackAlbum", "Album");
+
+        Response unbounded = handler.handle(request);
+        assertTrue(unbounded.isSuccess(), "Without a deadline the request should complete");
+        assertFalse(unbounded.isPartial(), "Without a deadline the result should be complete");
+
+        request.addProperty("deadlineMs", 100);
+        Response bounded = handler.handle(request);
+        assertTrue(bounded.isSuccess(), "A missed deadline is not an upstream failure");
+        assertTrue(bounded.isPartial(), "Work cut off by the deadline should be reported as partial");
+        assertTrue(RequestHandler.parse(handler.handleRequest(request)).get("partial").getAsBoolean(),
+                "JSON response should carry the partial flag");
+    }
+
+    @Test
+    void testParallelStrategyReturnsWhatArrivedInTime() throws Exception {
+        Track seed = new Track("x", "Duet", List.of("Fast", "Slow"), "Album");
+        Deadline deadline = Deadline.after(200);
+
+        long start = System.nanoTime();
+        List<Track> result = new ParallelArtistStrategy().recommend(seed, api, 10, deadline);
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        assertTrue(elapsedMs < 450, "Should stop at the request deadline, took " + elapsedMs + "ms");
+        assertEquals(2, result.size(), "Tracks of the fast artist should be returned");
+        assertTrue(deadline.isPartial(), "The slow artist's tracks are missing, so the result is partial");
+    }
+
+    @Test
+    void testSingleFlightCancelsUpstreamOnlyWhenAllCallersGiveUp() {
+        SingleFlight<String> flights = new SingleFlight<>();
+        CompletableFuture<String> upstream = new CompletableFuture<>();
+
+        CompletableFuture<String> first = flights.execute("key", () -> upstream);
+        CompletableFuture<String> second = flights.execute("key", () -> upstream);
+
+        first.cancel(true);
+        assertFalse(upstream.isDone(), "Another caller still waits, so the call should keep running");
+
+        second.cancel(true);
+        assertTrue(upstream.isCancelled(), "With every caller gone the upstream call should be cancelled");
+        assertEquals(1, flights.getAbandoned(), "Abandoned calls should be counted");
+        assertThrows(CancellationException.class, first::join, "A cancelled caller sees its cancellation");
+    }
+
+    @Test
+    void testZeroDeadlineMeansNoLimitAndNegativeIsRejected() {
+        RequestHandler handler = new RequestHandler(api);
+        JsonObject request = new JsonObject();
+        request.addProperty("action", "SEARCH");
+        request.addProperty("query", "Fast");
+
+        request.addProperty("deadlineMs", 0);
+        Response unbounded = handler.handle(request);
+        assertTrue(unbounded.isSuccess(), "A deadline of 0 should mean no limit, as in the binary protocol");
+        assertFalse(unbounded.isPartial(), "A deadline of 0 should not cut the work short");
+        assertEquals(2, unbounded.getTracks().size(), "Search should run to completion");
+
+        request.addProperty("deadlineMs", -5);
+        assertFalse(handler.handle(request).isSuccess(), "A negative deadline should be rejected");
+    }
+
+    @Test
+    void testConnectionReportsPartialResponse() throws Exception {
+        ExecutorService workers = Executors.newFixedThreadPool(2);
+        NioServer server = new NioServer(0, new RequestHandler(api), workers, 10);
+        new Thread(server).start();
+        ServerConnection connection = new ServerConnection();
+        try {
+            connection.connect("localhost", server.getLocalPort());
+            Track seed = new Track("s1", "Slow One", List.of("Slow"), "Album");
+
+            Response bounded = connection.getRecommendationsAsync(seed, 100).get(5, TimeUnit.SECONDS);
+            assertTrue(bounded.isPartial(), "The client should learn that the deadline cut the work short");
+
+            Response unbounded = connection.getRecommendationsAsync(seed, 0).get(5, TimeUnit.SECONDS);
+            assertFalse(unbounded.isPartial(), "A result computed without a deadline should be complete");
+        } finally {
+            connection.disconnect();
+            server.shutdown();
+            workers.shutdown();
+        }
+    }
+}
@@ -0,0 +1,93 @@
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringWriter;
+import java.lang.management.ManagementFactory;
+import java.net.HttpURLConnection;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import metrics.LatencyHistogram;
+import metrics.MetricsRegistry;
+import metrics.MetricsServer;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+// Test class for the metrics package
+class MetricsTest {
+
+    private MetricsRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        registry = new MetricsRegistry();
+    }
+
+    @Test
+    void testHistogramPercentilesWithinBucketPrecision() {
+        LatencyHistogram histogram = registry.histogram("test_seconds", "Test latency");
+        for (int ms = 1; ms <= 100; ms++) {
+            histogram.record(ms, TimeUnit.MILLISECONDS);
+        }
+
+        assertEquals(100, histogram.getCount(), "Every value should be counted");
+        long p50 = histogram.getValueAtPercentile(50);
+        long p99 = histogram.getValueAtPercentile(99);
+        assertTrue(p50 >= 50_000 && p50 <= 50_000 * 17 / 16, "p50 should be within 1/16 of 50ms, was " + p50);
+        assertTrue(p99 >= 99_000 && p99 <= 99_000 * 17 / 16, "p99 should be within 1/16 of 99ms, was " + p99);
+        assertEquals(5050, TimeUnit.NANOSECONDS.toMillis(histogram.getSumNanos()), "Sum should be exact");
+    }
+
+    @Test
+    void testRecordingDoesNotAllocate() {
+        LatencyHistogram histogram = registry.histogram("test_seconds", "Test latency", "action", "SEARCH");
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().threadId();
+
+        // Warm up so one-off class loading and JIT work is not counted
+        for (int i = 0; i < 100_000; i++) {
+            registry.histogram("test_seconds", "Test latency", "action", "SEARCH").record(i * 1_000L);
+        }
+        long before = threads.getThreadAllocatedBytes(thread);
+        for (int i = 0; i < 100_000; i++) {
+            registry.histogram("test_seconds", "Test latency", "action", "SEARCH").record(i * 1_000L);
+        }
+        long allocated = threads.getThreadAllocatedBytes(thread) - before;
+
+        assertTrue(allocated < 10_000, "Recording should not allocate, allocated " + allocated + " bytes");
+        assertEquals(200_000, histogram.getCount(), "Looked-up handle should be the same histogram");
+    }
+
+    @Test
+    void testPrometheusEndpoint() throws IOException {
+        LatencyHistogram search = registry.histogram("recommender_request_seconds", "Request time", "action", "SEARCH");
+        search.record(2, TimeUnit.MILLISECONDS);
+        search.record(200, TimeUnit.MILLISECONDS);
+        registry.counter("recommender_errors_total", "Errors").add(3);
+        registry.gauge("recommender_open_connections", "Open connections", () -> 7);
+
+        StringWriter text = new StringWriter();
+        registry.writePrometheus(text);
+        String exposition = text.toString();
+        assertTrue(exposition.contains("# TYPE recommender_request_seconds histogram"), "Histogram type line");
+        assertTrue(exposition.contains("recommender_request_seconds_bucket{action=\"SEARCH\",le=\"0.0025\"} 1"),
+                "Cumulative bucket below 2.5ms should hold the 2ms value");
+        assertTrue(exposition.contains("recommender_request_seconds_bucket{action=\"SEARCH\",le=\"+Inf\"} 2"),
+                "+Inf bucket should hold every value");
+        assertTrue(exposition.contains("recommender_errors_total 3"), "Counter value");
+        assertTrue(exposition.contains("recommender_open_connections 7"), "Gauge value");
+
+        try (MetricsServer server = new MetricsServer(0, registry)) {
+            HttpURLConnection connection = (HttpURLConnection)
+                    URI.create("http://localhost:" + server.getPort() + "/metrics").toURL().openConnection();
+            assertEquals(200, connection.getResponseCode(), "Scrape should succeed");
+            assertTrue(connection.getContentType().startsWith("text/plain"), "Prometheus text format");
+            try (InputStream in = connection.getInputStream()) {
+                assertEquals(exposition, new String(in.readAllBytes(), StandardCharsets.UTF_8),
+                        "Endpoint should serve the registry's exposition");
+            }
+        }
+    }
+}
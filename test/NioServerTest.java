@@ -0,0 +1,238 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import model.InMemorySpotifyAPI;
+import model.Track;
+import server.NioServer;
+import server.RequestHandler;
+import server.ServerConnection;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+// Test class for NioServer
+class NioServerTest {
+
+    private ExecutorService workers;
+    private NioServer server;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        List<Track> tracks = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            tracks.add(new Track("id" + i, "Song " + i, List.of("Artist " + i), "Album"));
+        }
+
+        // Searching for "slow" takes a while, to tell concurrent handling from sequential
+        InMemorySpotifyAPI api = new InMemorySpotifyAPI(tracks) {
+            @Override
+            public List<Track> searchTracks(String query, int limit) {
+                if (query.equals("slow")) {
+                    try {
+                        Thread.sleep(500);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                return super.searchTracks(query, limit);
+            }
+        };
+
+        workers = Executors.newFixedThreadPool(4);
+        server = new NioServer(0, new RequestHandler(api), workers, 1000);
+        new Thread(server).start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.shutdown();
+        workers.shutdown();
+    }
+
+    private Socket connect() throws IOException {
+        return new Socket(InetAddress.getLoopbackAddress(), server.getLocalPort());
+    }
+
+    private static String search(String query) {
+        return "{\"action\":\"SEARCH\",\"query\":\"" + query + "\"}\n";
+    }
+
+    @Test
+    void testPipelinedRequestsAnsweredInOrder() throws IOException {
+        try (Socket socket = connect()) {
+            OutputStream out = socket.getOutputStream();
+            BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+
+            out.write((search("Song 1") + search("Song 2") + "{\"action\":\"NOPE\"}\n" + search("Song 3"))
+                    .getBytes(StandardCharsets.UTF_8));
+            out.flush();
+
+            assertTrue(in.readLine().contains("\"id1\""), "First response should answer the first request");
+            assertTrue(in.readLine().contains("\"id2\""), "Second response should answer the second request");
+            assertTrue(in.readLine().contains("Unknown action"), "Errors keep ClientHandler's response format");
+            assertTrue(in.readLine().contains("\"id3\""), "Fourth response should answer the fourth request");
+        }
+    }
+
+    @Test
+    void testRequestSplitAcrossPackets() throws Exception {
+        try (Socket socket = connect()) {
+            OutputStream out = socket.getOutputStream();
+            BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+
+            byte[] request = search("Song 4").replace("\n", "\r\n").getBytes(StandardCharsets.UTF_8);
+            out.write(request, 0, 10);
+            out.flush();
+            Thread.sleep(50);
+            out.write(request, 10, request.length - 10);
+            out.flush();
+
+            assertTrue(in.readLine().contains("\"id4\""), "Partial reads should be joined into one request");
+        }
+    }
+
+    @Test
+    void testManyConcurrentConnections() throws IOException {
+        List<Socket> sockets = new ArrayList<>();
+        try {
+            for (int i = 0; i < 200; i++) {
+                Socket socket = connect();
+                socket.getOutputStream().write(search("Song " + (i % 5)).getBytes(StandardCharsets.UTF_8));
+                sockets.add(socket);
+            }
+
+            for (int i = 0; i < sockets.size(); i++) {
+                BufferedReader in = new BufferedReader(new InputStreamReader(sockets.get(i).getInputStream(),
+                        StandardCharsets.UTF_8));
+                assertTrue(in.readLine().contains("\"id" + (i % 5) + "\""), "Each connection should get its own answer");
+            }
+        } finally {
+            for (Socket socket : sockets) {
+                socket.close();
+            }
+        }
+    }
+
+    @Test
+    void testTaggedRequestsAnsweredAsTheyComplete() throws Exception {
+        ServerConnection connection = new ServerConnection();
+        connection.connect("localhost", server.getLocalPort());
+        try {
+            CompletableFuture<List<Track>> slow = connection.searchTracksAsync("slow");
+            CompletableFuture<List<Track>> fast = connection.searchTracksAsync("Song 2");
+
+            assertEquals("id2", fast.get().get(0).getId(), "Fast request should get its own answer");
+            assertFalse(slow.isDone(), "Fast request should not wait behind the slow one");
+            assertTrue(slow.get().isEmpty(), "Slow request should still be answered");
+            assertEquals(0, connection.getPendingRequests(), "Nothing should be left pending");
+        } finally {
+            connection.disconnect();
+        }
+    }
+
+    @Test
+    void testClientThatDoesNotReadIsAnsweredOnceItDoes() throws Exception {
+        int requests = 20_000;
+        try (Socket socket = connect()) {
+            // Written from another thread: once the server stops reading, this blocks until we read
+            Thread writer = new Thread(() -> {
+                try {
+                    OutputStream out = socket.getOutputStream();
+                    for (int i = 0; i < requests; i++) {
+                        out.write(search("Song").getBytes(StandardCharsets.UTF_8));
+                    }
+                    out.flush();
+                } catch (IOException e) {
+                    // Reported by the missing responses below
+                }
+            });
+            writer.start();
+            Thread.sleep(500);
+
+            BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+            socket.setSoTimeout(10_000);
+            for (int i = 0; i < requests; i++) {
+                String response = in.readLine();
+                assertNotNull(response, "Response " + i + " should arrive once the client reads again");
+                assertTrue(response.contains("\"status\":\"success\""), "Every request should be answered");
+            }
+            writer.join(5_000);
+        }
+    }
+
+    @Test
+    void testUntaggedErrorFailsPendingRequests() throws Exception {
+        // A server that answers the first request without its id
+        try (ServerSocket stub = new ServerSocket(0, 1, InetAddress.getLoopbackAddress())) {
+            Thread responder = new Thread(() -> {
+                try (Socket client = stub.accept()) {
+                    new BufferedReader(new InputStreamReader(client.getInputStream(), StandardCharsets.UTF_8)).readLine();
+                    OutputStream out = client.getOutputStream();
+                    out.write("{\"status\":\"error\",\"message\":\"Invalid request\"}\n".getBytes(StandardCharsets.UTF_8));
+                    out.flush();
+                    Thread.sleep(1_000);
+                } catch (IOException | InterruptedException e) {
+                    // The test is over
+                }
+            });
+            responder.start();
+
+            ServerConnection connection = new ServerConnection();
+            connection.connect(stub.getInetAddress().getHostAddress(), stub.getLocalPort());
+            try {
+                CompletableFuture<List<Track>> request = connection.searchTracksAsync("anything");
+                ExecutionException e = assertThrows(ExecutionException.class, () -> request.get(5, TimeUnit.SECONDS),
+                        "An untagged error should not leave the request waiting");
+                assertInstanceOf(IOException.class, e.getCause(), "The server's error should be reported");
+                assertEquals(0, connection.getPendingRequests(), "Nothing should be left pending");
+            } finally {
+                connection.disconnect();
+            }
+        }
+    }
+
+    @Test
+    void testRequestAfterConnectionClosedFails() throws Exception {
+        // A server that hangs up straight away
+        try (ServerSocket stub = new ServerSocket(0, 1, InetAddress.getLoopbackAddress())) {
+            Thread responder = new Thread(() -> {
+                try (Socket client = stub.accept()) {
+                    // Closed on return
+                } catch (IOException e) {
+                    // The test is over
+                }
+            });
+            responder.start();
+
+            ServerConnection connection = new ServerConnection();
+            connection.connect(stub.getInetAddress().getHostAddress(), stub.getLocalPort());
+            try {
+                CompletableFuture<List<Track>> first = connection.searchTracksAsync("anything");
+                assertThrows(ExecutionException.class, () -> first.get(5, TimeUnit.SECONDS),
+                        "A request on a closed connection should fail");
+
+                CompletableFuture<List<Track>> late = connection.searchTracksAsync("anything");
+                assertThrows(ExecutionException.class, () -> late.get(5, TimeUnit.SECONDS),
+                        "A request sent after the reader stopped should not wait forever");
+                assertEquals(0, connection.getPendingRequests(), "Nothing should be left pending");
+            } finally {
+                connection.disconnect();
+            }
+        }
+    }
+}
@@ -0,0 +1,77 @@
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import model.Deadline;
+import model.InMemorySpotifyAPI;
+import model.ParallelArtistStrategy;
+import model.SpotifyAPI;
+import model.Track;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+// Test class for ParallelArtistStrategy
+class ParallelArtistStrategyTest {
+
+    private static final int ARTISTS = 8;
+
+    private Track seed;
+    private SpotifyAPI api;
+
+    // Answers the first seed artist at once and every other one after a short pause
+    private static final class FirstFastAPI implements SpotifyAPI {
+        final InMemorySpotifyAPI catalog;
+
+        FirstFastAPI(InMemorySpotifyAPI catalog) {
+            this.catalog = catalog;
+        }
+
+        @Override
+        public List<Track> searchTracks(String query, int limit) {
+            return catalog.searchTracks(query, limit);
+        }
+
+        @Override
+        public String getArtistID(String artist) throws IOException {
+            if (!artist.equals("Artist 0")) {
+                try {
+                    Thread.sleep(5);
+                } catch (InterruptedException e) {
+                    throw new IOException(e);
+                }
+            }
+            return catalog.getArtistID(artist);
+        }
+
+        @Override
+        public List<Track> getArtistsTopTracks(String artistID) {
+            return catalog.getArtistsTopTracks(artistID);
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        List<String> artists = new ArrayList<>();
+        List<Track> tracks = new ArrayList<>();
+        for (int i = 0; i < ARTISTS; i++) {
+            artists.add("Artist " + i);
+            tracks.add(new Track("t" + i, "Song " + i, List.of("Artist " + i), "Album"));
+        }
+        seed = new Track("seed", "Seed", artists, "Album");
+        api = new FirstFastAPI(new InMemorySpotifyAPI(tracks));
+    }
+
+    @Test
+    void testEverySeedArtistIsWaitedFor() throws IOException {
+        ParallelArtistStrategy strategy = new ParallelArtistStrategy(ARTISTS, 5_000, false);
+        for (int run = 0; run < 50; run++) {
+            Deadline deadline = Deadline.none();
+            List<Track> result = strategy.recommend(seed, api, 20, deadline);
+
+            assertEquals(ARTISTS, result.size(), "Run " + run + ": a fast first artist must not end the fan-out");
+            assertFalse(deadline.isPartial(), "Run " + run + ": fan-out should complete within its budget");
+        }
+    }
+}
@@ -0,0 +1,136 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import model.Deadline;
+import model.InMemorySpotifyAPI;
+import model.RecommendationCache;
+import model.RecommendationEngine;
+import model.RecommendationStrategy;
+import model.SpotifyAPI;
+import model.StrategyRegistry;
+import model.Track;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+// Test class for RecommendationCache
+class RecommendationCacheTest {
+
+    private final AtomicInteger computations = new AtomicInteger();
+    private RecommendationCache cache;
+    private RecommendationEngine engine;
+    private CountingStrategy strategy;
+    private Track seed;
+
+    // Returns count numbered tracks once release opens, marking the result partial when asked to
+    private final class CountingStrategy implements RecommendationStrategy {
+        volatile boolean cutShort;
+        volatile CountDownLatch release = new CountDownLatch(0);
+
+        @Override
+        public List<Track> recommend(Track seedTrack, SpotifyAPI apiClient, int count) {
+            return recommend(seedTrack, apiClient, count, Deadline.none());
+        }
+
+        @Override
+        public List<Track> recommend(Track seedTrack, SpotifyAPI apiClient, int count, Deadline deadline) {
+            computations.incrementAndGet();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            List<Track> tracks = new ArrayList<>();
+            for (int i = 0; i < count; i++) {
+                tracks.add(new Track("r" + i, "Rec " + i, List.of("Artist"), "Album"));
+            }
+            if (cutShort) {
+                deadline.markPartial();
+            }
+            return tracks;
+        }
+
+        @Override
+        public String getStrategyName() {
+            return "counting";
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        seed = new Track("seed", "Seed", List.of("Artist"), "Album");
+        strategy = new CountingStrategy();
+        StrategyRegistry registry = new StrategyRegistry();
+        registry.register("counting", strategy);
+        cache = new RecommendationCache(60_000, 1_000);
+        engine = new RecommendationEngine(registry, "counting", new InMemorySpotifyAPI(List.of()), cache);
+    }
+
+    @Test
+    void testSmallerCountIsServedAsPrefix() throws Exception {
+        List<Track> ten = engine.getRecommendations(seed, 10);
+        List<Track> five = engine.getRecommendations(seed, 5);
+
+        assertEquals(1, computations.get(), "Smaller count should not recompute");
+        assertEquals(ten.subList(0, 5), five, "Smaller count should be a prefix of the cached result");
+        assertEquals(1, cache.getHits(), "Prefix answer should count as a hit");
+        assertEquals(0.5, cache.getHitRatio(), 1e-9, "One hit in two lookups");
+    }
+
+    @Test
+    void testLargerCountRecomputesAndReplaces() throws Exception {
+        engine.getRecommendations(seed, 5);
+        assertEquals(10, engine.getRecommendations(seed, 10).size(), "Larger count should get a full result");
+        engine.getRecommendations(seed, 10);
+        engine.getRecommendations(seed, 3);
+
+        assertEquals(2, computations.get(), "Only the first and the larger count should compute");
+        assertEquals(2, cache.getMisses(), "Both computations should count as misses");
+    }
+
+    @Test
+    void testPartialResultIsNotCached() throws Exception {
+        strategy.cutShort = true;
+        Deadline deadline = Deadline.after(1_000);
+        engine.getRecommendations(seed, 10, deadline);
+        assertTrue(deadline.isPartial(), "Strategy should have marked the result partial");
+
+        strategy.cutShort = false;
+        engine.getRecommendations(seed, 10);
+        engine.getRecommendations(seed, 10);
+
+        assertEquals(2, computations.get(), "Partial result should be recomputed, the full one reused");
+        assertEquals(1, cache.size(), "One entry per seed and strategy");
+    }
+
+    @Test
+    void testConcurrentMissesShareOneComputation() throws Exception {
+        strategy.release = new CountDownLatch(1);
+        ExecutorService clients = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<List<Track>>> results = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                results.add(clients.submit(() -> engine.getRecommendations(seed, 10)));
+            }
+            // Let every client reach the cache while the first one is still computing
+            Thread.sleep(200);
+            strategy.release.countDown();
+
+            for (Future<List<Track>> result : results) {
+                assertEquals(10, result.get(5, TimeUnit.SECONDS).size(), "Every client should get the full result");
+            }
+        } finally {
+            clients.shutdownNow();
+        }
+        assertEquals(1, computations.get(), "Clients asking about the same seed at once should share one computation");
+        assertEquals(1, cache.getMisses(), "Only the computing client should count as a miss");
+        assertEquals(3, cache.getHits(), "The clients that waited should count as hits");
+    }
+}
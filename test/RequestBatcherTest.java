@@ -0,0 +1,102 @@
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import model.RequestBatcher;
+import model.SpotifyJsonParser;
+import model.Track;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+// Test class for RequestBatcher and the multi-ID response parsers
+class RequestBatcherTest {
+
+    private ScheduledExecutorService timer;
+    private List<List<String>> calls;
+    private RequestBatcher<String> batcher;
+
+    @BeforeEach
+    void setUp() {
+        timer = Executors.newSingleThreadScheduledExecutor();
+        calls = new CopyOnWriteArrayList<>();
+        // Answers each ID with its upper-case form; IDs starting with "x" do not exist
+        batcher = new RequestBatcher<>(3, 50, ids -> {
+            calls.add(ids);
+            List<String> values = new ArrayList<>();
+            for (String id : ids) {
+                values.add(id.startsWith("x") ? null : id.toUpperCase());
+            }
+            return CompletableFuture.completedFuture(values);
+        }, timer);
+    }
+
+    @AfterEach
+    void tearDown() {
+        timer.shutdownNow();
+    }
+
+    @Test
+    void testLookupsWithinWindowShareOneCall() throws Exception {
+        CompletableFuture<String> a = batcher.get("a");
+        CompletableFuture<String> b = batcher.get("b");
+        CompletableFuture<String> again = batcher.get("a");
+        CompletableFuture<String> missing = batcher.get("x");
+
+        assertEquals("A", a.get(1, TimeUnit.SECONDS), "Each caller should get its own value");
+        assertEquals("B", b.get(1, TimeUnit.SECONDS), "Each caller should get its own value");
+        assertEquals("A", again.get(1, TimeUnit.SECONDS), "Repeated ID should share the slot");
+        assertNull(missing.get(1, TimeUnit.SECONDS), "Unknown ID should complete with null");
+        assertEquals(List.of(List.of("a", "b", "x")), calls, "Three distinct IDs should go out in one call");
+        assertEquals(4, batcher.getLookups(), "Every lookup should be counted");
+    }
+
+    @Test
+    void testFullBatchIsSentWithoutWaiting() throws Exception {
+        long start = System.nanoTime();
+        List<CompletableFuture<String>> results = new ArrayList<>();
+        for (String id : List.of("a", "b", "c", "d")) {
+            results.add(batcher.get(id));
+        }
+
+        assertEquals("C", results.get(2).get(1, TimeUnit.SECONDS), "Full batch should be answered");
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 50,
+                "Full batch should not wait for the window");
+        assertEquals("D", results.get(3).get(1, TimeUnit.SECONDS), "Overflow should go in the next batch");
+        assertEquals(2, batcher.getBatches(), "Four IDs with a limit of three need two calls");
+    }
+
+    @Test
+    void testFailureReachesEveryCallerAndCancelIsPerCaller() throws Exception {
+        RequestBatcher<String> failing = new RequestBatcher<>(10, 20,
+                ids -> CompletableFuture.failedFuture(new IOException("down")), timer);
+        CompletableFuture<String> a = failing.get("a");
+        CompletableFuture<String> b = failing.get("b");
+        a.cancel(true);
+
+        ExecutionException error = assertThrows(ExecutionException.class, () -> b.get(1, TimeUnit.SECONDS),
+                "Failed call should fail the callers still waiting");
+        assertInstanceOf(IOException.class, error.getCause(), "Original failure should be passed on");
+        assertTrue(a.isCancelled(), "Cancelling one caller should only affect that caller");
+    }
+
+    @Test
+    void testParseTracksByIdsKeepsPositions() throws IOException {
+        String body = "{\"tracks\":[{\"id\":\"t1\",\"name\":\"One\",\"artists\":[{\"name\":\"A\"}],"
+                + "\"album\":{\"name\":\"Al\"},\"popularity\":40},null]}";
+        List<Track> tracks = SpotifyJsonParser.parseTracksByIds(body.getBytes(StandardCharsets.UTF_8));
+
+        assertEquals(2, tracks.size(), "One entry per requested ID");
+        assertEquals("One", tracks.get(0).getName(), "Known track should be parsed");
+        assertNull(tracks.get(1), "Unknown ID should stay as null in its position");
+    }
+}
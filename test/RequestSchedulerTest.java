@@ -0,0 +1,145 @@
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import model.RequestScheduler;
+import model.RequestScheduler.Lane;
+import org.apache.hc.client5.http.async.methods.SimpleHttpResponse;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+// Test class for RequestScheduler
+class RequestSchedulerTest {
+
+    private RequestScheduler scheduler;
+    private List<Long> attemptTimes;
+
+    /**
+     * An exchange supplier answering with the given statuses in turn, the last one repeating
+     */
+    private Supplier<CompletableFuture<SimpleHttpResponse>> answering(int... statuses) {
+        AtomicInteger attempt = new AtomicInteger();
+        return () -> {
+            attemptTimes.add(System.nanoTime());
+            int status = statuses[Math.min(attempt.getAndIncrement(), statuses.length - 1)];
+            SimpleHttpResponse response = new SimpleHttpResponse(status);
+            if (status == 429) {
+                response.addHeader("Retry-After", "1");
+            }
+            return CompletableFuture.completedFuture(response);
+        };
+    }
+
+    private long gapMillis(int attempt) {
+        return TimeUnit.NANOSECONDS.toMillis(attemptTimes.get(attempt) - attemptTimes.get(attempt - 1));
+    }
+
+    @BeforeEach
+    void setUp() {
+        scheduler = new RequestScheduler(1_000, 100, 1_000, 100);
+        attemptTimes = Collections.synchronizedList(new ArrayList<>());
+    }
+
+    @AfterEach
+    void tearDown() {
+        scheduler.close();
+    }
+
+    @Test
+    void testThrottledRequestWaitsForRetryAfter() throws Exception {
+        SimpleHttpResponse response = scheduler.submit(Lane.SEARCH, "search", answering(429, 200))
+                .get(5, TimeUnit.SECONDS);
+
+        assertEquals(200, response.getCode(), "The retry after the pause should succeed");
+        assertEquals(2, attemptTimes.size(), "A 429 should be retried once");
+        assertTrue(gapMillis(1) >= 900, "The retry should wait out Retry-After, waited " + gapMillis(1) + "ms");
+        assertEquals(1, scheduler.getThrottledResponses(), "The 429 should be counted");
+    }
+
+    @Test
+    void testServerErrorsRetriedWithBackoff() throws Exception {
+        SimpleHttpResponse response = scheduler.submit(Lane.RECOMMEND, "top-tracks", answering(503, 502, 200))
+                .get(5, TimeUnit.SECONDS);
+
+        assertEquals(200, response.getCode(), "The request should succeed once the server recovers");
+        assertEquals(3, attemptTimes.size(), "Each 5xx should be retried");
+        assertEquals(2, scheduler.getRetries(), "Both retries should be counted");
+        assertTrue(gapMillis(1) >= 100, "First backoff should be at least half the base delay");
+        assertTrue(gapMillis(2) >= 200, "Backoff should grow with each attempt");
+    }
+
+    @Test
+    void testGivesUpAfterMaxAttempts() {
+        CompletableFuture<SimpleHttpResponse> result = scheduler.submit(Lane.RECOMMEND, "tracks", answering(500));
+
+        ExecutionException e = assertThrows(ExecutionException.class, () -> result.get(10, TimeUnit.SECONDS),
+                "A server that keeps failing should fail the request");
+        assertInstanceOf(IOException.class, e.getCause(), "The failure should be an IOException");
+        assertEquals(4, attemptTimes.size(), "The request should be tried a bounded number of times");
+    }
+
+    @Test
+    void testClientErrorNotRetried() {
+        CompletableFuture<SimpleHttpResponse> result = scheduler.submit(Lane.SEARCH, "search", answering(404));
+
+        assertThrows(ExecutionException.class, () -> result.get(5, TimeUnit.SECONDS), "A 404 should fail the request");
+        assertEquals(1, attemptTimes.size(), "A 4xx other than 429 should not be retried");
+    }
+
+    @Test
+    void testLanesTakeTurns() throws Exception {
+        scheduler.close();
+        // One request every 50ms across all endpoints
+        scheduler = new RequestScheduler(20, 1, 1_000, 100);
+        List<Lane> started = Collections.synchronizedList(new ArrayList<>());
+
+        List<CompletableFuture<SimpleHttpResponse>> results = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            results.add(scheduler.submit(Lane.SEARCH, "search", () -> {
+                started.add(Lane.SEARCH);
+                return CompletableFuture.completedFuture(new SimpleHttpResponse(200));
+            }));
+        }
+        results.add(scheduler.submit(Lane.RECOMMEND, "top-tracks", () -> {
+            started.add(Lane.RECOMMEND);
+            return CompletableFuture.completedFuture(new SimpleHttpResponse(200));
+        }));
+
+        CompletableFuture.allOf(results.toArray(new CompletableFuture[0])).get(5, TimeUnit.SECONDS);
+        assertTrue(started.indexOf(Lane.RECOMMEND) <= 2,
+                "A recommendation should not wait behind a burst of searches: " + started);
+    }
+
+    @Test
+    void testThrottledEndpointDoesNotBlockItsLane() throws Exception {
+        scheduler.setEndpointLimit("artist-search", 0.5, 1);
+
+        CompletableFuture<SimpleHttpResponse> first = scheduler.submit(Lane.RECOMMEND, "artist-search", answering(200));
+        CompletableFuture<SimpleHttpResponse> second = scheduler.submit(Lane.RECOMMEND, "artist-search", answering(200));
+        CompletableFuture<SimpleHttpResponse> other = scheduler.submit(Lane.RECOMMEND, "top-tracks", answering(200));
+
+        first.get(1, TimeUnit.SECONDS);
+        assertEquals(200, other.get(1, TimeUnit.SECONDS).getCode(),
+                "Another endpoint in the same lane should not wait behind a throttled one");
+        assertFalse(second.isDone(), "The throttled endpoint should still be waiting for its token");
+
+        second.cancel(true);
+        assertEquals(0, waitForQueued(0), "A cancelled request should leave the queue");
+    }
+
+    private int waitForQueued(int expected) throws InterruptedException {
+        for (int i = 0; i < 50 && scheduler.getQueued() != expected; i++) {
+            Thread.sleep(50);
+        }
+        return scheduler.getQueued();
+    }
+}
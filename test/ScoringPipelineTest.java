@@ -0,0 +1,102 @@
+import java.util.List;
+import java.util.stream.Collectors;
+
+import model.CandidatePool;
+import model.InMemorySpotifyAPI;
+import model.RepeatPenaltyScorer;
+import model.ScoredStrategy;
+import model.ScoringPipeline;
+import model.TopKRanker;
+import model.Track;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+// Test class for ScoringPipeline, its built-in stages and ScoredStrategy
+class ScoringPipelineTest {
+
+    private Track seed;
+    private List<Track> candidates;
+
+    private static Track track(String id, int popularity, int durationMs, String... artists) {
+        Track track = new Track(id, "Song " + id, List.of(artists), "Album");
+        track.setPopularity(popularity);
+        track.setDurationMs(durationMs);
+        return track;
+    }
+
+    private static List<String> ids(List<Track> tracks) {
+        return tracks.stream().map(Track::getId).collect(Collectors.toList());
+    }
+
+    @BeforeEach
+    void setUp() {
+        seed = track("seed", 80, 200_000, "A", "B");
+        candidates = List.of(
+                track("popular", 90, 400_000, "C"),
+                track("both", 50, 200_000, "A", "B"),
+                track("one", 60, 210_000, "A"),
+                track("popular", 90, 400_000, "C"),
+                seed);
+    }
+
+    @Test
+    void testWeightsDecideTheOrder() {
+        CandidatePool pool = CandidatePool.of(candidates, seed);
+        assertEquals(3, pool.size(), "Seed and repeated ID should be left out of the pool");
+
+        assertEquals(List.of("popular", "one", "both"),
+                ids(ScoringPipeline.fromWeights("popularity=1").rank(pool, 3)), "Popularity alone");
+        assertEquals(List.of("both", "one", "popular"),
+                ids(ScoringPipeline.fromWeights("popularity=1,overlap=1,duration=0.5").rank(pool, 3)),
+                "Shared artists and close length should outweigh popularity");
+        assertThrows(IllegalArgumentException.class, () -> ScoringPipeline.fromWeights("tempo=1"),
+                "Unknown stage should be rejected");
+        assertThrows(IllegalArgumentException.class, () -> ScoringPipeline.fromWeights("popularity=high"),
+                "Bad weight should be rejected");
+    }
+
+    @Test
+    void testRepeatPenaltyMovesOnToUnseenTracks() {
+        ScoringPipeline pipeline = ScoringPipeline.fromWeights("popularity=1,repeat=1");
+        CandidatePool pool = CandidatePool.of(candidates, seed);
+
+        assertEquals(List.of("popular"), ids(pipeline.rank(pool, 1)), "First call should pick the most popular");
+        assertEquals(List.of("one"), ids(pipeline.rank(pool, 1)), "Second call should skip the returned track");
+        assertEquals(2, ((RepeatPenaltyScorer) pipeline.getStages().get(1)).size(), "Both picks should be remembered");
+    }
+
+    @Test
+    void testTopIndicesKeepsHighestScoresInOrder() {
+        float[] scores = {0.5f, -1f, 2f, 0.5f, 1f};
+        assertArrayEquals(new int[] {2, 4, 0}, TopKRanker.topIndices(scores, scores.length, 3),
+                "Highest first, ties in index order");
+        assertArrayEquals(new int[] {0, 1}, TopKRanker.topIndices(scores, 2, 5), "Only the first size scores count");
+    }
+
+    @Test
+    void testStrategyScoresArtistTracks() throws Exception {
+        InMemorySpotifyAPI api = new InMemorySpotifyAPI(candidates);
+        ScoredStrategy strategy = new ScoredStrategy(ScoringPipeline.fromWeights("popularity=1,overlap=1"));
+
+        List<Track> result = strategy.recommend(seed, api, 2);
+        assertEquals(List.of("both", "one"), ids(result), "Tracks by the seed's artists should rank first");
+    }
+
+    @Test
+    void testStrategySkipsArtistWithoutId() throws Exception {
+        // SpotifyAPI implementations may answer null rather than "No Artist Found" for an unknown artist
+        InMemorySpotifyAPI api = new InMemorySpotifyAPI(candidates) {
+            @Override
+            public String getArtistID(String artist) {
+                return null;
+            }
+        };
+        ScoredStrategy strategy = new ScoredStrategy(ScoringPipeline.fromWeights("popularity=1"));
+
+        List<Track> result = assertDoesNotThrow(() -> strategy.recommend(seed, api, 2),
+                "An artist without an ID should be skipped");
+        assertFalse(result.isEmpty(), "Search results should still be ranked");
+    }
+}
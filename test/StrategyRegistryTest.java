@@ -0,0 +1,111 @@
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import com.google.gson.JsonObject;
+import model.InMemorySpotifyAPI;
+import model.RecommendationEngine;
+import model.RecommendationStrategy;
+import model.SpotifyAPI;
+import model.StrategyRegistry;
+import model.Track;
+import server.RequestHandler;
+import server.Response;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+// Test class for StrategyRegistry and strategy selection in RecommendationEngine
+class StrategyRegistryTest {
+
+    private InMemorySpotifyAPI api;
+    private StrategyRegistry registry;
+    private RecommendationEngine engine;
+
+    // Answers with one track named after itself
+    private static final class NamedStrategy implements RecommendationStrategy {
+        final String name;
+
+        NamedStrategy(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public List<Track> recommend(Track seedTrack, SpotifyAPI apiClient, int count) {
+            return List.of(new Track(name, name, List.of(name), "Album"));
+        }
+
+        @Override
+        public String getStrategyName() {
+            return name;
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        api = new InMemorySpotifyAPI(List.of(new Track("t1", "Song", List.of("Artist"), "Album")));
+        registry = new StrategyRegistry();
+        registry.register("a", new NamedStrategy("a"));
+        registry.register("b", new NamedStrategy("b"));
+        engine = new RecommendationEngine(registry, "a", api);
+    }
+
+    @Test
+    void testRequestChoosesStrategyByName() {
+        RequestHandler handler = new RequestHandler(api, engine, null);
+        JsonObject request = new JsonObject();
+        request.addProperty("action", "RECOMMEND");
+        request.addProperty("trackId", "t1");
+        request.addProperty("trackName", "Song");
+        request.addProperty("trackArtist", "Artist");
+        request.addProperty("trackAlbum", "Album");
+
+        assertEquals("a", handler.handle(request).getTracks().get(0).getId(), "No strategy should use the default");
+
+        request.addProperty("strategy", "b");
+        assertEquals("b", handler.handle(request).getTracks().get(0).getId(), "Named strategy should be used");
+
+        request.addProperty("strategy", "missing");
+        Response unknown = handler.handle(request);
+        assertFalse(unknown.isSuccess(), "Unknown strategy should be an error");
+        assertTrue(unknown.getMessage().contains("missing"), "Error should name the unknown strategy");
+    }
+
+    @Test
+    void testDefaultSwapIsSeenByAllThreads() throws Exception {
+        Track seed = new Track("t1", "Song", List.of("Artist"), "Album");
+        engine.setStrategy("b");
+
+        List<Thread> threads = new ArrayList<>();
+        List<String> seen = Collections.synchronizedList(new ArrayList<>());
+        for (int i = 0; i < 8; i++) {
+            threads.add(Thread.startVirtualThread(() -> {
+                try {
+                    seen.add(engine.getRecommendations(seed, 1).get(0).getId());
+                } catch (Exception e) {
+                    seen.add(e.toString());
+                }
+            }));
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(8, seen.size(), "Every thread should get an answer");
+        assertTrue(seen.stream().allMatch("b"::equals), "Every thread should use the swapped-in default");
+        assertThrows(IllegalArgumentException.class, () -> engine.setStrategy("missing"),
+                "Swapping to an unknown strategy should fail");
+        assertEquals("b", engine.getCurrentStrategy().getStrategyName(), "Failed swap should keep the default");
+    }
+
+    @Test
+    void testStandardRegistryBuildsEachStrategyOnce() {
+        StrategyRegistry standard = StrategyRegistry.standard(null);
+
+        assertSame(standard.get(StrategyRegistry.PARALLEL), standard.get(StrategyRegistry.PARALLEL),
+                "Strategies should be shared, not rebuilt per lookup");
+        assertNull(standard.get(StrategyRegistry.INDEXED), "Indexed strategy needs an artist index");
+        assertTrue(standard.getNames().contains(StrategyRegistry.ARTIST), "Artist strategy should be registered");
+    }
+}
@@ -0,0 +1,153 @@
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import com.google.gson.reflect.TypeToken;
+import model.DiskCacheTier;
+import model.TieredCache;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+// Test class for TieredCache
+class TieredCacheTest {
+
+    private AtomicInteger loads;
+
+    @TempDir
+    Path dir;
+
+    @BeforeEach
+    void setUp() {
+        loads = new AtomicInteger();
+    }
+
+    private TieredCache<String> cache(long ttlMs, long staleMs, long maxWeight, DiskCacheTier disk) {
+        return new TieredCache<>("test", ttlMs, staleMs, maxWeight, value -> 1, String.class, disk, Runnable::run);
+    }
+
+    private long entryFiles() throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.filter(file -> file.toString().endsWith(".json")).count();
+        }
+    }
+
+    private TieredCache.Loader<String> loader(String value) {
+        return () -> {
+            loads.incrementAndGet();
+            return value;
+        };
+    }
+
+    @Test
+    void testSecondLookupIsHit() throws IOException {
+        TieredCache<String> cache = cache(60_000, 0, 10, null);
+
+        cache.get("a", loader("1"));
+        String value = cache.get("a", loader("2"));
+
+        assertEquals("1", value, "Cached value should be returned");
+        assertEquals(1, loads.get(), "Loader should only run once");
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.getMisses());
+    }
+
+    @Test
+    void testEvictsLeastRecentlyUsed() throws IOException {
+        TieredCache<String> cache = cache(60_000, 0, 2, null);
+
+        cache.get("a", loader("a"));
+        cache.get("b", loader("b"));
+        cache.get("a", loader("a"));
+        cache.get("c", loader("c"));
+
+        assertEquals(1, cache.getEvictions(), "One entry should be evicted");
+        cache.get("a", loader("a"));
+        assertEquals(3, loads.get(), "Recently used entry should survive eviction");
+    }
+
+    @Test
+    void testStaleEntryServedWhileRefreshing() throws IOException {
+        TieredCache<String> cache = cache(0, 60_000, 10, null);
+
+        cache.get("a", loader("old"));
+        String value = cache.get("a", loader("new"));
+
+        assertEquals("old", value, "Stale value should be served immediately");
+        assertEquals(1, cache.getStaleHits());
+        assertEquals("new", cache.get("a", loader("newer")), "Background refresh should replace the entry");
+    }
+
+    @Test
+    void testDiskTierSurvivesNewCache() throws IOException {
+        cache(60_000, 0, 10, new DiskCacheTier(dir)).get("a", loader("persisted"));
+        TieredCache<String> restarted = cache(60_000, 0, 10, new DiskCacheTier(dir));
+        String value = restarted.get("a", loader("reloaded"));
+
+        assertEquals("persisted", value, "Value should be read back from disk");
+        assertEquals(1, restarted.getDiskHits());
+    }
+
+    @Test
+    void testFrozenValuesCannotBeChangedByCallers() throws IOException {
+        Type listType = new TypeToken<List<String>>() {}.getType();
+        TieredCache<List<String>> cache = new TieredCache<>("test", 60_000, 0, 100, List::size, listType,
+                new DiskCacheTier(dir), Runnable::run, List::copyOf);
+
+        List<String> loaded = new ArrayList<>(List.of("x", "y"));
+        List<String> first = cache.get("k", () -> loaded);
+        loaded.add("z");
+        assertEquals(List.of("x", "y"), cache.get("k", () -> loaded), "The loader's list should not be shared");
+        assertThrows(UnsupportedOperationException.class, () -> first.add("z"), "Callers should get an immutable list");
+
+        TieredCache<List<String>> restarted = new TieredCache<>("test", 60_000, 0, 100, List::size, listType,
+                new DiskCacheTier(dir), Runnable::run, List::copyOf);
+        List<String> fromDisk = restarted.get("k", () -> List.of());
+        assertEquals(List.of("x", "y"), fromDisk, "Value should be read back from disk");
+        assertThrows(UnsupportedOperationException.class, () -> fromDisk.add("z"),
+                "A value read from disk should be immutable too");
+    }
+
+    @Test
+    void testEvictedEntriesLeaveTheDisk() throws IOException {
+        TieredCache<String> cache = cache(60_000, 0, 2, new DiskCacheTier(dir));
+
+        cache.get("a", loader("a"));
+        cache.get("b", loader("b"));
+        cache.get("c", loader("c"));
+
+        assertEquals(2, entryFiles(), "The evicted entry's file should be deleted with it");
+        TieredCache<String> restarted = cache(60_000, 0, 10, new DiskCacheTier(dir));
+        restarted.get("a", loader("reloaded"));
+        assertEquals(0, restarted.getDiskHits(), "An evicted entry should not come back from disk");
+    }
+
+    @Test
+    void testOpeningPrunesOldestFiles() throws IOException {
+        TieredCache<String> cache = cache(60_000, 0, 10, new DiskCacheTier(dir));
+        cache.get("a", loader("a"));
+        try (Stream<Path> files = Files.list(dir)) {
+            // Only a's file exists yet: make it the oldest
+            for (Path file : files.toList()) {
+                Files.setLastModifiedTime(file, FileTime.fromMillis(0));
+            }
+        }
+        cache.get("b", loader("b"));
+        cache.get("c", loader("c"));
+        Files.createFile(dir.resolve("entry1.tmp"));
+
+        TieredCache<String> restarted = cache(60_000, 0, 10, new DiskCacheTier(dir, 2));
+        assertEquals(2, entryFiles(), "Only the newest entries should be kept");
+        assertFalse(Files.exists(dir.resolve("entry1.tmp")), "Leftover temp files should be deleted");
+        restarted.get("a", loader("reloaded"));
+        assertEquals(0, restarted.getDiskHits(), "The oldest entry should be the one pruned");
+    }
+}
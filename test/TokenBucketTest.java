@@ -0,0 +1,42 @@
+import java.util.concurrent.TimeUnit;
+
+import model.TokenBucket;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+// Test class for TokenBucket
+class TokenBucketTest {
+
+    @Test
+    void testBurstThenWaitForRefill() {
+        TokenBucket bucket = new TokenBucket(10, 2);
+        long now = System.nanoTime();
+
+        for (int i = 0; i < 2; i++) {
+            assertEquals(0, bucket.nanosUntilAvailable(now), "The burst should be available at once");
+            bucket.take();
+        }
+
+        long wait = bucket.nanosUntilAvailable(now);
+        assertTrue(wait > 0 && wait <= TimeUnit.MILLISECONDS.toNanos(100),
+                "An empty bucket at 10/s should need up to 100ms for the next token, got " + wait);
+        assertEquals(0, bucket.nanosUntilAvailable(now + wait), "A token should be back after the reported wait");
+    }
+
+    @Test
+    void testRefillStopsAtBurst() {
+        TokenBucket bucket = new TokenBucket(1, 3);
+        long now = System.nanoTime();
+        for (int i = 0; i < 3; i++) {
+            bucket.take();
+        }
+
+        long later = now + TimeUnit.HOURS.toNanos(1);
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, bucket.nanosUntilAvailable(later), "A long idle period should refill the burst");
+            bucket.take();
+        }
+        assertTrue(bucket.nanosUntilAvailable(later) > 0, "Idle time should not bank more than the burst");
+    }
+}
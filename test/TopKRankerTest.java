@@ -0,0 +1,63 @@
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import model.TopKRanker;
+import model.Track;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+// Test class for TopKRanker
+class TopKRankerTest {
+
+    private List<Track> pool;
+
+    private static Track track(String id, int popularity) {
+        Track track = new Track(id, "Song " + id, List.of("Artist"), "Album");
+        track.setPopularity(popularity);
+        return track;
+    }
+
+    private static List<String> ids(List<Track> tracks) {
+        return tracks.stream().map(Track::getId).collect(Collectors.toList());
+    }
+
+    @BeforeEach
+    void setUp() {
+        pool = List.of(track("a", 50), track("b", 90), track("seed", 95), track("c", 70), track("b", 90),
+                track("d", 70), track("e", 10));
+    }
+
+    @Test
+    void testRanksDropsSeedAndRepeats() {
+        assertEquals(List.of("b", "c", "d"), ids(TopKRanker.top(pool, "seed", 3)),
+                "Most popular first, seed and repeated b dropped, tie in candidate order");
+        assertEquals(List.of("b", "c", "d", "a", "e"), ids(TopKRanker.top(pool, "seed", 10)),
+                "A count past the pool should return every distinct candidate");
+        assertTrue(TopKRanker.top(pool, "seed", 0).isEmpty(), "Zero count should return nothing");
+    }
+
+    @Test
+    void testMatchesStreamPipeline() {
+        Random random = new Random(1);
+        List<Track> large = new ArrayList<>();
+        for (int i = 0; i < 5_000; i++) {
+            large.add(i > 0 && random.nextInt(10) == 0
+                    ? large.get(random.nextInt(i)) : track("t" + i, random.nextInt(101)));
+        }
+        String seedId = large.get(0).getId();
+
+        List<Track> expected = new LinkedHashSet<>(large).stream()
+                .filter(track -> !track.getId().equals(seedId))
+                .sorted(Comparator.comparingInt(Track::getPopularity).reversed())
+                .limit(25)
+                .collect(Collectors.toList());
+        assertEquals(ids(expected), ids(TopKRanker.top(large, seedId, 25)),
+                "Ranker should pick the same tracks in the same order as sort and limit");
+    }
+}
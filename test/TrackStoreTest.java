@@ -0,0 +1,113 @@
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import model.InMemorySpotifyAPI;
+import model.RecordingSpotifyAPI;
+import model.Track;
+import model.TrackStore;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+// Test class for TrackStore and RecordingSpotifyAPI
+class TrackStoreTest {
+
+    @TempDir
+    Path dir;
+    private TrackStore store;
+
+    private static Track track(String id, int popularity, String... artists) {
+        Track track = new Track(id, "Song " + id, List.of(artists), "Album");
+        track.setPopularity(popularity);
+        track.setDurationMs(200_000 + popularity);
+        return track;
+    }
+
+    @BeforeEach
+    void setUp() throws IOException {
+        store = TrackStore.open(dir);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        store.close();
+    }
+
+    @Test
+    void testTracksSurviveReopen() throws IOException {
+        assertTrue(store.add(track("t1", 40, "A", "B")), "New track should be added");
+        assertFalse(store.add(track("t1", 99, "A")), "Known ID should not be added again");
+        store.add(new Track("t2", "No Album", List.of(), null));
+        store.close();
+
+        store = TrackStore.open(dir);
+        assertEquals(2, store.size(), "Both tracks should be read back");
+        Track back = store.get("t1");
+        assertNotNull(back, "Track should be found by ID after reopening");
+        assertEquals("Song t1", back.getName(), "Name should survive");
+        assertEquals(List.of("A", "B"), back.getArtists(), "Artists should survive in order");
+        assertEquals("Album", back.getAlbumName(), "Album should survive");
+        assertEquals(40, back.getPopularity(), "First popularity should be kept");
+        assertEquals(200_040, back.getDurationMs(), "Duration should survive");
+        assertNull(store.get("t2").getAlbumName(), "Missing album should stay null");
+        assertNull(store.get("missing"), "Unknown ID should not be found");
+    }
+
+    @Test
+    void testCloseTwiceIsHarmless() throws IOException {
+        store.add(track("t1", 40, "A"));
+        store.close();
+        assertDoesNotThrow(store::close, "A second close should do nothing");
+    }
+
+    @Test
+    void testIndexAndColumnsGrowPastInitialSize() throws IOException {
+        for (int i = 0; i < 5_000; i++) {
+            store.add(track("id" + i, i % 101, "Artist " + (i % 7)));
+        }
+        store.close();
+
+        store = TrackStore.open(dir);
+        assertEquals(5_000, store.size(), "Every track should be stored");
+        for (int i = 0; i < 5_000; i += 97) {
+            assertEquals(i, store.find("id" + i), "Each ID should map to its row");
+        }
+        assertEquals("Artist 0", store.get("id4998").getArtists().get(0), "Late rows should resolve names");
+        try (DirectoryStream<Path> indexes = Files.newDirectoryStream(dir, "id-*.idx")) {
+            int count = 0;
+            for (Path ignored : indexes) {
+                count++;
+            }
+            assertEquals(1, count, "Only the current index generation should be left after growth");
+        }
+    }
+
+    @Test
+    void testMostPopularScansWithoutTrackObjects() throws IOException {
+        store.addAll(List.of(track("a", 10), track("b", 90), track("c", 50), track("d", 70), track("e", 30)));
+
+        int[] rows = new int[3];
+        assertEquals(3, store.mostPopular(rows), "Should fill the whole array");
+        assertEquals(90, store.getPopularity(rows[0]), "Most popular should come first");
+        assertEquals(70, store.getPopularity(rows[1]), "Second most popular should follow");
+        assertEquals(50, store.getPopularity(rows[2]), "Third most popular should be last");
+
+        assertEquals(5, store.mostPopular(new int[10]), "Cannot fill more rows than stored");
+    }
+
+    @Test
+    void testRecordingApiStoresFetchedTracks() throws IOException {
+        RecordingSpotifyAPI api = new RecordingSpotifyAPI(new InMemorySpotifyAPI(List.of(
+                track("t1", 60, "Artist"), track("t2", 50, "Artist"))), store);
+
+        api.searchTracks("Song", 10);
+        assertEquals(2, store.size(), "Search results should be recorded");
+        assertEquals("Song t2", api.getTrack("t2").getName(), "Lookup should be answered from the store");
+    }
+}